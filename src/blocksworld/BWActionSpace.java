@@ -1,7 +1,11 @@
 package blocksworld;
 
 import planning.Action;
+import planning.ActionCompiler;
 import planning.BasicAction;
+import planning.CompiledAction;
+import planning.StateLayout;
+import planning.SuccessorGenerator;
 import representation.Variable;
 
 import java.util.*;
@@ -86,6 +90,11 @@ public class BWActionSpace {
      */
     private BWVariableSpace variableSpace;
 
+    /**
+     * The index of the applicable actions
+     */
+    private SuccessorGenerator successorGenerator;
+
     /**
      * Constructor of the class BWActionSpace
      *
@@ -361,6 +370,20 @@ if (this.moveBlockFromTopToFreePile == null) {
         return variableSpace;
     }
 
+    /**
+     * Returns the index of the applicable actions of the blocksworld, built on first use
+     *
+     * @return the successor generator of all the actions
+     */
+    public SuccessorGenerator getSuccessorGenerator() {
+        if (this.successorGenerator == null) {
+            StateLayout layout = StateLayout.of(null, this.getActions(), null);
+            this.successorGenerator = new SuccessorGenerator(layout,
+                    new ActionCompiler(layout).compile(this.getActions()));
+        }
+        return this.successorGenerator;
+    }
+
     /**
      * Returns a list of all the possible actions that can be applied to the given state
      *
@@ -369,14 +392,11 @@ if (this.moveBlockFromTopToFreePile == null) {
      * @return A list of all the possible actions that can be applied to the given state
      */
     public List<Action> getApplicableActions(Map<Variable, Object> state) {
+        SuccessorGenerator generator = this.getSuccessorGenerator();
         List<Action> applicableActions = new ArrayList<>();
-        for(Map.Entry<Integer, Variable> entry : this.variableSpace.getFixedVariables().entrySet()) {
-            if(state.get(entry.getValue()).equals(false)) {
-                applicableActions.addAll(this.getMoveBlockFromTopToTop());
-                applicableActions.addAll(this.getMoveBlockFromTopToFreePile());
-            }
+        for (CompiledAction action : generator.getApplicableActions(generator.getLayout().pack(state))) {
+            applicableActions.add(action.getAction());
         }
         return applicableActions;
-
     }
 }
@@ -1,7 +1,7 @@
 package blocksworld;
 
+import representation.AllDifferentConstraint;
 import representation.Constraint;
-import representation.DifferenceConstraint;
 import representation.Implication;
 
 import java.util.HashSet;
@@ -84,20 +84,23 @@ public class BWConstraintSpace {
     /**
      * Get the set of the constraints between blocks and blocks
      *
+     * <p>
+     * The blocks are on different blocks or piles: this is a single {@link AllDifferentConstraint}
+     * on the On variables, instead of a difference constraint for each pair of blocks. <br>
+     * </p>
+     *
      * @return the set of the constraints between blocks and blocks
      * @see BWConstraintSpace#blockBlockConstraints
      */
     public Set<Constraint> getBlockBlockConstraints() {
         if (this.blockBlockConstraints == null) {
             this.blockBlockConstraints = new HashSet<>();
+            // on_i != on_j for all i != j
+            this.blockBlockConstraints.add(
+                    new AllDifferentConstraint(this.getVariableSpace().getOnVariables().values()));
             IntStream.range(0, this.getNbBlocks()).forEach(i -> {
                 IntStream.range(0, this.getNbBlocks()).forEach(j -> {
                     if (i != j) {
-                        this.blockBlockConstraints.add(
-                                new DifferenceConstraint(
-                                        this.getVariableSpace().getOnVariables().get(i),
-                                        this.getVariableSpace().getOnVariables().get(j)));
-
                         this.blockBlockConstraints.add(
                                 new Implication(
                                         this.getVariableSpace().getOnVariables().get(i),
@@ -110,13 +113,6 @@ public class BWConstraintSpace {
             /*for (int i = 0; i < this.getNbBlocks(); i++) {
                 for (int j = 0; j < this.getNbBlocks(); j++) {
                     if (i != j) {
-                        // on_i != on_j
-                        this.blockBlockConstraints.add(
-                                new DifferenceConstraint(variableSpace.getOnVariables().get(i),
-                                        variableSpace.getOnVariables().get(j)
-                                )
-                        );
-
                         // (on_i == j) => (fixed_j= true)
                         this.blockBlockConstraints.add(
                                 new Implication(
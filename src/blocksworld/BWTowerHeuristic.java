@@ -0,0 +1,300 @@
+package blocksworld;
+
+import planning.Action;
+import planning.BasicAction;
+import planning.Goal;
+import planning.IncrementalHeuristic;
+import planning.PackedState;
+import planning.StateLayout;
+import representation.Variable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <b>
+ * Class representing an admissible heuristic for the blocksworld, based on the towers of the state
+ * </b>
+ *
+ * <p>
+ * A block is well placed if it is on the block or the pile required by the goal, and if the block
+ * below it is well placed. A block that is not well placed must move at least once, and a block
+ * sitting above the block it must be put on, when that block is not well placed, must move at least
+ * twice: once to free the block below, and once to come back on it when it is well placed. <br>
+ * </p>
+ *
+ * <p>
+ * The cost of a move depends on where the block is and where it goes (see {@link BWActionSpace}):
+ * </p>
+ * <ul>
+ *     <li>from a block to a block : 1</li>
+ *     <li>from a block to a pile : 0</li>
+ *     <li>from a pile to a block : 2</li>
+ *     <li>from a pile to a pile : 3</li>
+ * </ul>
+ *
+ * <p>
+ * Each block that must move costs the cheapest sequence of moves from where it is to where it must
+ * go, with one or two moves. A move only moves one block, so the sum over the blocks never
+ * overestimates the cost of a plan: the heuristic is admissible. <br>
+ * Only the <code>On_b</code> variables of the state and of the goal are read. <br>
+ * </p>
+ *
+ * <p>
+ * A move only changes the block that is moved, which has no block above it before and after the
+ * move, so the status of the other blocks does not change: {@link #estimateIncremental(PackedState,
+ * float, Action)} updates the estimate of the parent with the contribution of the moved block. <br>
+ * </p>
+ *
+ * @author 22013393
+ * @version 1.0
+ */
+public class BWTowerHeuristic implements IncrementalHeuristic {
+
+    /**
+     * The support of a block whose <code>On_b</code> variable is not assigned
+     */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * The cheapest cost of one or more moves of a block, by kind of start (block, pile) and end (block, pile)
+     */
+    private static final int[][] ONE_MOVE = {{1, 0}, {2, 2}};
+
+    /**
+     * The cheapest cost of two or more moves of a block from a block to a block
+     */
+    private static final int TWO_MOVES = 2;
+
+    /**
+     * The number of blocks
+     */
+    private final int nbBlocks;
+
+    /**
+     * The <code>On_b</code> variable of each block
+     */
+    private final Variable[] onVariables;
+
+    /**
+     * The block of each <code>On_b</code> variable
+     */
+    private final Map<Variable, Integer> blocks;
+
+    /**
+     * The support of each block in the goal ({@link #UNKNOWN} if the goal does not place the block)
+     */
+    private final int[] goalOn;
+
+    /**
+     * The translation of the codes of the last state layout used, built on first use
+     */
+    private volatile Translation translation;
+
+    /**
+     * Constructor of the class
+     *
+     * @param variableSpace the variables of the blocksworld
+     * @param goal          the goal
+     */
+    public BWTowerHeuristic(BWVariableSpace variableSpace, Goal goal) {
+        this.nbBlocks = variableSpace.getNbBlocks();
+        this.onVariables = new Variable[this.nbBlocks];
+        this.blocks = new HashMap<>();
+        this.goalOn = new int[this.nbBlocks];
+        for (int b = 0; b < this.nbBlocks; b++) {
+            this.onVariables[b] = variableSpace.getOn(b);
+            this.blocks.put(this.onVariables[b], b);
+            Object support = goal.getGoal().get(this.onVariables[b]);
+            this.goalOn[b] = support instanceof Integer ? (Integer) support : BWTowerHeuristic.UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns the supports of the blocks of a state
+     *
+     * @param state the state
+     * @return the support of each block (a block, a pile -(p + 1), or {@link #UNKNOWN})
+     */
+    private int[] supportsOf(Map<Variable, Object> state) {
+        int[] on = new int[this.nbBlocks];
+        for (int b = 0; b < this.nbBlocks; b++) {
+            Object support = state.get(this.onVariables[b]);
+            on[b] = support instanceof Integer ? (Integer) support : BWTowerHeuristic.UNKNOWN;
+        }
+        return on;
+    }
+
+    /**
+     * Returns the supports of the blocks of a packed state
+     *
+     * @param state the packed state
+     * @return the support of each block (a block, a pile -(p + 1), or {@link #UNKNOWN})
+     */
+    private int[] supportsOf(PackedState state) {
+        StateLayout layout = state.getLayout();
+        Translation translation = this.translation;
+        if (translation == null || translation.layout != layout) {
+            translation = new Translation(layout);
+            this.translation = translation;
+        }
+        int[] on = new int[this.nbBlocks];
+        for (int b = 0; b < this.nbBlocks; b++) {
+            int index = translation.indices[b];
+            on[b] = index < 0 ? BWTowerHeuristic.UNKNOWN : translation.supports[b][state.get(index)];
+        }
+        return on;
+    }
+
+    /**
+     * <b>
+     * Returns the lowest cost of the moves of a block on a support
+     * </b>
+     *
+     * <p>
+     * The tower below the support is walked down once, to find if a block of it is not well placed
+     * (then the block must move), and if the block required by the goal is in it and not well placed
+     * (then the block must move twice). <br>
+     * </p>
+     *
+     * @param on      the supports of the blocks
+     * @param block   the block
+     * @param support the support of the block
+     * @return the lowest cost of the moves of the block
+     */
+    private int contribution(int[] on, int block, int support) {
+        if (support == BWTowerHeuristic.UNKNOWN) {
+            return 0;
+        }
+        int target = this.goalOn[block];
+        boolean misplaced = target != BWTowerHeuristic.UNKNOWN && support != target;
+        boolean targetBelow = false;
+        boolean targetMisplaced = false;
+        int current = support;
+        for (int steps = 0; current >= 0 && steps < this.nbBlocks; steps++) {
+            if (current == target) {
+                targetBelow = true;
+            }
+            int below = on[current];
+            if (below == BWTowerHeuristic.UNKNOWN) {
+                break;
+            }
+            boolean wrong = this.goalOn[current] != BWTowerHeuristic.UNKNOWN && below != this.goalOn[current];
+            misplaced |= wrong;
+            targetMisplaced |= targetBelow && wrong;
+            current = below;
+        }
+        if (!misplaced) {
+            return 0;
+        }
+        int from = support >= 0 ? 0 : 1;
+        if (target == BWTowerHeuristic.UNKNOWN) {
+            return Math.min(BWTowerHeuristic.ONE_MOVE[from][0], BWTowerHeuristic.ONE_MOVE[from][1]);
+        }
+        if (targetBelow && targetMisplaced) {
+            return BWTowerHeuristic.TWO_MOVES;
+        }
+        return BWTowerHeuristic.ONE_MOVE[from][target >= 0 ? 0 : 1];
+    }
+
+    /**
+     * Returns the estimate of the supports of the blocks of a state
+     *
+     * @param on the supports of the blocks
+     * @return the sum of the contributions of the blocks
+     */
+    private float estimate(int[] on) {
+        float estimate = 0;
+        for (int b = 0; b < this.nbBlocks; b++) {
+            estimate += this.contribution(on, b, on[b]);
+        }
+        return estimate;
+    }
+
+    @Override
+    public float estimate(Map<Variable, Object> state) {
+        return this.estimate(this.supportsOf(state));
+    }
+
+    @Override
+    public float estimate(PackedState state) {
+        return this.estimate(this.supportsOf(state));
+    }
+
+    /**
+     * <b>
+     * Returns the estimate of the successor of a state by an action, from the estimate of the state
+     * </b>
+     *
+     * <p>
+     * Only the contribution of the moved block is computed again. If the action does not move a block,
+     * the successor is estimated from scratch. <br>
+     * </p>
+     *
+     * @param parent      the state
+     * @param parentValue the estimate of the state
+     * @param action      the action performed by the state
+     * @return the estimate of the successor of the state by the action
+     */
+    @Override
+    public float estimateIncremental(PackedState parent, float parentValue, Action action) {
+        if (action instanceof BasicAction) {
+            for (Map.Entry<Variable, Object> entry : ((BasicAction) action).getEffect().entrySet()) {
+                Integer block = this.blocks.get(entry.getKey());
+                // A block put on itself leaves the towers, its successor is estimated from scratch
+                if (block != null && entry.getValue() instanceof Integer && !block.equals(entry.getValue())) {
+                    int[] on = this.supportsOf(parent);
+                    return parentValue - this.contribution(on, block, on[block])
+                            + this.contribution(on, block, (Integer) entry.getValue());
+                }
+            }
+        }
+        return this.estimate(action.successor(parent));
+    }
+
+    /**
+     * <b>
+     * Translation of the codes of a state layout into the supports of the blocks
+     * </b>
+     */
+    private final class Translation {
+
+        /**
+         * The state layout
+         */
+        private final StateLayout layout;
+
+        /**
+         * The index of the <code>On_b</code> variable of each block in the layout (-1 if it is not part of it)
+         */
+        private final int[] indices;
+
+        /**
+         * The support of each block for each code of its <code>On_b</code> variable
+         */
+        private final int[][] supports;
+
+        /**
+         * Constructor of the translation
+         *
+         * @param layout the state layout
+         */
+        private Translation(StateLayout layout) {
+            this.layout = layout;
+            this.indices = new int[BWTowerHeuristic.this.nbBlocks];
+            this.supports = new int[BWTowerHeuristic.this.nbBlocks][];
+            for (int b = 0; b < BWTowerHeuristic.this.nbBlocks; b++) {
+                int index = layout.indexOf(BWTowerHeuristic.this.onVariables[b]);
+                this.indices[b] = index;
+                if (index >= 0) {
+                    this.supports[b] = new int[layout.getDomainSize(index) + 1];
+                    this.supports[b][0] = BWTowerHeuristic.UNKNOWN;
+                    for (int code = 1; code <= layout.getDomainSize(index); code++) {
+                        Object value = layout.valueOf(index, code);
+                        this.supports[b][code] = value instanceof Integer ? (Integer) value : BWTowerHeuristic.UNKNOWN;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -72,8 +72,9 @@ public abstract  class AbstractSolver implements  Solver{
      * </b>
      *
      * <p>
-     *     A CSP Solution is consistent if it completely assigns a value to each variable of each constraint
-     *     and if it satisfies all constraints. <br>
+     *     A CSP Solution is consistent if it violates no constraint: a constraint whose variables are not
+     *     all assigned is only checked if it can reject a partial assignment
+     *     (see {@link Constraint#isViolatedBy(Map)}). <br>
      * </p>
      *
      * @param solution the CSP solution to check
@@ -87,7 +88,7 @@ public abstract  class AbstractSolver implements  Solver{
         }
 
         for (Constraint constraint : this.constraints) {
-            if (solution.keySet().containsAll(constraint.getScope()) && !constraint.isSatisfiedBy(solution)) {
+            if (constraint.isViolatedBy(solution)) {
                 return false;
             }
         }
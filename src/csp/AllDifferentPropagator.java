@@ -0,0 +1,438 @@
+package csp;
+
+import representation.AllDifferentConstraint;
+import representation.Variable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>
+ *     Class representing the propagator of an all different constraint (Régin's algorithm)
+ * </b>
+ *
+ * <p>
+ *     The propagator keeps a maximum matching between the variables and the values of their domains. If a
+ *     variable cannot be matched, two variables must share a value and the constraint fails. Otherwise a
+ *     value of a variable is part of a solution if the edge between them is in the matching, or on an
+ *     alternating path that starts from a free value, or on an alternating cycle (both ends in the same
+ *     strongly connected component of the graph oriented by the matching). The other values are removed,
+ *     so the domains are generalized arc consistent after one call. <br>
+ * </p>
+ *
+ * <p>
+ *     The matching is kept from one call to the next one: the variables whose value was removed are
+ *     matched again by augmenting paths, and the others keep their value. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+final class AllDifferentPropagator implements Propagator {
+
+    /**
+     * The all different constraint
+     */
+    private final AllDifferentConstraint constraint;
+
+    /**
+     * The store whose codes are used by the fields below
+     */
+    private DomainStore boundStore;
+
+    /**
+     * The index of each variable of the constraint, by position
+     */
+    private int[] variables;
+
+    /**
+     * The identifier of each value, by position of the variable and by code (a value shared by several
+     * variables has the same identifier for all of them)
+     */
+    private int[][] valueIds;
+
+    /**
+     * The number of different values
+     */
+    private int valueCount;
+
+    /**
+     * The value matched with each variable, by position (-1 if none)
+     */
+    private int[] matchedValue;
+
+    /**
+     * The code of the value matched with each variable, by position
+     */
+    private int[] matchedCode;
+
+    /**
+     * The variable matched with each value, by identifier of value (-1 if none)
+     */
+    private int[] matchedPosition;
+
+    /**
+     * The last search of an augmenting path that visited each value
+     */
+    private int[] visited;
+
+    /**
+     * The number of searches of an augmenting path
+     */
+    private int stamp;
+
+    /**
+     * The first edge of each value in {@link #edges}, by identifier of value
+     */
+    private int[] edgeStart;
+
+    /**
+     * The variables linked to each value by an edge that is not in the matching
+     */
+    private int[] edges;
+
+    /**
+     * True for the values reached by an alternating path from a free value
+     */
+    private boolean[] reached;
+
+    /**
+     * The strongly connected component of each node (variables then values)
+     */
+    private int[] component;
+
+    /**
+     * The order in which each node is visited by the search of the components
+     */
+    private int[] order;
+
+    /**
+     * The smallest order reachable from each node
+     */
+    private int[] lowLink;
+
+    /**
+     * The next successor of each node to visit (also the next free slot of each value in {@link #edges})
+     */
+    private int[] cursor;
+
+    /**
+     * The nodes whose successors are being visited
+     */
+    private int[] callStack;
+
+    /**
+     * The visited nodes whose component is not known yet
+     */
+    private int[] nodeStack;
+
+    /**
+     * True for the nodes in {@link #nodeStack}
+     */
+    private boolean[] onStack;
+
+    /**
+     * Constructor of the propagator
+     *
+     * @param constraint the all different constraint
+     */
+    AllDifferentPropagator(AllDifferentConstraint constraint) {
+        this.constraint = constraint;
+    }
+
+    @Override
+    public Set<Variable> getScope() {
+        return this.constraint.getScope();
+    }
+
+    @Override
+    public boolean propagate(DomainStore store) {
+        this.bind(store);
+        if (!this.match(store)) {
+            return false;
+        }
+        this.buildEdges(store);
+        this.reachFromFreeValues();
+        this.findComponents();
+
+        // Removes the values whose edge is on no alternating path or cycle
+        int count = this.variables.length;
+        for (int position = 0; position < count; position++) {
+            int variable = this.variables[position];
+            int[] ids = this.valueIds[position];
+            for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+                int value = ids[code];
+                if (value != this.matchedValue[position] && !this.reached[value]
+                        && this.component[position] != this.component[count + value]) {
+                    store.remove(variable, code);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Repairs the matching so that each variable is matched with a value of its domain
+     *
+     * @param store the domains of the variables
+     * @return false if a variable cannot be matched
+     */
+    private boolean match(DomainStore store) {
+        for (int position = 0; position < this.variables.length; position++) {
+            int value = this.matchedValue[position];
+            if (value >= 0 && !store.contains(this.variables[position], this.matchedCode[position])) {
+                this.matchedPosition[value] = -1;
+                this.matchedValue[position] = -1;
+            }
+        }
+        for (int position = 0; position < this.variables.length; position++) {
+            if (this.matchedValue[position] < 0) {
+                this.stamp++;
+                if (!this.augment(store, position)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches an augmenting path from a variable that is not matched, and matches it
+     *
+     * @param store    the domains of the variables
+     * @param position the position of the variable
+     * @return true if the variable has been matched
+     */
+    private boolean augment(DomainStore store, int position) {
+        int variable = this.variables[position];
+        int[] ids = this.valueIds[position];
+
+        // A free value is taken first
+        for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+            if (this.matchedPosition[ids[code]] < 0) {
+                this.assign(position, ids[code], code);
+                return true;
+            }
+        }
+        for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+            int value = ids[code];
+            if (this.visited[value] != this.stamp) {
+                this.visited[value] = this.stamp;
+                if (this.augment(store, this.matchedPosition[value])) {
+                    this.assign(position, value, code);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches a variable with a value
+     *
+     * @param position the position of the variable
+     * @param value    the identifier of the value
+     * @param code     the code of the value in the domain of the variable
+     */
+    private void assign(int position, int value, int code) {
+        this.matchedValue[position] = value;
+        this.matchedCode[position] = code;
+        this.matchedPosition[value] = position;
+    }
+
+    /**
+     * Lists, for each value, the variables whose domain holds it and that are not matched with it
+     *
+     * @param store the domains of the variables
+     */
+    private void buildEdges(DomainStore store) {
+        int[] edgeStart = this.edgeStart;
+        Arrays.fill(edgeStart, 0);
+        for (int position = 0; position < this.variables.length; position++) {
+            int variable = this.variables[position];
+            for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+                int value = this.valueIds[position][code];
+                if (value != this.matchedValue[position]) {
+                    edgeStart[value + 1]++;
+                }
+            }
+        }
+        for (int value = 0; value < this.valueCount; value++) {
+            edgeStart[value + 1] += edgeStart[value];
+        }
+        int[] fill = this.cursor;
+        System.arraycopy(edgeStart, 0, fill, 0, this.valueCount);
+        for (int position = 0; position < this.variables.length; position++) {
+            int variable = this.variables[position];
+            for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+                int value = this.valueIds[position][code];
+                if (value != this.matchedValue[position]) {
+                    this.edges[fill[value]++] = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the values reached by an alternating path from a free value
+     */
+    private void reachFromFreeValues() {
+        Arrays.fill(this.reached, false);
+        int[] stack = this.nodeStack;
+        int size = 0;
+        for (int value = 0; value < this.valueCount; value++) {
+            if (this.matchedPosition[value] < 0) {
+                this.reached[value] = true;
+                stack[size++] = value;
+            }
+        }
+        while (size > 0) {
+            int value = stack[--size];
+            for (int edge = this.edgeStart[value]; edge < this.edgeStart[value + 1]; edge++) {
+                // From a variable, the path goes on with the value matched with it
+                int next = this.matchedValue[this.edges[edge]];
+                if (!this.reached[next]) {
+                    this.reached[next] = true;
+                    stack[size++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the strongly connected components of the graph oriented by the matching, with an
+     * iterative version of Tarjan's algorithm
+     *
+     * <p>
+     *     The nodes are the variables (by position) then the values. A variable points to the value matched
+     *     with it, and a value points to the other variables whose domain holds it. <br>
+     * </p>
+     */
+    private void findComponents() {
+        int count = this.variables.length;
+        int nodes = count + this.valueCount;
+        int[] order = this.order;
+        int[] lowLink = this.lowLink;
+        int[] callStack = this.callStack;
+        int[] nodeStack = this.nodeStack;
+        boolean[] onStack = this.onStack;
+        Arrays.fill(order, 0, nodes, -1);
+        Arrays.fill(this.cursor, 0, nodes, 0);
+        int counter = 0;
+        int components = 0;
+        int stackSize = 0;
+        for (int root = 0; root < nodes; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            order[root] = lowLink[root] = counter++;
+            nodeStack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                int next = this.nextSuccessor(node);
+                if (next >= 0) {
+                    if (order[next] < 0) {
+                        order[next] = lowLink[next] = counter++;
+                        nodeStack[stackSize++] = next;
+                        onStack[next] = true;
+                        callStack[depth++] = next;
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], order[next]);
+                    }
+                } else {
+                    depth--;
+                    if (lowLink[node] == order[node]) {
+                        int member;
+                        do {
+                            member = nodeStack[--stackSize];
+                            onStack[member] = false;
+                            this.component[member] = components;
+                        } while (member != node);
+                        components++;
+                    }
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next successor of a node in the search of the components
+     *
+     * @param node the node (a variable, then a value)
+     * @return the next successor of the node, or -1 if all its successors have been visited
+     */
+    private int nextSuccessor(int node) {
+        int count = this.variables.length;
+        int step = this.cursor[node]++;
+        if (node < count) {
+            int value = this.matchedValue[node];
+            return step == 0 && value >= 0 ? count + value : -1;
+        }
+        int value = node - count;
+        int edge = this.edgeStart[value] + step;
+        return edge < this.edgeStart[value + 1] ? this.edges[edge] : -1;
+    }
+
+    /**
+     * Numbers the values of the variables for a store, the first time the store is used
+     *
+     * @param store the domains of the variables
+     */
+    private void bind(DomainStore store) {
+        if (store == this.boundStore) {
+            return;
+        }
+        int count = this.constraint.getScope().size();
+        this.variables = new int[count];
+        this.valueIds = new int[count][];
+        Map<Object, Integer> ids = new HashMap<>();
+        int edgeCount = 0;
+        int position = 0;
+        for (Variable variable : this.constraint.getScope()) {
+            int index = store.indexOf(variable);
+            this.variables[position] = index;
+            this.valueIds[position] = new int[store.getInitialSize(index)];
+            for (int code = 0; code < store.getInitialSize(index); code++) {
+                Integer id = ids.get(store.getValue(index, code));
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(store.getValue(index, code), id);
+                }
+                this.valueIds[position][code] = id;
+            }
+            edgeCount += store.getInitialSize(index);
+            position++;
+        }
+        this.valueCount = ids.size();
+        int nodes = count + this.valueCount;
+        this.matchedValue = new int[count];
+        this.matchedCode = new int[count];
+        Arrays.fill(this.matchedValue, -1);
+        this.matchedPosition = new int[this.valueCount];
+        Arrays.fill(this.matchedPosition, -1);
+        this.visited = new int[this.valueCount];
+        this.edgeStart = new int[this.valueCount + 1];
+        this.edges = new int[edgeCount];
+        this.reached = new boolean[this.valueCount];
+        this.component = new int[nodes];
+        this.order = new int[nodes];
+        this.lowLink = new int[nodes];
+        this.cursor = new int[nodes];
+        this.callStack = new int[nodes];
+        this.nodeStack = new int[Math.max(nodes, this.valueCount)];
+        this.onStack = new boolean[nodes];
+        this.boundStore = store;
+    }
+}
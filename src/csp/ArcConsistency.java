@@ -1,6 +1,11 @@
 package csp;
 
+import representation.AllDifferentConstraint;
+import representation.BinaryConstraint;
 import representation.Constraint;
+import representation.DifferenceConstraint;
+import representation.Implication;
+import representation.TableConstraint;
 import representation.Variable;
 
 import java.util.*;
@@ -14,6 +19,36 @@ import java.util.*;
  *     An arc consistency verifies if a variable is consistent with its neighbors
  * </p>
  *
+ * <p>
+ *     The binary constraints are indexed by ordered pair of variables when the instance is built, so a
+ *     revision only checks the constraints between its two variables. The constraints that extend
+ *     {@link BinaryConstraint} are checked on the two values directly, without building an assignment. <br>
+ * </p>
+ *
+ * <p>
+ *     The revisions use residual supports (AC3rm): each arc remembers, for each value of its variable,
+ *     the last value of the neighbor found to support it. While this value is still in the domain of
+ *     the neighbor, the value is supported and no search is needed. A support found for a value is
+ *     also a support of the neighbor's value on the reverse arc, so it is recorded on both arcs. The
+ *     residues are hints checked against the current domains, so they are kept when the search
+ *     backtracks. <br>
+ * </p>
+ *
+ * <p>
+ *     During a search, {@link #propagate(DomainStore, int)} only revises the arcs that point to the
+ *     variables whose domain changed since a mark of the trail, so the cost of a node depends on what
+ *     changed. An arc made of {@link DifferenceConstraint}s cannot remove a value while the domain of
+ *     its neighbor has two values, so it is only revised when this domain becomes a singleton. <br>
+ * </p>
+ *
+ * <p>
+ *     The constraints that have a {@link Propagator} are filtered by it instead of being revised as arcs,
+ *     which is how the constraints on more than two variables are handled: a constraint that implements
+ *     {@link Propagator}, an {@link AllDifferentConstraint}, a {@link TableConstraint} or an
+ *     {@link Implication}. A propagator is called when a variable of its scope lost a value, after the
+ *     arcs in the queue, and the variables it reduces put their arcs and propagators back in the queue. <br>
+ * </p>
+ *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
  * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
  * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
@@ -28,10 +63,65 @@ public class ArcConsistency {
     private final Set<Constraint> unaryConstraints = new HashSet<>();
 
     /**
-     * Set of Binary constraints
+     * Set of Binary constraints revised as arcs
      */
     private final Set<Constraint> binaryConstraints = new HashSet<>();
 
+    /**
+     * The binary constraints between each ordered pair of variables
+     */
+    private final Map<Variable, Map<Variable, List<Constraint>>> neighbours = new HashMap<>();
+
+    /**
+     * The propagators of the constraints that are not revised as arcs
+     */
+    private final List<Propagator> propagators = new ArrayList<>();
+
+    /**
+     * The constraints filtered by a propagator
+     */
+    private final Set<Constraint> propagatedConstraints = new HashSet<>();
+
+    /**
+     * The store whose arcs are in {@link #arcs}
+     */
+    private DomainStore indexedStore;
+
+    /**
+     * The arcs from each variable of the indexed store to its neighbors, by index of variable
+     */
+    private Arc[][] arcs;
+
+    /**
+     * The propagators of each variable of the indexed store, by index of variable
+     */
+    private int[][] watchers;
+
+    /**
+     * For each propagator, true if all the variables of its scope are in the indexed store
+     */
+    private boolean[] propagatorActive;
+
+    /**
+     * For each propagator, true if it is in the queue of the propagators
+     */
+    private boolean[] propagatorQueued;
+
+    /**
+     * The queue of the propagators, as a circular buffer
+     */
+    private int[] pendingPropagators;
+
+    /**
+     * The position of the first propagator of the queue
+     */
+    private int pendingHead;
+
+    /**
+     * The number of propagators in the queue
+     */
+    private int pendingSize;
+
     /**
      * Boolean that if we will use the AC3 algorithm
      */
@@ -45,28 +135,65 @@ public class ArcConsistency {
      * @param constraints the set of constraints
      *                   to be used to verify the arc consistency
      * @throws NullPointerException if the set of constraints is null
-     * @throws IllegalArgumentException if the set of constraints is not BinaryConstraint or UnaryConstraint
+     * @throws IllegalArgumentException if a constraint is not unary or binary and has no propagator
      */
     public ArcConsistency(Set<Constraint> constraints, boolean useAC3) {
         if (constraints == null) {
             throw new NullPointerException("The set of constraints cannot be null");
         }
 
-        // Check if the constraints concern only one variable or two variables
+        // Check if the constraints concern only one variable or two variables, or have a propagator
         for (Constraint constraint : constraints) {
+            Propagator propagator = constraint.getScope().size() > 1 ? ArcConsistency.propagatorOf(constraint) : null;
+            if (propagator != null) {
+                this.propagators.add(propagator);
+                this.propagatedConstraints.add(constraint);
+            }
             if (constraint.getScope().size() == 2){
-                this.binaryConstraints.add(constraint);
+                if (propagator == null) {
+                    this.binaryConstraints.add(constraint);
+                }
+                Iterator<Variable> iterator = constraint.getScope().iterator();
+                Variable firstVariable = iterator.next();
+                Variable secondVariable = iterator.next();
+                this.neighbours.computeIfAbsent(firstVariable, key -> new HashMap<>())
+                        .computeIfAbsent(secondVariable, key -> new ArrayList<>()).add(constraint);
+                this.neighbours.computeIfAbsent(secondVariable, key -> new HashMap<>())
+                        .computeIfAbsent(firstVariable, key -> new ArrayList<>()).add(constraint);
             }
             else if (constraint.getScope().size() == 1){
                 this.unaryConstraints.add(constraint);
             }
-            else {
-                throw new IllegalArgumentException("The set of constraints must be BinaryConstraint or UnaryConstraint");
+            else if (propagator == null) {
+                throw new IllegalArgumentException("The set of constraints must be BinaryConstraint or UnaryConstraint, or have a Propagator");
             }
         }
         this.useAC3 = useAC3;
     }
 
+    /**
+     * Returns the propagator of a constraint
+     *
+     * @param constraint the constraint
+     * @return the propagator that filters the constraint, or null if the constraint is revised as arcs
+     */
+    private static Propagator propagatorOf(Constraint constraint) {
+        if (constraint instanceof Propagator) {
+            return (Propagator) constraint;
+        }
+        // The exact classes are checked, since a subclass may change what the constraint allows
+        if (constraint.getClass() == AllDifferentConstraint.class) {
+            return new AllDifferentPropagator((AllDifferentConstraint) constraint);
+        }
+        if (constraint.getClass() == TableConstraint.class) {
+            return new TablePropagator((TableConstraint) constraint);
+        }
+        if (constraint.getClass() == Implication.class) {
+            return new ImplicationPropagator((Implication) constraint);
+        }
+        return null;
+    }
+
     /**
      * <b>
      *     Construct a new instance of ArcConsistency
@@ -75,7 +202,7 @@ public class ArcConsistency {
      * @param constraints the set of constraints
      *                   to be used to verify the arc consistency
      * @throws NullPointerException if the set of constraints is null
-     * @throws IllegalArgumentException if the set of constraints is not BinaryConstraint or UnaryConstraint
+     * @throws IllegalArgumentException if a constraint is not unary or binary and has no propagator
      */
     public ArcConsistency(Set<Constraint> constraints) {
         this(constraints, false);
@@ -105,30 +232,194 @@ public class ArcConsistency {
      */
     public boolean enforceNodeConsistency(Set<Variable> variables, Map<Variable, Set<Object>> domains){
 
+        DomainStore store = new DomainStore(domains);
+        boolean consistent = enforceNodeConsistency(store, this.select(store, variables));
+        store.writeTo(domains);
+        return consistent;
+    }
 
-        for(Constraint constraint : unaryConstraints){
+    /**
+     * <b>
+     *    Renforce the arc consistency of a node on the domains of a store
+     * </b>
+     *
+     * @param store the domains of the variables
+     * @return false if at least one domain has been emptied
+     */
+    public boolean enforceNodeConsistency(DomainStore store) {
+        return enforceNodeConsistency(store, null);
+    }
+
+    /**
+     * Renforce the arc consistency of a node on the domains of some variables of a store
+     *
+     * @param store    the domains of the variables
+     * @param selected the variables whose domains are filtered, by index (null for all the variables)
+     * @return false if at least one domain of the store has been emptied
+     */
+    private boolean enforceNodeConsistency(DomainStore store, boolean[] selected) {
+
+        for (Constraint constraint : unaryConstraints) {
             Variable variable = constraint.getScope().iterator().next();
-            if(variables.contains(variable)){
-                // We copy the domain of the variable because we will modify it, and we don't want to modify the original domain
-                // So we can come back to the original domain if the constraint is not satisfied
-                Set<Object> domain = new HashSet<>(domains.get(variable));
-                domain.removeIf(value -> !constraint.isSatisfiedBy(Map.of(variable, value)));
-                domains.put(variable, domain);
+            int index = store.indexOf(variable);
+            if (index >= 0 && (selected == null || selected[index])) {
+                // The removals are recorded in the trail of the store, so the domain can be restored
+                for (int code = store.first(index); code >= 0; code = store.next(index, code + 1)) {
+                    if (!constraint.isSatisfiedBy(Collections.singletonMap(variable, store.getValue(index, code)))) {
+                        store.remove(index, code);
+                    }
+                }
             }
         }
 
         // If at least one domain has been emptied, we return false
-        return domains.values().stream().noneMatch(Set::isEmpty);
+        for (int index = 0; index < store.size(); index++) {
+            if (store.isEmpty(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * Returns the variables of a set as a mask of the indices of a store
+     *
+     * @param store     the store
+     * @param variables the set of variables
+     * @return the mask of the variables of the store that are in the set
+     */
+    private boolean[] select(DomainStore store, Set<Variable> variables) {
+        boolean[] selected = new boolean[store.size()];
+        for (Variable variable : variables) {
+            int index = store.indexOf(variable);
+            if (index >= 0) {
+                selected[index] = true;
+            }
+        }
+        return selected;
     }
 
+    /**
+     * Returns the binary constraints between two variables
+     *
+     * @param firstVariable  the first variable
+     * @param secondVariable the second variable
+     * @return the constraints whose scope contains the two variables
+     */
+    private List<Constraint> constraintsBetween(Variable firstVariable, Variable secondVariable) {
+        Map<Variable, List<Constraint>> constraints = this.neighbours.get(firstVariable);
+        if (constraints == null) {
+            return Collections.emptyList();
+        }
+        return constraints.getOrDefault(secondVariable, Collections.emptyList());
+    }
 
+    /**
+     * <b>
+     *     Returns the arcs of the variables of a store
+     * </b>
+     *
+     * <p>
+     *     The arcs are built from the index of the constraints the first time a store is used, and kept
+     *     while the same store is used (the solvers use a single store for a whole search). The
+     *     propagators of each variable are indexed at the same time. <br>
+     * </p>
+     *
+     * @param store the domains of the variables
+     * @return the arcs from each variable to its neighbors, by index of variable
+     */
+    private Arc[][] arcsOf(DomainStore store) {
+        if (store != this.indexedStore) {
+            Arc[][] arcs = new Arc[store.size()][];
+            Map<Long, Arc> byPair = new HashMap<>();
+            for (int index = 0; index < store.size(); index++) {
+                List<Arc> out = new ArrayList<>();
+                Map<Variable, List<Constraint>> constraints = this.neighbours.get(store.getVariable(index));
+                if (constraints != null) {
+                    for (Map.Entry<Variable, List<Constraint>> entry : constraints.entrySet()) {
+                        int neighbour = store.indexOf(entry.getKey());
+                        List<Constraint> revised = new ArrayList<>(entry.getValue());
+                        revised.removeAll(this.propagatedConstraints);
+                        if (neighbour >= 0 && !revised.isEmpty()) {
+                            Arc arc = new Arc(store, index, neighbour, revised);
+                            byPair.put(((long) index << 32) | neighbour, arc);
+                            out.add(arc);
+                        }
+                    }
+                }
+                arcs[index] = out.toArray(new Arc[0]);
+            }
+            for (Arc[] out : arcs) {
+                for (Arc arc : out) {
+                    arc.reverse = byPair.get(((long) arc.neighbour << 32) | arc.variable);
+                }
+            }
 
+            // A propagator is only used if all the variables of its scope are in the store
+            List<List<Integer>> watchers = new ArrayList<>();
+            for (int index = 0; index < store.size(); index++) {
+                watchers.add(new ArrayList<>());
+            }
+            int count = this.propagators.size();
+            this.propagatorActive = new boolean[count];
+            for (int propagator = 0; propagator < count; propagator++) {
+                boolean active = true;
+                for (Variable variable : this.propagators.get(propagator).getScope()) {
+                    active = active && store.indexOf(variable) >= 0;
+                }
+                if (active) {
+                    this.propagatorActive[propagator] = true;
+                    for (Variable variable : this.propagators.get(propagator).getScope()) {
+                        watchers.get(store.indexOf(variable)).add(propagator);
+                    }
+                }
+            }
+            this.watchers = new int[store.size()][];
+            for (int index = 0; index < store.size(); index++) {
+                this.watchers[index] = watchers.get(index).stream().mapToInt(Integer::intValue).toArray();
+            }
+            this.propagatorQueued = new boolean[count];
+            this.pendingPropagators = new int[Math.max(1, count)];
+            this.pendingHead = 0;
+            this.pendingSize = 0;
+            this.arcs = arcs;
+            this.indexedStore = store;
+        }
+        return this.arcs;
+    }
 
+    /**
+     * Returns a boolean indicating if a propagator filters the domains of some variables
+     *
+     * @param propagator the index of the propagator
+     * @param selected   the variables whose domains are revised, by index (null for all the variables)
+     * @return true if the variables of the propagator are in the indexed store and are all selected
+     */
+    private boolean isActive(int propagator, boolean[] selected) {
+        if (!this.propagatorActive[propagator]) {
+            return false;
+        }
+        if (selected != null) {
+            for (Variable variable : this.propagators.get(propagator).getScope()) {
+                if (!selected[this.indexedStore.indexOf(variable)]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 
     public boolean revise(Variable firstVariable, Set<Object> domain1, Variable secondVariable, Set<Object> domain2){
         boolean revised = false;
 
+        // The constraints that concern the two variables
+        List<Constraint> constraints = constraintsBetween(firstVariable, secondVariable);
+        Map<Variable, Object> assignment = new HashMap<>();
+        if (constraints.isEmpty() && !domain2.isEmpty()) {
+            // Each value is supported by any value of the second variable
+            return false;
+        }
+
         // For each value of the first variable
         for (Iterator<Object> iterator = domain1.iterator(); iterator.hasNext(); ) {
 
@@ -141,26 +432,8 @@ public class ArcConsistency {
             // For each value of the second variable
             for (Object value2 : domain2) {
 
-                // Check if the combination of the two values satisfies all the constraints
-                boolean allConstraintsSatisfied = true;
-
-                // For each constraint
-                for (Constraint constraint : binaryConstraints) {
-
-                    // If the constraint concerns the two variables
-                    if (constraint.getScope().contains(firstVariable) && constraint.getScope().contains(secondVariable)) {
-
-                        // Check if the constraint is satisfied
-                        if (!constraint.isSatisfiedBy(Map.of(firstVariable, value, secondVariable, value2))) {
-                            allConstraintsSatisfied = false;
-                            break;
-                        }
-                    }
-
-                }
-
                 // If the combination of the two values satisfies all the constraints
-                if (allConstraintsSatisfied) {
+                if (isSatisfied(constraints, firstVariable, value, secondVariable, value2, assignment)) {
                     // The value is viable
                     viable = true;
                     break;
@@ -180,6 +453,81 @@ public class ArcConsistency {
         return revised;
     }
 
+    /**
+     * <b>
+     *     Removes the values of the domain of a variable that have no support in the domain of a neighbor
+     * </b>
+     *
+     * @param store the domains of the variables
+     * @param arc   the arc from the variable whose domain is revised to the neighbor
+     * @return true if at least one value has been removed
+     */
+    private boolean revise(DomainStore store, Arc arc) {
+        boolean revised = false;
+        int variable = arc.variable;
+        int neighbour = arc.neighbour;
+        if (arc.waitsForSingleton && store.getDomainSize(neighbour) > 1) {
+            // Each value differs from at least one value of the neighbor
+            return false;
+        }
+        int[] residues = arc.residues;
+        int[] reverseResidues = arc.reverse.residues;
+        for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+            int residue = residues[code];
+            if (residue >= 0 && store.contains(neighbour, residue)) {
+                // The last support found is still in the domain of the neighbor
+                continue;
+            }
+            Object value = store.getValue(variable, code);
+            boolean viable = false;
+            for (int code2 = store.first(neighbour); code2 >= 0; code2 = store.next(neighbour, code2 + 1)) {
+                if (arc.supports(value, store.getValue(neighbour, code2))) {
+                    residues[code] = code2;
+                    reverseResidues[code2] = code;
+                    viable = true;
+                    break;
+                }
+            }
+            if (!viable) {
+                store.remove(variable, code);
+                revised = true;
+            }
+        }
+        return revised;
+    }
+
+    /**
+     * Returns a boolean indicating if two values satisfy constraints between two variables
+     *
+     * @param constraints    the constraints between the two variables
+     * @param firstVariable  the first variable
+     * @param value          the value of the first variable
+     * @param secondVariable the second variable
+     * @param value2         the value of the second variable
+     * @param assignment     a Map used to check the constraints that are not {@link BinaryConstraint}s
+     * @return true if the two values satisfy all the constraints
+     */
+    private static boolean isSatisfied(List<Constraint> constraints, Variable firstVariable, Object value,
+                                       Variable secondVariable, Object value2, Map<Variable, Object> assignment) {
+        for (Constraint constraint : constraints) {
+            if (constraint instanceof BinaryConstraint) {
+                BinaryConstraint binary = (BinaryConstraint) constraint;
+                boolean satisfied = binary.getFirstVariable().equals(firstVariable)
+                        ? binary.isSatisfiedBy(value, value2) : binary.isSatisfiedBy(value2, value);
+                if (!satisfied) {
+                    return false;
+                }
+            } else {
+                assignment.put(firstVariable, value);
+                assignment.put(secondVariable, value2);
+                if (!constraint.isSatisfiedBy(assignment)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
 
     /**
      * <b>
@@ -192,47 +540,91 @@ public class ArcConsistency {
      */
     public boolean ac1(Map<Variable, Set<Object>> domains, Set<Variable> variables){
 
-        if(!enforceNodeConsistency(domains)){
-            return false;
-        }
-
-
+        DomainStore store = new DomainStore(domains);
+        boolean consistent = ac1(store, this.select(store, variables));
+        store.writeTo(domains);
+        return consistent;
+    }
 
-        boolean revised =false;
-        do{
-             revised = false;
+    /**
+     * <b>
+     *     Filtre tout les domaines
+     *  </b>
+     *
+     * @param domains the Map that associates a variable to its domain
+     * @return true if at least one domain has been emptied
+     */
+    public boolean ac1(Map<Variable, Set<Object>> domains) {
+        return ac1(domains, domains.keySet());
+    }
 
-            for(Variable variable : variables){
+    /**
+     * <b>
+     *     Filtre les domaines d'un store avec ac1
+     *  </b>
+     *
+     * @param store    the domains of the variables
+     * @param selected the variables whose domains are revised, by index (null for all the variables)
+     * @return false if at least one domain has been emptied
+     */
+    private boolean ac1(DomainStore store, boolean[] selected) {
 
-                // we create a copy of the domain of the variable because we will modify it
-                // So we can come back to the original domain if the constraint is not satisfied
-                Set<Object> domain = new HashSet<>(domains.get(variable));
-                for(Variable variable2 : variables){
-                    if(!variable.equals(variable2)){
+        if (!enforceNodeConsistency(store, null)) {
+            return false;
+        }
 
-                        revised = revise(variable, domain, variable2, domains.get(variable2)) || revised;
+        Arc[][] arcs = arcsOf(store);
+        int size = store.size();
+        boolean revised;
+        do {
+            revised = false;
+            for (int first = 0; first < size; first++) {
+                if (selected != null && !selected[first]) {
+                    continue;
+                }
+                for (Arc arc : arcs[first]) {
+                    if (selected == null || selected[arc.neighbour]) {
+                        revised = revise(store, arc) || revised;
+                    }
+                }
+            }
+            for (int propagator = 0; propagator < this.propagators.size(); propagator++) {
+                if (this.isActive(propagator, selected)) {
+                    int mark = store.mark();
+                    if (!this.propagators.get(propagator).propagate(store)) {
+                        return false;
                     }
+                    revised = revised || store.mark() > mark;
                 }
-                domains.put(variable, domain);
             }
-        }while (revised);
+        } while (revised);
 
         // If at least one domain has been emptied, we return false
-        return domains.values().stream().noneMatch(Set::isEmpty);
+        for (int index = 0; index < size; index++) {
+            if (store.isEmpty(index)) {
+                return false;
+            }
+        }
+        return true;
     }
 
+
     /**
      * <b>
-     *     Filtre tout les domaines
+     *     Filtre tout les domaines with ac3
      *  </b>
      *
      * @param domains the Map that associates a variable to its domain
+     * @param variables the set of variables
      * @return true if at least one domain has been emptied
      */
-    public boolean ac1(Map<Variable, Set<Object>> domains) {
-        return ac1(domains, domains.keySet());
-    }
+    public boolean ac3(Map<Variable, Set<Object>> domains, Set<Variable> variables){
 
+        DomainStore store = new DomainStore(domains);
+        boolean consistent = ac3(store, this.select(store, variables));
+        store.writeTo(domains);
+        return consistent;
+    }
 
     /**
      * <b>
@@ -240,78 +632,219 @@ public class ArcConsistency {
      *  </b>
      *
      * @param domains the Map that associates a variable to its domain
-     * @param variables the set of variables
      * @return true if at least one domain has been emptied
      */
-    public boolean ac3(Map<Variable, Set<Object>> domains, Set<Variable> variables){
+    public boolean ac3(Map<Variable, Set<Object>> domains) {
+        return ac3(domains, domains.keySet());
+    }
+
+    /**
+     * <b>
+     *     Filtre les domaines d'un store avec ac3
+     *  </b>
+     *
+     * <p>
+     *     Each binary constraint gives an arc in both directions. When the domain of a variable is
+     *     revised, the arcs and the propagators that point to it are put back in the queue. <br>
+     * </p>
+     *
+     * @param store    the domains of the variables
+     * @param selected the variables whose domains are revised, by index (null for all the variables)
+     * @return false if at least one domain has been emptied
+     */
+    private boolean ac3(DomainStore store, boolean[] selected) {
 
-        if (!enforceNodeConsistency(domains)) {
+        if (!enforceNodeConsistency(store, null)) {
             return false;
         }
 
-        // Queue of arcs
-        Queue<Map<Variable, Variable>> queue = new LinkedList<>();
-        Queue<Map<Variable, Variable>> arcs = new LinkedList<>();
-        // Add all the arcs on binary constraints with actiual variables
-        for (Constraint constraint : binaryConstraints) {
-                Iterator<Variable> iterator = constraint.getScope().iterator();
-                Variable variable1 = iterator.next();
-                Variable variable2 = iterator.next();
-                if (variables.contains(variable1) && variables.contains(variable2)) {
-                    queue.add(Map.of(variable1, variable2));
-                    arcs.add(Map.of(variable1, variable2));
+        // Queue of the arcs between actual variables (an arc is at most once in the queue)
+        Arc[][] arcs = arcsOf(store);
+        Queue<Arc> queue = new ArrayDeque<>();
+        for (int first = 0; first < store.size(); first++) {
+            if (selected == null || selected[first]) {
+                for (Arc arc : arcs[first]) {
+                    if (selected == null || selected[arc.neighbour]) {
+                        arc.queued = true;
+                        queue.add(arc);
+                    }
                 }
+            }
+        }
+        for (int propagator = 0; propagator < this.propagators.size(); propagator++) {
+            if (this.isActive(propagator, selected)) {
+                this.offerPropagator(propagator);
+            }
+        }
+
+        return propagate(store, arcs, queue, selected);
+    }
 
+    /**
+     * <b>
+     *     Restores the arc consistency of the domains of a store after some of them were reduced
+     * </b>
+     *
+     * <p>
+     *     The domains must have been arc consistent when the mark was taken. Only the arcs and the
+     *     propagators that point to a variable that lost a value since the mark are revised, then the
+     *     ones that point to the variables revised in turn. The removed values are recorded in the trail of the store, so the
+     *     caller can restore the domains to the mark if this method fails. <br>
+     * </p>
+     *
+     * @param store the domains of the variables
+     * @param mark  a mark of the trail of the store (see {@link DomainStore#mark()})
+     * @return false if at least one domain has been emptied
+     */
+    public boolean propagate(DomainStore store, int mark) {
+        Arc[][] arcs = arcsOf(store);
+        Queue<Arc> queue = new ArrayDeque<>();
+        boolean[] changed = new boolean[store.size()];
+        int end = store.mark();
+        for (int position = mark; position < end; position++) {
+            int variable = store.getTrailVariable(position);
+            if (!changed[variable]) {
+                changed[variable] = true;
+                if (store.isEmpty(variable)) {
+                    this.clearQueues(queue);
+                    return false;
+                }
+                this.schedule(variable, -1, -1, arcs, queue, null);
+            }
         }
+        return propagate(store, arcs, queue, null);
+    }
 
-        // While the queue is not empty
-        while (!queue.isEmpty()) {
+    /**
+     * Revises the arcs and calls the propagators of the queues until the domains are arc consistent
+     *
+     * <p>
+     *     The arcs are revised first, since they are cheaper, and a propagator is called when no arc is
+     *     left in the queue. <br>
+     * </p>
+     *
+     * @param store    the domains of the variables
+     * @param arcs     the arcs of the variables of the store
+     * @param queue    the arcs to revise, whose flag <code>queued</code> is set
+     * @param selected the variables whose domains are revised, by index (null for all the variables)
+     * @return false if at least one domain has been emptied
+     */
+    private boolean propagate(DomainStore store, Arc[][] arcs, Queue<Arc> queue, boolean[] selected) {
+
+        // While the queues are not empty
+        while (!queue.isEmpty() || this.pendingSize > 0) {
+
+            if (!queue.isEmpty()) {
 
-            // Get the first arc
-            Map<Variable, Variable> arc = queue.poll();
+                // Get the first arc
+                Arc arc = queue.poll();
+                arc.queued = false;
 
-            // Get the variables of the arc
-            Variable firstVariable = arc.keySet().iterator().next();
-            Variable secondVariable = arc.get(firstVariable);
+                // If the domain of the first variable has been revised
+                if (revise(store, arc)) {
 
-            // Get the domains of the variables
-            Set<Object> domain1 = new HashSet<>(domains.get(firstVariable));
+                    // If the domain of the first variable is empty
+                    if (store.isEmpty(arc.variable)) {
+                        this.clearQueues(queue);
+                        return false;
+                    }
 
-            // If the domain of the first variable has been revised
-            if (revise(firstVariable, domain1, secondVariable, domains.get(secondVariable))) {
+                    // Add all the arcs of the form (K, X) where K is a neighbor of X, and the propagators of X
+                    this.schedule(arc.variable, arc.neighbour, -1, arcs, queue, selected);
+                }
+            } else {
 
-                // If the domain of the first variable is empty
-                if (domain1.isEmpty()) {
+                // Call the first propagator
+                int propagator = this.pollPropagator();
+                int mark = store.mark();
+                if (!this.propagators.get(propagator).propagate(store)) {
+                    this.clearQueues(queue);
                     return false;
                 }
 
-                // Add all the arcs of the form (K, X) where K is a neighbor of X
-                for (Map<Variable, Variable> arc2 : arcs) {
-                    if (arc2.containsValue(firstVariable)) {
-                        queue.add(arc2);
+                // Add the arcs and the other propagators of the variables it reduced
+                int end = store.mark();
+                int last = -1;
+                for (int position = mark; position < end; position++) {
+                    int variable = store.getTrailVariable(position);
+                    if (variable != last) {
+                        last = variable;
+                        if (store.isEmpty(variable)) {
+                            this.clearQueues(queue);
+                            return false;
+                        }
+                        this.schedule(variable, -1, propagator, arcs, queue, selected);
                     }
                 }
             }
-
-                // Update the domain of the first variable
-                domains.put(firstVariable, domain1);
-
         }
         return true;
     }
 
     /**
-     * <b>
-     *     Filtre tout les domaines with ac3
-     *  </b>
+     * Adds to the queues the arcs that point to a variable whose domain was reduced, and its propagators
      *
-     * @param domains the Map that associates a variable to its domain
-     * @return true if at least one domain has been emptied
+     * @param variable   the index of the variable
+     * @param neighbour  the index of the neighbor whose arc reduced the domain (-1 if none)
+     * @param propagator the index of the propagator that reduced the domain (-1 if none)
+     * @param arcs       the arcs of the variables of the store
+     * @param queue      the queue of the arcs
+     * @param selected   the variables whose domains are revised, by index (null for all the variables)
      */
-    public boolean ac3(Map<Variable, Set<Object>> domains) {
-        return ac3(domains, domains.keySet());
+    private void schedule(int variable, int neighbour, int propagator, Arc[][] arcs, Queue<Arc> queue,
+                          boolean[] selected) {
+        for (Arc out : arcs[variable]) {
+            if (out.neighbour != neighbour && !out.reverse.queued
+                    && (selected == null || selected[out.neighbour])) {
+                out.reverse.queued = true;
+                queue.add(out.reverse);
+            }
+        }
+        for (int watcher : this.watchers[variable]) {
+            if (watcher != propagator && !this.propagatorQueued[watcher] && this.isActive(watcher, selected)) {
+                this.offerPropagator(watcher);
+            }
+        }
+    }
+
+    /**
+     * Adds a propagator at the end of the queue of the propagators
+     *
+     * @param propagator the index of the propagator, which is not in the queue
+     */
+    private void offerPropagator(int propagator) {
+        this.propagatorQueued[propagator] = true;
+        this.pendingPropagators[(this.pendingHead + this.pendingSize) % this.pendingPropagators.length] = propagator;
+        this.pendingSize++;
     }
 
+    /**
+     * Removes the first propagator of the queue of the propagators
+     *
+     * @return the index of the propagator
+     */
+    private int pollPropagator() {
+        int propagator = this.pendingPropagators[this.pendingHead];
+        this.pendingHead = (this.pendingHead + 1) % this.pendingPropagators.length;
+        this.pendingSize--;
+        this.propagatorQueued[propagator] = false;
+        return propagator;
+    }
+
+    /**
+     * Empties the queues after a domain has been emptied
+     *
+     * @param queue the queue of the arcs
+     */
+    private void clearQueues(Queue<Arc> queue) {
+        for (Arc queued : queue) {
+            queued.queued = false;
+        }
+        queue.clear();
+        while (this.pendingSize > 0) {
+            this.pollPropagator();
+        }
+    }
 
     /**
      * <b>
@@ -337,17 +870,200 @@ public class ArcConsistency {
      */
     public boolean arcConsistency(Map<Variable, Set<Object>> domains, Set<Variable> variables) {
 
-        // If we have only binary constraints
-        if (this.binaryConstraints.isEmpty()) {
-            return enforceNodeConsistency(domains);
+        DomainStore store = new DomainStore(domains);
+        boolean consistent = this.arcConsistency(store, this.select(store, variables));
+        store.writeTo(domains);
+        return consistent;
+    }
+
+    /**
+     * <b>
+     *     Filtre les domaines d'un store with arc consistency
+     *  </b>
+     *
+     * <p>
+     *     The removed values are recorded in the trail of the store, so the caller can restore the
+     *     domains with {@link DomainStore#restore(int)}. <br>
+     * </p>
+     *
+     * @param store the domains of the variables
+     * @return false if at least one domain has been emptied
+     */
+    public boolean arcConsistency(DomainStore store) {
+        return this.arcConsistency(store, (boolean[]) null);
+    }
+
+    /**
+     * <b>
+     *     Filtre les domaines de certaines variables d'un store with arc consistency
+     *  </b>
+     *
+     * @param store     the domains of the variables
+     * @param variables the set of variables whose domains are revised
+     * @return false if at least one domain has been emptied
+     */
+    public boolean arcConsistency(DomainStore store, Set<Variable> variables) {
+        return this.arcConsistency(store, this.select(store, variables));
+    }
+
+    /**
+     * Filtre les domaines de certaines variables d'un store with arc consistency
+     *
+     * @param store    the domains of the variables
+     * @param selected the variables whose domains are revised, by index (null for all the variables)
+     * @return false if at least one domain has been emptied
+     */
+    private boolean arcConsistency(DomainStore store, boolean[] selected) {
+
+        // If we have only unary constraints
+        if (this.binaryConstraints.isEmpty() && this.propagators.isEmpty()) {
+            return enforceNodeConsistency(store, null);
         }
 
         // If we use ac3
         if (this.useAC3) {
-            return ac3(domains, variables);
+            return ac3(store, selected);
         }
 
-        return ac1(domains, variables);
+        return ac1(store, selected);
     }
 
+    /**
+     * <b>
+     *     Class representing an arc from a variable to one of its neighbors
+     * </b>
+     *
+     * <p>
+     *     An arc holds the constraints between its two variables. The {@link BinaryConstraint}s are kept
+     *     apart with the order of their variables, so they are checked on the two values directly. <br>
+     * </p>
+     */
+    private static final class Arc {
+
+        /**
+         * The index of the variable whose domain is revised
+         */
+        private final int variable;
+
+        /**
+         * The index of the neighbor
+         */
+        private final int neighbour;
+
+        /**
+         * The binary constraints between the two variables
+         */
+        private final BinaryConstraint[] binaryConstraints;
+
+        /**
+         * For each binary constraint, true if the neighbor is its first variable
+         */
+        private final boolean[] reversed;
+
+        /**
+         * The other constraints between the two variables, checked on an assignment
+         */
+        private final Constraint[] otherConstraints;
+
+        /**
+         * The assignment used to check the other constraints
+         */
+        private final Map<Variable, Object> assignment = new HashMap<>();
+
+        /**
+         * The variable whose domain is revised
+         */
+        private final Variable first;
+
+        /**
+         * The neighbor
+         */
+        private final Variable second;
+
+        /**
+         * The arc from the neighbor to the variable
+         */
+        private Arc reverse;
+
+        /**
+         * The last support found in the domain of the neighbor for each value of the variable, by code (-1 if none)
+         */
+        private final int[] residues;
+
+        /**
+         * True if the arc is in the queue of AC3
+         */
+        private boolean queued;
+
+        /**
+         * True if all the constraints of the arc are {@link DifferenceConstraint}s, which can only remove
+         * a value when the domain of the neighbor is a singleton
+         */
+        private final boolean waitsForSingleton;
+
+        /**
+         * Constructor of the arc
+         *
+         * @param store       the store of the variables
+         * @param variable    the index of the variable whose domain is revised
+         * @param neighbour   the index of the neighbor
+         * @param constraints the constraints between the two variables
+         */
+        private Arc(DomainStore store, int variable, int neighbour, List<Constraint> constraints) {
+            this.variable = variable;
+            this.neighbour = neighbour;
+            this.first = store.getVariable(variable);
+            this.second = store.getVariable(neighbour);
+            List<BinaryConstraint> binaryConstraints = new ArrayList<>();
+            List<Constraint> otherConstraints = new ArrayList<>();
+            for (Constraint constraint : constraints) {
+                if (constraint instanceof BinaryConstraint) {
+                    binaryConstraints.add((BinaryConstraint) constraint);
+                } else {
+                    otherConstraints.add(constraint);
+                }
+            }
+            this.binaryConstraints = binaryConstraints.toArray(new BinaryConstraint[0]);
+            this.reversed = new boolean[this.binaryConstraints.length];
+            for (int i = 0; i < this.binaryConstraints.length; i++) {
+                this.reversed[i] = !this.binaryConstraints[i].getFirstVariable().equals(this.first);
+            }
+            this.otherConstraints = otherConstraints.toArray(new Constraint[0]);
+            boolean differences = this.otherConstraints.length == 0;
+            for (BinaryConstraint constraint : this.binaryConstraints) {
+                differences = differences && constraint.getClass() == DifferenceConstraint.class;
+            }
+            this.waitsForSingleton = differences;
+            this.residues = new int[store.getInitialSize(variable)];
+            Arrays.fill(this.residues, -1);
+        }
+
+        /**
+         * Returns a boolean indicating if a value of the neighbor supports a value of the variable
+         *
+         * @param value          the value of the variable
+         * @param neighbourValue the value of the neighbor
+         * @return true if the two values satisfy all the constraints of the arc
+         */
+        private boolean supports(Object value, Object neighbourValue) {
+            for (int i = 0; i < this.binaryConstraints.length; i++) {
+                boolean satisfied = this.reversed[i]
+                        ? this.binaryConstraints[i].isSatisfiedBy(neighbourValue, value)
+                        : this.binaryConstraints[i].isSatisfiedBy(value, neighbourValue);
+                if (!satisfied) {
+                    return false;
+                }
+            }
+            if (this.otherConstraints.length > 0) {
+                this.assignment.put(this.first, value);
+                this.assignment.put(this.second, neighbourValue);
+                for (Constraint constraint : this.otherConstraints) {
+                    if (!constraint.isSatisfiedBy(this.assignment)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,513 @@
+package csp;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ *     Class representing the domains of the variables of a CSP problem, stored as bitsets
+ * </b>
+ *
+ * <p>
+ *     Each variable gets an index, and each value of its initial domain gets a code, its position in the
+ *     initial domain. The current domain of a variable is a <code>long[]</code> bitset of the codes of its
+ *     values, so testing and removing a value take a constant time and allocate nothing. <br>
+ *     Each removal is recorded in a trail. A search takes a mark of the trail before it reduces the
+ *     domains, and restores the mark when it backtracks: the removed values are put back in
+ *     <code>O(removals)</code>, without copying any domain. <br>
+ *     The domains can also be read as a <code>Map&lt;Variable, Set&lt;Object&gt;&gt;</code> (see {@link #asMap()}),
+ *     which is the representation used by the heuristics. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public final class DomainStore {
+
+    /**
+     * The variables, by index
+     */
+    private final Variable[] variables;
+
+    /**
+     * The index of each variable
+     */
+    private final Map<Variable, Integer> indices = new HashMap<>();
+
+    /**
+     * The values of the initial domain of each variable, by code
+     */
+    private final Object[][] values;
+
+    /**
+     * The code of each value of the initial domain of each variable
+     */
+    private final List<Map<Object, Integer>> codes = new ArrayList<>();
+
+    /**
+     * The bitset of the current domain of each variable
+     */
+    private final long[][] bits;
+
+    /**
+     * The size of the current domain of each variable
+     */
+    private final int[] sizes;
+
+    /**
+     * The variable of each removal of the trail
+     */
+    private int[] trailVariables = new int[64];
+
+    /**
+     * The value of each removal of the trail
+     */
+    private int[] trailValues = new int[64];
+
+    /**
+     * The number of removals of the trail
+     */
+    private int trailSize;
+
+    /**
+     * The view of the domains as a map (created on demand)
+     */
+    private Map<Variable, Set<Object>> view;
+
+    /**
+     * <b>
+     *     Builds a store from the initial domains of the variables
+     * </b>
+     *
+     * @param domains the Map that associates a variable to its initial domain
+     * @throws NullPointerException if the map is null
+     */
+    public DomainStore(Map<Variable, Set<Object>> domains) {
+        if (domains == null) {
+            throw new NullPointerException("The domains cannot be null");
+        }
+        int count = domains.size();
+        this.variables = new Variable[count];
+        this.values = new Object[count][];
+        this.bits = new long[count][];
+        this.sizes = new int[count];
+        int index = 0;
+        for (Map.Entry<Variable, Set<Object>> entry : domains.entrySet()) {
+            this.variables[index] = entry.getKey();
+            this.indices.put(entry.getKey(), index);
+            Object[] domain = entry.getValue().toArray();
+            Map<Object, Integer> codes = new HashMap<>();
+            for (int code = 0; code < domain.length; code++) {
+                codes.put(domain[code], code);
+            }
+            this.values[index] = domain;
+            this.codes.add(codes);
+            this.bits[index] = new long[(domain.length + 63) >>> 6];
+            for (int code = 0; code < domain.length; code++) {
+                this.bits[index][code >>> 6] |= 1L << code;
+            }
+            this.sizes[index] = domain.length;
+            index++;
+        }
+    }
+
+    /**
+     * Returns the number of variables
+     *
+     * @return the number of variables
+     */
+    public int size() {
+        return this.variables.length;
+    }
+
+    /**
+     * Returns the variable of an index
+     *
+     * @param index the index of the variable
+     * @return the variable
+     */
+    public Variable getVariable(int index) {
+        return this.variables[index];
+    }
+
+    /**
+     * Returns the index of a variable
+     *
+     * @param variable the variable
+     * @return the index of the variable, or -1 if the variable is not in the store
+     */
+    public int indexOf(Variable variable) {
+        Integer index = this.indices.get(variable);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the number of values of the initial domain of a variable
+     *
+     * @param variable the index of the variable
+     * @return the number of codes of the variable
+     */
+    public int getInitialSize(int variable) {
+        return this.values[variable].length;
+    }
+
+    /**
+     * Returns the value of a code
+     *
+     * @param variable the index of the variable
+     * @param code     the code of the value
+     * @return the value
+     */
+    public Object getValue(int variable, int code) {
+        return this.values[variable][code];
+    }
+
+    /**
+     * Returns the code of a value
+     *
+     * @param variable the index of the variable
+     * @param value    the value
+     * @return the code of the value, or -1 if the value is not in the initial domain of the variable
+     */
+    public int codeOf(int variable, Object value) {
+        Integer code = this.codes.get(variable).get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the size of the current domain of a variable
+     *
+     * @param variable the index of the variable
+     * @return the number of values of the domain
+     */
+    public int getDomainSize(int variable) {
+        return this.sizes[variable];
+    }
+
+    /**
+     * Returns a boolean indicating if the current domain of a variable is empty
+     *
+     * @param variable the index of the variable
+     * @return true if the domain is empty
+     */
+    public boolean isEmpty(int variable) {
+        return this.sizes[variable] == 0;
+    }
+
+    /**
+     * Returns a boolean indicating if a value is in the current domain of a variable
+     *
+     * @param variable the index of the variable
+     * @param code     the code of the value
+     * @return true if the value is in the domain
+     */
+    public boolean contains(int variable, int code) {
+        return (this.bits[variable][code >>> 6] & (1L << code)) != 0;
+    }
+
+    /**
+     * Returns the first value of the current domain of a variable
+     *
+     * @param variable the index of the variable
+     * @return the smallest code of the domain, or -1 if the domain is empty
+     */
+    public int first(int variable) {
+        return this.next(variable, 0);
+    }
+
+    /**
+     * Returns the next value of the current domain of a variable
+     *
+     * @param variable the index of the variable
+     * @param from     the code from which the value is searched (included)
+     * @return the smallest code of the domain greater than or equal to <code>from</code>, or -1 if there is none
+     */
+    public int next(int variable, int from) {
+        long[] words = this.bits[variable];
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * <b>
+     *     Removes a value from the current domain of a variable
+     * </b>
+     *
+     * @param variable the index of the variable
+     * @param code     the code of the value
+     * @return true if the value was in the domain
+     */
+    public boolean remove(int variable, int code) {
+        long bit = 1L << code;
+        long[] words = this.bits[variable];
+        if ((words[code >>> 6] & bit) == 0) {
+            return false;
+        }
+        words[code >>> 6] &= ~bit;
+        this.sizes[variable]--;
+        if (this.trailSize == this.trailVariables.length) {
+            this.trailVariables = Arrays.copyOf(this.trailVariables, 2 * this.trailSize);
+            this.trailValues = Arrays.copyOf(this.trailValues, 2 * this.trailSize);
+        }
+        this.trailVariables[this.trailSize] = variable;
+        this.trailValues[this.trailSize] = code;
+        this.trailSize++;
+        return true;
+    }
+
+    /**
+     * <b>
+     *     Reduces the current domain of a variable to a single value
+     * </b>
+     *
+     * @param variable the index of the variable
+     * @param code     the code of the value
+     * @return true if the value was in the domain
+     */
+    public boolean assign(int variable, int code) {
+        boolean present = this.contains(variable, code);
+        for (int other = this.first(variable); other >= 0; other = this.next(variable, other + 1)) {
+            if (other != code) {
+                this.remove(variable, other);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Returns a mark of the trail, to restore the current domains later
+     *
+     * @return the number of removals recorded so far
+     */
+    public int mark() {
+        return this.trailSize;
+    }
+
+    /**
+     * Returns the variable of a removal recorded in the trail
+     *
+     * <p>
+     *     The removals between a mark and {@link #mark()} tell which domains changed since the mark,
+     *     which is how a propagation finds the constraints to revise. <br>
+     * </p>
+     *
+     * @param position the position of the removal in the trail (lower than {@link #mark()})
+     * @return the index of the variable whose domain lost a value
+     */
+    public int getTrailVariable(int position) {
+        return this.trailVariables[position];
+    }
+
+    /**
+     * <b>
+     *     Restores the domains as they were when a mark was taken
+     * </b>
+     *
+     * <p>
+     *     The values removed since the mark are put back, in reverse order. <br>
+     * </p>
+     *
+     * @param mark the mark returned by {@link #mark()}
+     */
+    public void restore(int mark) {
+        while (this.trailSize > mark) {
+            this.trailSize--;
+            int variable = this.trailVariables[this.trailSize];
+            int code = this.trailValues[this.trailSize];
+            this.bits[variable][code >>> 6] |= 1L << code;
+            this.sizes[variable]++;
+        }
+    }
+
+    /**
+     * Returns a copy of the current domain of a variable
+     *
+     * @param variable the index of the variable
+     * @return the values of the domain
+     */
+    public Set<Object> getDomain(int variable) {
+        Set<Object> domain = new LinkedHashSet<>();
+        for (int code = this.first(variable); code >= 0; code = this.next(variable, code + 1)) {
+            domain.add(this.values[variable][code]);
+        }
+        return domain;
+    }
+
+    /**
+     * <b>
+     *     Copies the current domains into a Map that associates a variable to its domain
+     * </b>
+     *
+     * @param domains the Map in which the domain of each variable of the store is put
+     */
+    public void writeTo(Map<Variable, Set<Object>> domains) {
+        for (int variable = 0; variable < this.variables.length; variable++) {
+            domains.put(this.variables[variable], new HashSet<>(this.getDomain(variable)));
+        }
+    }
+
+    /**
+     * <b>
+     *     Returns an unmodifiable view of the current domains
+     * </b>
+     *
+     * <p>
+     *     The view follows the changes of the store, and reading it creates no copy of the domains. <br>
+     * </p>
+     *
+     * @return the Map that associates each variable of the store to its current domain
+     */
+    public Map<Variable, Set<Object>> asMap() {
+        if (this.view == null) {
+            this.view = new DomainsView();
+        }
+        return this.view;
+    }
+
+    @Override
+    public String toString() {
+        return "DomainStore" + this.asMap();
+    }
+
+    /**
+     * <b>
+     *     View of the current domain of a variable
+     * </b>
+     */
+    private final class DomainView extends AbstractSet<Object> {
+
+        /**
+         * The index of the variable
+         */
+        private final int variable;
+
+        /**
+         * Constructor of the view
+         *
+         * @param variable the index of the variable
+         */
+        private DomainView(int variable) {
+            this.variable = variable;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            int code = DomainStore.this.codeOf(this.variable, value);
+            return code >= 0 && DomainStore.this.contains(this.variable, code);
+        }
+
+        @Override
+        public int size() {
+            return DomainStore.this.sizes[this.variable];
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<Object>() {
+
+                private int code = DomainStore.this.first(DomainView.this.variable);
+
+                @Override
+                public boolean hasNext() {
+                    return this.code >= 0;
+                }
+
+                @Override
+                public Object next() {
+                    if (this.code < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Object value = DomainStore.this.values[DomainView.this.variable][this.code];
+                    this.code = DomainStore.this.next(DomainView.this.variable, this.code + 1);
+                    return value;
+                }
+            };
+        }
+    }
+
+    /**
+     * <b>
+     *     View of the current domains of all the variables
+     * </b>
+     */
+    private final class DomainsView extends AbstractMap<Variable, Set<Object>> {
+
+        /**
+         * The view of the domain of each variable
+         */
+        private final DomainView[] domains = new DomainView[DomainStore.this.variables.length];
+
+        /**
+         * Constructor of the view
+         */
+        private DomainsView() {
+            for (int variable = 0; variable < this.domains.length; variable++) {
+                this.domains[variable] = new DomainView(variable);
+            }
+        }
+
+        @Override
+        public Set<Object> get(Object key) {
+            Integer index = DomainStore.this.indices.get(key);
+            return index == null ? null : this.domains[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return DomainStore.this.indices.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return this.domains.length;
+        }
+
+        @Override
+        public Set<Entry<Variable, Set<Object>>> entrySet() {
+            return new AbstractSet<Entry<Variable, Set<Object>>>() {
+
+                @Override
+                public int size() {
+                    return DomainsView.this.domains.length;
+                }
+
+                @Override
+                public Iterator<Entry<Variable, Set<Object>>> iterator() {
+                    return new Iterator<Entry<Variable, Set<Object>>>() {
+
+                        private int variable;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.variable < DomainsView.this.domains.length;
+                        }
+
+                        @Override
+                        public Entry<Variable, Set<Object>> next() {
+                            if (!this.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int variable = this.variable++;
+                            return new SimpleImmutableEntry<>(DomainStore.this.variables[variable],
+                                    DomainsView.this.domains[variable]);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
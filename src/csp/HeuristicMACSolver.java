@@ -52,27 +52,18 @@ public class HeuristicMACSolver extends MACSolver {
 
 
     @Override
-    protected Map<Variable, Object> solve(Map<Variable, Object> partialSolution, Set<Variable> variables, Map<Variable, Set<Object>> domains) {
+    protected Map<Variable, Object> solve(Map<Variable, Object> partialSolution, Set<Variable> variables, DomainStore domains) {
         if (variables.isEmpty()) {
-            return partialSolution;
+            return new HashMap<>(partialSolution);
         }
 
-        if (!getArcConsistency().arcConsistency(domains, partialSolution.keySet())) {
-            return null;
-        }
-
-        // Pop the next variable to assign
-        Variable variable = variableSelectionHeuristic.best(variables, domains);
+        // Pop the next variable to assign (the heuristic reads the domains through a view of the store)
+        Variable variable = variableSelectionHeuristic.best(variables, domains.asMap());
         variables.remove(variable);
 
         // Order the values
-        List<Object> values = valueSelectionHeuristic.ordering(variable, domains.get(variable));
+        List<Object> values = valueSelectionHeuristic.ordering(variable, domains.getDomain(domains.indexOf(variable)));
 
         return addVariableToSolution(partialSolution, variables, domains, variable, values);
     }
-
-
-
-
-
 }
@@ -0,0 +1,174 @@
+package csp;
+
+import representation.Implication;
+import representation.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <b>
+ *     Class representing the propagator of an implication (var1 ∈ subDomainVar1) ⇒ (var2 ∈ subDomainVar2)
+ * </b>
+ *
+ * <p>
+ *     The implication only removes values in two cases: when the domain of the first variable becomes a
+ *     subset of <code>subDomainVar1</code>, the values of the second variable outside of
+ *     <code>subDomainVar2</code> are removed, and when no value of <code>subDomainVar2</code> is left, the
+ *     values of <code>subDomainVar1</code> are removed from the first variable. Otherwise the propagator
+ *     returns after a few tests on the codes of the two subdomains, without looking at the other values. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+final class ImplicationPropagator implements Propagator {
+
+    /**
+     * The implication (its two variables are different)
+     */
+    private final Implication implication;
+
+    /**
+     * The store whose codes are used by the fields below
+     */
+    private DomainStore boundStore;
+
+    /**
+     * The index of the first variable
+     */
+    private int premise;
+
+    /**
+     * The index of the second variable
+     */
+    private int conclusion;
+
+    /**
+     * The codes of the values of <code>subDomainVar1</code>
+     */
+    private int[] premiseCodes;
+
+    /**
+     * The codes of the values of <code>subDomainVar2</code>
+     */
+    private int[] conclusionCodes;
+
+    /**
+     * For each code of the second variable, true if the value is in <code>subDomainVar2</code>
+     */
+    private boolean[] inConclusion;
+
+    /**
+     * Constructor of the propagator
+     *
+     * @param implication the implication, between two different variables
+     */
+    ImplicationPropagator(Implication implication) {
+        this.implication = implication;
+    }
+
+    @Override
+    public Set<Variable> getScope() {
+        return this.implication.getScope();
+    }
+
+    @Override
+    public boolean propagate(DomainStore store) {
+        this.bind(store);
+
+        // If no value of the conclusion is left, the premise must be false
+        if (!this.containsAny(store, this.conclusion, this.conclusionCodes)) {
+            for (int code : this.premiseCodes) {
+                store.remove(this.premise, code);
+            }
+            return !store.isEmpty(this.premise);
+        }
+
+        // The implication fires when the domain of the premise is a subset of subDomainVar1
+        if (store.getDomainSize(this.premise) <= this.premiseCodes.length && this.isPremiseForced(store)) {
+            for (int code = store.first(this.conclusion); code >= 0; code = store.next(this.conclusion, code + 1)) {
+                if (!this.inConclusion[code]) {
+                    store.remove(this.conclusion, code);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a boolean indicating if all the values of the first variable are in <code>subDomainVar1</code>
+     *
+     * @param store the domains of the variables
+     * @return true if the domain of the first variable is a subset of <code>subDomainVar1</code>
+     */
+    private boolean isPremiseForced(DomainStore store) {
+        int count = 0;
+        for (int code : this.premiseCodes) {
+            if (store.contains(this.premise, code)) {
+                count++;
+            }
+        }
+        return count == store.getDomainSize(this.premise);
+    }
+
+    /**
+     * Returns a boolean indicating if one of some values is in the domain of a variable
+     *
+     * @param store    the domains of the variables
+     * @param variable the index of the variable
+     * @param codes    the codes of the values
+     * @return true if at least one of the values is in the domain
+     */
+    private boolean containsAny(DomainStore store, int variable, int[] codes) {
+        for (int code : codes) {
+            if (store.contains(variable, code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the indices and the codes of the implication for a store, the first time the store is used
+     *
+     * @param store the domains of the variables
+     */
+    private void bind(DomainStore store) {
+        if (store == this.boundStore) {
+            return;
+        }
+        this.premise = store.indexOf(this.implication.getFirstVariable());
+        this.conclusion = store.indexOf(this.implication.getSecondVariable());
+        this.premiseCodes = ImplicationPropagator.codesOf(store, this.premise, this.implication.getSubDomainVar1());
+        this.conclusionCodes = ImplicationPropagator.codesOf(store, this.conclusion, this.implication.getSubDomainVar2());
+        this.inConclusion = new boolean[store.getInitialSize(this.conclusion)];
+        for (int code : this.conclusionCodes) {
+            this.inConclusion[code] = true;
+        }
+        this.boundStore = store;
+    }
+
+    /**
+     * Returns the codes of the values of a set that are in the initial domain of a variable
+     *
+     * @param store    the domains of the variables
+     * @param variable the index of the variable
+     * @param values   the values
+     * @return the codes of the values
+     */
+    private static int[] codesOf(DomainStore store, int variable, Set<Object> values) {
+        List<Integer> codes = new ArrayList<>();
+        for (Object value : values) {
+            int code = store.codeOf(variable, value);
+            if (code >= 0) {
+                codes.add(code);
+            }
+        }
+        return codes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
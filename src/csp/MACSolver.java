@@ -43,39 +43,57 @@ public class MACSolver extends AbstractSolver{
     }
 
     /**
-     * Boolean that represents if the solver is using AC3 or not
-     * @return true if the solver is using AC3, false otherwise
+     * <b>
+     *     Returns a solution of the CSP problem or null if there is no solution
+     * </b>
+     *
+     * <p>
+     *     The domains are kept in a single {@link DomainStore} for the whole search. Before a value is
+     *     tried, a mark of the trail of the store is taken, and the domains are restored to this mark when
+     *     the value fails, so no domain and no partial solution is copied. <br>
+     *     The arc consistency of all the domains is enforced once, before the search (with AC1 or AC3).
+     *     Then each assignment is only propagated from the assigned variable
+     *     (see {@link ArcConsistency#propagate(DomainStore, int)}). Since the domains stay arc consistent,
+     *     each value of a domain is consistent with the variables already assigned. <br>
+     * </p>
+     *
+     * @return a solution of the CSP problem, or null if there is no solution
      */
-
     @Override
     public Map<Variable, Object> solve() {
-        Map<Variable, Set<Object>> domains = new HashMap<>();
+        Map<Variable, Set<Object>> domains = new LinkedHashMap<>();
         for (Variable variable : this.getVariables()) {
-            domains.put(variable, new HashSet<>(variable.getDomain()));
+            domains.put(variable, variable.getDomain());
         }
 
-        return solve(new HashMap<>(), new HashSet<>(this.getVariables()), domains);
+        DomainStore store = new DomainStore(domains);
+
+        // If the domains cannot be made arc consistent
+        if (!getArcConsistency().arcConsistency(store)) {
+            return null;
+        }
+
+        return solve(new HashMap<>(), new HashSet<>(this.getVariables()), store);
     }
 
 
     /**
      * Recursive method to solve the CSP
      *
+     * <p>
+     *     The domains are arc consistent when this method is called. <br>
+     * </p>
+     *
      * @param partialSolution the partial solution
      * @param variables the set of variables
      * @param domains the domains of the variables
      * @return the solution
      */
-    protected Map<Variable, Object> solve(Map<Variable, Object> partialSolution, Set<Variable> variables, Map<Variable, Set<Object>> domains) {
+    protected Map<Variable, Object> solve(Map<Variable, Object> partialSolution, Set<Variable> variables, DomainStore domains) {
 
         // If there is no more variables to assign
         if (variables.isEmpty()) {
-            return partialSolution;
-        }
-
-        // If the domains are not arc consistent
-        if (!getArcConsistency().arcConsistency(domains)) {
-            return null;
+            return new HashMap<>(partialSolution);
         }
 
         // Choose a variable
@@ -83,7 +101,7 @@ public class MACSolver extends AbstractSolver{
         // Remove the variable from the set of variables
         variables.remove(variable);
 
-        Set<Object> domain = domains.get(variable);
+        Set<Object> domain = domains.getDomain(domains.indexOf(variable));
         return addVariableToSolution(partialSolution, variables, domains, variable, domain);
     }
 
@@ -94,34 +112,39 @@ public class MACSolver extends AbstractSolver{
      * @param domains the domains of the variables
      * @param variable the variable to assign
      * @param domain the domain of the variable
-     * @return
+     * @return the solution, or null if no value of the variable leads to a solution
      */
-    protected Map<Variable, Object> addVariableToSolution(Map<Variable, Object> partialSolution, Set<Variable> variables, Map<Variable, Set<Object>> domains, Variable variable, Iterable<Object> domain) {
+    protected Map<Variable, Object> addVariableToSolution(Map<Variable, Object> partialSolution, Set<Variable> variables, DomainStore domains, Variable variable, Iterable<Object> domain) {
+        int index = domains.indexOf(variable);
         // Assign a value to the variable
         for(Object value : domain) {
 
-            // Create a new partial solution
-            Map<Variable, Object> newPartialSolution = new HashMap<>(partialSolution);
-            newPartialSolution.put(variable, value);
+            // Extend the partial solution with the value
+            partialSolution.put(variable, value);
+            int code = domains.codeOf(index, value);
 
-            // Test the consistency of the new partial solution
-            if (isConsistent(newPartialSolution)) {
+            // The values of an arc consistent domain are consistent with the partial solution
+            if (code >= 0 && domains.contains(index, code)) {
 
-                // We copy the domains to avoid modifying the original domains during the recursive call to solve
-                Map<Variable, Set<Object>> newDomains = new HashMap<>(domains);
+                // We take a mark of the trail to restore the domains after the recursive call to solve
+                int mark = domains.mark();
 
-                // We restrict the domain of the variable to the value
-                newDomains.put(variable, new HashSet<>(Collections.singletonList(value)));
+                // We restrict the domain of the variable to the value, and propagate this change
+                domains.assign(index, code);
+                if (getArcConsistency().propagate(domains, mark)) {
 
-                // Recursive call
-                Map<Variable, Object> solution = solve(newPartialSolution, variables, newDomains);
-                if (solution != null) {
-                    return solution;
+                    // Recursive call
+                    Map<Variable, Object> solution = solve(partialSolution, variables, domains);
+                    if (solution != null) {
+                        return solution;
+                    }
                 }
+                domains.restore(mark);
             }
         }
 
         // No solution found, so we add the variable to the set of variables and return null
+        partialSolution.remove(variable);
         variables.add(variable);
         return null;
     }
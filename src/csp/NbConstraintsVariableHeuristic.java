@@ -20,6 +20,8 @@ import java.util.*;
  *     If we choose to maximize the number of constraints, the variable with the highest number of constraints
  *     will be chosen. It is useful when we want to assign a variable that is involved in the most number
  *     of constraints. It is likely to lead to a failure. <br>
+ *     A constraint counts as many times as its weight (see {@link Constraint#getWeight()}), so a global
+ *     constraint counts as the constraints it replaces. <br>
  * </p>
  *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
@@ -78,7 +80,7 @@ public class NbConstraintsVariableHeuristic implements VariableHeuristic {
             int nb = 0;
             for (Constraint constraint : constraints) {
                 if (constraint.getScope().contains(variable)) {
-                    nb++;
+                    nb += constraint.getWeight();
                 }
             }
             nbConstraints.put(variable, nb);
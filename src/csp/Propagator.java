@@ -0,0 +1,57 @@
+package csp;
+
+import representation.Variable;
+
+import java.util.Set;
+
+/**
+ * <b>
+ *     Interface representing the filtering algorithm of a constraint
+ * </b>
+ *
+ * <p>
+ *     A propagator removes from the domains of the variables of its scope the values that cannot be part
+ *     of a solution of its constraint. It works on a {@link DomainStore}, and removes the values with
+ *     {@link DomainStore#remove(int, int)}, so the removals are recorded in the trail and the solvers
+ *     restore them when they backtrack. <br>
+ * </p>
+ *
+ * <p>
+ *     {@link ArcConsistency} calls a propagator when the domain of a variable of its scope has changed,
+ *     next to the revisions of the arcs, so a constraint on more than two variables is filtered as a
+ *     whole. A constraint that implements this interface is filtered by itself, and ArcConsistency
+ *     builds a propagator for the {@link representation.AllDifferentConstraint}s, the
+ *     {@link representation.TableConstraint}s and the {@link representation.Implication}s. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public interface Propagator {
+
+    /**
+     * <b>Returns the variables whose domains are filtered by the propagator</b>
+     *
+     * @return the variables of the constraint
+     */
+    Set<Variable> getScope();
+
+    /**
+     * <b>
+     *     Filters the domains of the variables of the scope
+     * </b>
+     *
+     * <p>
+     *     The propagator is not called again for its own removals, so it removes all the values it can
+     *     before it returns. The domains can be restored between two calls, so the data kept from a call
+     *     to the next one can only be hints that are checked against the domains. <br>
+     * </p>
+     *
+     * @param store the domains of the variables, which contains all the variables of the scope
+     * @return false if a domain has been emptied or if the constraint cannot be satisfied
+     */
+    boolean propagate(DomainStore store);
+}
@@ -0,0 +1,220 @@
+package csp;
+
+import representation.TableConstraint;
+import representation.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <b>
+ *     Class representing the propagator of a table constraint (compact table)
+ * </b>
+ *
+ * <p>
+ *     The tuples of the constraint are numbered, and each value of each variable has the bitset of the
+ *     tuples that contain it. The valid tuples are the tuples whose values are all in the current domains:
+ *     their bitset is the intersection, over the variables, of the union of the bitsets of the values of the
+ *     domain. A value is supported if its bitset intersects the valid tuples, which is tested one word at a
+ *     time from the word where a valid tuple was last found for this value (its residue). <br>
+ *     The bitset of the valid tuples is rebuilt from the domains at each call instead of being restored
+ *     when the search backtracks, since the store restores the domains without calling the propagators. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+final class TablePropagator implements Propagator {
+
+    /**
+     * The table constraint
+     */
+    private final TableConstraint constraint;
+
+    /**
+     * The store whose codes are used by the fields below
+     */
+    private DomainStore boundStore;
+
+    /**
+     * The index of each variable of the constraint, in the order of the tuples
+     */
+    private int[] variables;
+
+    /**
+     * The bitset of the tuples that contain each value, by position of the variable and by code
+     */
+    private long[][][] supports;
+
+    /**
+     * The word of the bitset where a valid tuple was last found, by position of the variable and by code
+     */
+    private int[][] residues;
+
+    /**
+     * The bitset of the valid tuples
+     */
+    private long[] table;
+
+    /**
+     * The union of the bitsets of the values of a domain
+     */
+    private long[] union;
+
+    /**
+     * Constructor of the propagator
+     *
+     * @param constraint the table constraint
+     */
+    TablePropagator(TableConstraint constraint) {
+        this.constraint = constraint;
+    }
+
+    @Override
+    public Set<Variable> getScope() {
+        return this.constraint.getScope();
+    }
+
+    @Override
+    public boolean propagate(DomainStore store) {
+        this.bind(store);
+        boolean removed;
+        do {
+            if (!this.updateTable(store)) {
+                return false;
+            }
+
+            // Each value must be in at least one valid tuple
+            removed = false;
+            for (int position = 0; position < this.variables.length; position++) {
+                int variable = this.variables[position];
+                for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+                    if (!this.isSupported(position, code)) {
+                        store.remove(variable, code);
+                        removed = true;
+                    }
+                }
+                if (store.isEmpty(variable)) {
+                    return false;
+                }
+            }
+            // The removed values may have been the only support of a value of another variable
+        } while (removed);
+        return true;
+    }
+
+    /**
+     * Computes the bitset of the valid tuples from the current domains
+     *
+     * @param store the domains of the variables
+     * @return false if no tuple is valid
+     */
+    private boolean updateTable(DomainStore store) {
+        long[] table = this.table;
+        long[] union = this.union;
+        for (int word = 0; word < table.length; word++) {
+            table[word] = -1L;
+        }
+        for (int position = 0; position < this.variables.length; position++) {
+            int variable = this.variables[position];
+            for (int word = 0; word < union.length; word++) {
+                union[word] = 0L;
+            }
+            for (int code = store.first(variable); code >= 0; code = store.next(variable, code + 1)) {
+                long[] tuples = this.supports[position][code];
+                for (int word = 0; word < union.length; word++) {
+                    union[word] |= tuples[word];
+                }
+            }
+            for (int word = 0; word < table.length; word++) {
+                table[word] &= union[word];
+            }
+        }
+        for (long word : table) {
+            if (word != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a boolean indicating if a value is in at least one valid tuple
+     *
+     * @param position the position of the variable in the constraint
+     * @param code     the code of the value
+     * @return true if the bitset of the value intersects the valid tuples
+     */
+    private boolean isSupported(int position, int code) {
+        long[] tuples = this.supports[position][code];
+        int residue = this.residues[position][code];
+        if ((tuples[residue] & this.table[residue]) != 0L) {
+            return true;
+        }
+        for (int word = 0; word < tuples.length; word++) {
+            if ((tuples[word] & this.table[word]) != 0L) {
+                this.residues[position][code] = word;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the bitsets of the values for a store, the first time the store is used
+     *
+     * <p>
+     *     The tuples that hold a value outside of the initial domain of its variable can never be valid,
+     *     so they are not numbered. <br>
+     * </p>
+     *
+     * @param store the domains of the variables
+     */
+    private void bind(DomainStore store) {
+        if (store == this.boundStore) {
+            return;
+        }
+        List<Variable> scope = this.constraint.getVariables();
+        int arity = scope.size();
+        this.variables = new int[arity];
+        for (int position = 0; position < arity; position++) {
+            this.variables[position] = store.indexOf(scope.get(position));
+        }
+
+        // The codes of the values of each tuple that can be valid
+        List<int[]> tuples = new ArrayList<>();
+        for (List<Object> tuple : this.constraint.getTuples()) {
+            int[] codes = new int[arity];
+            boolean valid = true;
+            for (int position = 0; position < arity && valid; position++) {
+                codes[position] = store.codeOf(this.variables[position], tuple.get(position));
+                valid = codes[position] >= 0;
+            }
+            if (valid) {
+                tuples.add(codes);
+            }
+        }
+
+        int words = Math.max(1, (tuples.size() + 63) >>> 6);
+        this.supports = new long[arity][][];
+        this.residues = new int[arity][];
+        for (int position = 0; position < arity; position++) {
+            int size = store.getInitialSize(this.variables[position]);
+            this.supports[position] = new long[size][words];
+            this.residues[position] = new int[size];
+        }
+        for (int tuple = 0; tuple < tuples.size(); tuple++) {
+            int[] codes = tuples.get(tuple);
+            for (int position = 0; position < arity; position++) {
+                this.supports[position][codes[position]][tuple >>> 6] |= 1L << tuple;
+            }
+        }
+        this.table = new long[words];
+        this.union = new long[words];
+        this.boundStore = store;
+    }
+}
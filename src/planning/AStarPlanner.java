@@ -26,6 +26,11 @@ public class AStarPlanner extends AbstractPlanner {
      */
     private final Heuristic heuristic;
 
+    /**
+     * Boolean that if we will use a bucket open list instead of a binary heap
+     */
+    private final boolean useBuckets;
+
     /**
      * Constructeur de la classe AstarPlanner avec l'heuristique
      *
@@ -36,8 +41,28 @@ public class AStarPlanner extends AbstractPlanner {
      */
     public AStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
                         Goal goal, Heuristic heuristic) {
+        this(initialState, actions, goal, heuristic, false);
+    }
+
+    /**
+     * Constructeur de la classe AstarPlanner avec l'heuristique et le choix de la liste ouverte
+     *
+     * <p>
+     * La liste ouverte à buckets ({@link BucketOpenList}) est adaptée aux coûts entiers et aux
+     * heuristiques à valeurs entières, comme celles du monde des blocs.
+     * </p>
+     *
+     * @param initialState l'état initial
+     * @param actions      l'ensemble des actions
+     * @param goal         le but
+     * @param heuristic    l'heuristique
+     * @param useBuckets   true pour utiliser une liste ouverte à buckets au lieu d'un tas binaire
+     */
+    public AStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                        Goal goal, Heuristic heuristic, boolean useBuckets) {
         super(initialState, actions, goal);
         this.heuristic = heuristic;
+        this.useBuckets = useBuckets;
     }
 
     /**
@@ -47,8 +72,20 @@ public class AStarPlanner extends AbstractPlanner {
      * @param heuristic l'heuristique
      */
     public AStarPlanner(PlanningProblem problem, Heuristic heuristic) {
+        this(problem, heuristic, false);
+    }
+
+    /**
+     * Constructeur de la classe AstarPlanner avec l'heuristique et le choix de la liste ouverte
+     *
+     * @param problem    le problème
+     * @param heuristic  l'heuristique
+     * @param useBuckets true pour utiliser une liste ouverte à buckets au lieu d'un tas binaire
+     */
+    public AStarPlanner(PlanningProblem problem, Heuristic heuristic, boolean useBuckets) {
         super(problem);
         this.heuristic = heuristic;
+        this.useBuckets = useBuckets;
     }
 
     /**
@@ -63,48 +100,52 @@ public class AStarPlanner extends AbstractPlanner {
 
     @Override
     public List<Action> plan() {
-
-        //Map des heuristiques
-        Map<Map<Variable, Object>, Float> heuristics = new HashMap<>();
-        heuristics.put(this.getInitialState(), this.heuristic.estimate(this.getInitialState()));
-
-        //Priority queue des états à explorer
-        PriorityQueue<Map<Variable, Object>> toExplore = new PriorityQueue<>(Comparator.comparing(heuristics::get));
-        toExplore.add(this.getInitialState());
-
-        //Map des distances
-        Map<Map<Variable, Object>, Float> distances = new HashMap<>();
-        distances.put(this.getInitialState(), 0f);
-
-        return this.astarPlan(new HashMap<>(), new HashMap<>(), distances, heuristics, toExplore);
+        return this.astarPlan(this.useBuckets ? new BucketOpenList() : new IndexedHeap());
     }
 
-    protected List<Action> astarPlan(Map<Map<Variable, Object>, Map<Variable, Object>> parents,
-                                     Map<Map<Variable, Object>, Action> plan,
-                                     Map<Map<Variable, Object>, Float> distance,
-                                     Map<Map<Variable, Object>, Float> heuristicDistance,
-                                     PriorityQueue<Map<Variable, Object>> open) {
+    /**
+     * <b>
+     * Searches a plan with the A* algorithm using a given open list
+     * </b>
+     *
+     * <p>
+     * Each state reached by the search has a single {@link SearchNode}, which holds its g-value and
+     * its heuristic estimate. When a cheaper path to a state is found, its node is updated in place
+     * and the open list is notified, so the open list never holds stale duplicates. <br>
+     * </p>
+     *
+     * @param open the (empty) open list
+     * @return the plan found, or null if the open list runs out of nodes
+     */
+    protected List<Action> astarPlan(OpenList open) {
+        PackedState initialState = this.getPackedInitialState();
+        Map<PackedState, SearchNode> nodes = new HashMap<>();
+        SearchNode root = new SearchNode(initialState, null, null, 0, this.heuristic.estimate(initialState));
+        nodes.put(initialState, root);
+        open.add(root);
         while (!open.isEmpty()) {
-            Map<Variable, Object> currentState = open.poll();
+            SearchNode current = open.poll();
+            PackedState currentState = current.getState();
             if (this.getGoal().isSatisfiedBy(currentState)) {
-                return BFSPlanner.getBfsPlan(parents, plan, currentState);
+                return current.getPlan();
             }
-            for (Action action : this.getActions()) {
-                if (action.isApplicable(currentState)) {
-                    Map<Variable, Object> newState = action.successor(currentState);
-                    distance.computeIfAbsent(newState, (k) -> {
-                        this.incrementProbe();
-                        return Float.POSITIVE_INFINITY;
-                    });
-                    Float newDistance = distance.get(currentState) + action.getCost();
-                    if (distance.get(newState) > newDistance) {
-                        this.incrementProbe();
-                        distance.put(newState, newDistance);
-                        heuristicDistance.put(newState, newDistance + heuristic.estimate(newState));
-                        parents.put(newState, currentState);
-                        plan.put(newState, action);
-                        open.add(newState);
-                    }
+            this.countExpansion(nodes.size());
+            for (CompiledAction action : this.getSuccessorGenerator().getApplicableActions(currentState)) {
+                PackedState newState = action.successor(currentState);
+                int newDistance = current.getG() + action.getCost();
+                SearchNode node = nodes.get(newState);
+                if (node == null) {
+                    this.incrementProbe();
+                    this.incrementProbe();
+                    node = new SearchNode(newState, current, action.getAction(), newDistance,
+                            this.heuristic.estimateSuccessor(currentState, current.getH(), action.getAction(),
+                                    newState));
+                    nodes.put(newState, node);
+                    open.add(node);
+                } else if (newDistance < node.getG()) {
+                    this.incrementProbe();
+                    node.reparent(current, action.getAction(), newDistance);
+                    open.add(node);
                 }
             }
         }
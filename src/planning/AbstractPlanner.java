@@ -2,6 +2,7 @@ package planning;
 
 import representation.Variable;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,6 +15,11 @@ import java.util.Set;
  * A solver for planning problems is specified by an initial state, a set of actions and a goal. <br>
  * </p>
  *
+ * <p>
+ * The subclasses report each expansion of their main loop with {@link #countExpansion(long)}, which
+ * stops the search when a limit of the current {@link PlanningRequest} is reached. <br>
+ * </p>
+ *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
  * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
  * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
@@ -42,6 +48,26 @@ public abstract class AbstractPlanner implements Planner {
      */
     private int probe;
 
+    /**
+     * The layout of the packed states, built on first use
+     */
+    private StateLayout layout;
+
+    /**
+     * The actions compiled against the layout, built on first use
+     */
+    private CompiledAction[] compiledActions;
+
+    /**
+     * The index of the applicable actions, built on first use
+     */
+    private SuccessorGenerator successorGenerator;
+
+    /**
+     * The limits of the running call to {@link #plan(PlanningRequest)} (null if the search has no limit)
+     */
+    private SearchBudget budget;
+
 
     /**
      * Protected constructor of the class
@@ -81,6 +107,61 @@ public abstract class AbstractPlanner implements Planner {
         return this.goal;
     }
 
+    /**
+     * <b>
+     * Returns the layout used to pack the states of the problem
+     * </b>
+     *
+     * @return the layout used to pack the states of the problem
+     */
+    public StateLayout getLayout() {
+        if (this.layout == null) {
+            this.layout = StateLayout.of(this.initialState, this.actions, this.goal);
+        }
+        return this.layout;
+    }
+
+    /**
+     * <b>
+     * Returns the actions of the problem compiled against the layout
+     * </b>
+     *
+     * <p>
+     * The identifier of each compiled action is its position in the returned array.
+     * </p>
+     *
+     * @return the compiled actions of the problem
+     */
+    public CompiledAction[] getCompiledActions() {
+        if (this.compiledActions == null) {
+            this.compiledActions = new ActionCompiler(this.getLayout()).compile(this.actions);
+        }
+        return this.compiledActions;
+    }
+
+    /**
+     * <b>
+     * Returns the index of the applicable actions of the problem
+     * </b>
+     *
+     * @return the successor generator of the compiled actions
+     */
+    public SuccessorGenerator getSuccessorGenerator() {
+        if (this.successorGenerator == null) {
+            this.successorGenerator = new SuccessorGenerator(this.getLayout(), this.getCompiledActions());
+        }
+        return this.successorGenerator;
+    }
+
+    /**
+     * Returns the packed initial state of the problem
+     *
+     * @return the packed initial state of the problem
+     */
+    public PackedState getPackedInitialState() {
+        return this.getLayout().pack(this.initialState);
+    }
+
     /**
      * Returns the number of states that are visited
      *
@@ -113,6 +194,62 @@ public abstract class AbstractPlanner implements Planner {
         this.probe++;
     }
 
+    @Override
+    public PlanResult plan(PlanningRequest request) {
+        SearchBudget budget = new SearchBudget(request);
+        this.budget = budget;
+        List<Action> plan = null;
+        PlanResult.Status status;
+        try {
+            budget.check();
+            plan = this.plan();
+            status = plan == null ? PlanResult.Status.UNSOLVABLE : PlanResult.Status.SOLVED;
+        } catch (SearchBudget.Stop stop) {
+            status = stop.getStatus();
+        } finally {
+            this.budget = null;
+        }
+        return new PlanResult(status, plan, budget.getExpansions(), this.probe, budget.getStoredNodes(),
+                budget.getElapsedNanos());
+    }
+
+    /**
+     * Returns the limits of the running search
+     *
+     * @return the limits of the running search, or null if it has no limit
+     */
+    SearchBudget getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Sets the limits of the search, for a planner running a part of the search of another planner
+     *
+     * @param budget the limits of the search, or null
+     */
+    void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * <b>
+     * Counts an expansion of the search, and stops the search if a limit of the request is reached
+     * </b>
+     *
+     * <p>
+     * Without a request, this is a single test. It can be called by several threads. <br>
+     * </p>
+     *
+     * @param storedNodes the number of states stored by the search
+     * @throws RuntimeException if a limit is reached, which {@link #plan(PlanningRequest)} catches
+     */
+    protected final void countExpansion(long storedNodes) {
+        SearchBudget budget = this.budget;
+        if (budget != null) {
+            budget.expand(storedNodes);
+        }
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "[" +
@@ -59,6 +59,36 @@ public interface Action {
      */
     Map<Variable, Object> successor(Map<Variable, Object> state);
 
+    /**
+     * Returns a boolean indicating if the action can be performed by a packed state
+     *
+     * <p>
+     * By default, the action is tested on the map view of the state.
+     * </p>
+     *
+     * @param state the packed state to test
+     * @return true if the action can be performed by the state
+     */
+    default boolean isApplicable(PackedState state) {
+        return this.isApplicable(state.asMap());
+    }
+
+    /**
+     * Returns the new packed state after performing the action
+     *
+     * <p>
+     * By default, the action is performed on the map view of the state and the result is packed
+     * with the layout of the state.
+     * </p>
+     *
+     * @param state the packed state on which the action is performed
+     *              (the state must satisfy the preconditions)
+     * @return the new packed state after performing the action
+     */
+    default PackedState successor(PackedState state) {
+        return state.getLayout().pack(this.successor(state.asMap()));
+    }
+
     /**
      * Returns the cost of the action
      *
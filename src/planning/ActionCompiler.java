@@ -0,0 +1,93 @@
+package planning;
+
+import java.util.Collection;
+
+/**
+ * <b>
+ * Class compiling actions against a state layout
+ * </b>
+ *
+ * <p>
+ * An action compiler turns each basic action into a {@link CompiledAction} whose preconditions
+ * and effects are bit masks over the words of the packed states of a layout. <br>
+ * The actions are compiled once, before the search, so that the loop over the actions that every
+ * planner runs for each expanded state does not allocate anything to test applicability. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public final class ActionCompiler {
+
+    /**
+     * The layout against which the actions are compiled
+     */
+    private final StateLayout layout;
+
+    /**
+     * Constructor of the class
+     *
+     * @param layout the layout against which the actions are compiled
+     */
+    public ActionCompiler(StateLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Returns the layout against which the actions are compiled
+     *
+     * @return the layout of the compiler
+     */
+    public StateLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * <b>
+     * Compiles an action
+     * </b>
+     *
+     * @param action the action to compile
+     * @param id     the identifier of the action
+     * @return the compiled action
+     * @throws IllegalArgumentException if the effects of a basic action are not part of the layout
+     */
+    public CompiledAction compile(Action action, int id) {
+        if (!(action instanceof BasicAction)) {
+            return new CompiledAction(this.layout, action, id, null, null);
+        }
+        BasicAction basicAction = (BasicAction) action;
+        PackedAssignment effect = PackedAssignment.compile(this.layout, basicAction.getEffect());
+        if (!effect.isSatisfiable()) {
+            throw new IllegalArgumentException("The effects of " + action + " are not part of the layout");
+        }
+        return new CompiledAction(this.layout, action, id, PackedAssignment.compile(this.layout, basicAction.getPrecondition()),
+                effect);
+    }
+
+    /**
+     * <b>
+     * Compiles a collection of actions
+     * </b>
+     *
+     * <p>
+     * The identifier of each action is its position in the returned array.
+     * </p>
+     *
+     * @param actions the actions to compile
+     * @return the compiled actions
+     * @throws IllegalArgumentException if the effects of a basic action are not part of the layout
+     */
+    public CompiledAction[] compile(Collection<? extends Action> actions) {
+        CompiledAction[] compiled = new CompiledAction[actions.size()];
+        int id = 0;
+        for (Action action : actions) {
+            compiled[id] = this.compile(action, id);
+            id++;
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,399 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using the anytime repairing A* algorithm (ARA*)
+ * </b>
+ *
+ * <p>
+ * The search is a sequence of weighted A* searches, where the nodes are ordered by
+ * <code>g + w * h</code>. A high weight finds a first plan quickly; the weight is then decreased
+ * after each search, down to 1, and each search improves the plan of the previous one. <br>
+ * The searches reuse the nodes of the previous ones: a search only expands the nodes that were still
+ * open, and the nodes whose cost decreased after they were expanded (the inconsistent nodes). A search
+ * stops as soon as no open node can lead to a plan cheaper than the best plan found. <br>
+ * </p>
+ *
+ * <p>
+ * Each time a cheaper plan is found, the {@link PlanListener listeners} are notified with its cost and
+ * its suboptimality bound, which is at most the weight of the search. With an admissible heuristic,
+ * the last plan is optimal. <br>
+ * The planner can be stopped at any time by {@link #stop()}, from a listener or from another thread:
+ * {@link #plan()} then returns the best plan found so far, and the {@link PlanResult} of
+ * {@link #plan(PlanningRequest)} has the status {@link PlanResult.Status#CANCELLED} with this plan (or
+ * without a plan if none was found). When a limit of a {@link PlanningRequest} is reached after a plan
+ * is found, the search also returns the best plan found so far, with the status of the limit. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PlanListener
+ */
+public class AnytimeWeightedAStarPlanner extends AStarPlanner {
+
+    /**
+     * The weight of the first search
+     */
+    private final float initialWeight;
+
+    /**
+     * The decrease of the weight after each search
+     */
+    private final float weightStep;
+
+    /**
+     * The listeners of the plans found
+     */
+    private final List<PlanListener> listeners = new ArrayList<>();
+
+    /**
+     * A boolean indicating if the planner has been asked to stop, cleared when {@link #plan()} returns
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The status of the last search if it was stopped by {@link #stop()} or, after a plan was found, by a
+     * limit of the request (null if it was not stopped)
+     */
+    private PlanResult.Status limit;
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState  the initial state
+     * @param actions       the set of actions
+     * @param goal          the goal
+     * @param heuristic     the heuristic
+     * @param initialWeight the weight of the heuristic in the first search
+     * @param weightStep    the decrease of the weight after each search
+     * @throws IllegalArgumentException if the weight is lower than 1 or the step is not positive
+     */
+    public AnytimeWeightedAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal,
+                                       Heuristic heuristic, float initialWeight, float weightStep) {
+        super(initialState, actions, goal, heuristic);
+        AnytimeWeightedAStarPlanner.check(initialWeight, weightStep);
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem       the problem
+     * @param heuristic     the heuristic
+     * @param initialWeight the weight of the heuristic in the first search
+     * @param weightStep    the decrease of the weight after each search
+     * @throws IllegalArgumentException if the weight is lower than 1 or the step is not positive
+     */
+    public AnytimeWeightedAStarPlanner(PlanningProblem problem, Heuristic heuristic,
+                                       float initialWeight, float weightStep) {
+        super(problem, heuristic);
+        AnytimeWeightedAStarPlanner.check(initialWeight, weightStep);
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+    }
+
+    /**
+     * Checks the weight schedule of the planner
+     *
+     * @param initialWeight the weight of the heuristic in the first search
+     * @param weightStep    the decrease of the weight after each search
+     * @throws IllegalArgumentException if the weight is lower than 1 or the step is not positive
+     */
+    private static void check(float initialWeight, float weightStep) {
+        if (!(initialWeight >= 1)) {
+            throw new IllegalArgumentException("The weight of the heuristic must be at least 1");
+        }
+        if (!(weightStep > 0)) {
+            throw new IllegalArgumentException("The decrease of the weight must be positive");
+        }
+    }
+
+    /**
+     * Returns the weight of the heuristic in the first search
+     *
+     * @return the initial weight
+     */
+    public float getInitialWeight() {
+        return this.initialWeight;
+    }
+
+    /**
+     * Returns the decrease of the weight after each search
+     *
+     * @return the weight step
+     */
+    public float getWeightStep() {
+        return this.weightStep;
+    }
+
+    /**
+     * Adds a listener of the plans found
+     *
+     * @param listener the listener
+     */
+    public void addPlanListener(PlanListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the plans found
+     *
+     * @param listener the listener
+     */
+    public void removePlanListener(PlanListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * <b>
+     * Stops the running search
+     * </b>
+     *
+     * <p>
+     * The call to {@link #plan()} returns the best plan found so far, or null if no plan has been found,
+     * and the call to {@link #plan(PlanningRequest)} has the status {@link PlanResult.Status#CANCELLED}:
+     * a stopped search does not mean that no plan exists. It can be called from any thread. If no search is running, the next call to {@link #plan()} is
+     * stopped before its first expansion, so a stop is not lost when it comes just before the search. <br>
+     * </p>
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Returns a boolean indicating if the planner has been asked to stop
+     *
+     * @return true if the planner has been stopped and the search has not returned yet
+     */
+    public boolean isStopped() {
+        return this.stopped;
+    }
+
+    @Override
+    public PlanResult plan(PlanningRequest request) {
+        this.limit = null;
+        PlanResult result = super.plan(request);
+        if (this.limit == null) {
+            return result;
+        }
+        // The plan (if any) is the best one found before the stop, it may not be optimal
+        return new PlanResult(this.limit, result.getPlan(), result.getExpansions(), result.getGenerated(),
+                result.getStoredNodes(), result.getElapsedNanos());
+    }
+
+    @Override
+    public List<Action> plan() {
+        try {
+            return this.search();
+        } finally {
+            this.stopped = false;
+        }
+    }
+
+    /**
+     * Runs the weighted searches until the weight is 1, the plan is optimal or the planner is stopped
+     *
+     * @return the best plan found, or null if no plan has been found
+     */
+    private List<Action> search() {
+        PackedState initialState = this.getPackedInitialState();
+        if (this.getGoal().isSatisfiedBy(initialState)) {
+            this.notifyListeners(new ArrayList<>(), 0, 1);
+            return new ArrayList<>();
+        }
+        Search search = new Search(initialState);
+        float weight = this.initialWeight;
+        while (true) {
+            search.open.setWeight(weight);
+            int previousCost = search.bestCost();
+            boolean complete;
+            try {
+                complete = search.improve();
+            } catch (SearchBudget.Stop stop) {
+                // The limits of the request stop the search like stop(), with the best plan found so far
+                if (search.best == null) {
+                    throw stop;
+                }
+                this.limit = stop.getStatus();
+                complete = false;
+            }
+            float bound = search.bound(weight);
+            if (search.best != null && search.bestCost() < previousCost) {
+                this.notifyListeners(search.best.getPlan(), search.bestCost(), bound);
+            }
+            if (!complete && this.limit == null) {
+                // Stopped by stop(), which cancels the search whether a plan was found or not
+                this.limit = PlanResult.Status.CANCELLED;
+            }
+            if (!complete || weight == 1 || bound == 1) {
+                return search.best == null ? null : search.best.getPlan();
+            }
+            weight = Math.max(1, weight - this.weightStep);
+            search.restart();
+        }
+    }
+
+    /**
+     * Notifies the listeners of a plan
+     *
+     * @param plan  the plan
+     * @param cost  the cost of the plan
+     * @param bound the suboptimality bound of the plan
+     */
+    private void notifyListeners(List<Action> plan, int cost, float bound) {
+        for (PlanListener listener : new ArrayList<>(this.listeners)) {
+            listener.planFound(new ArrayList<>(plan), cost, bound);
+        }
+    }
+
+    /**
+     * <b>
+     * State of a sequence of weighted searches
+     * </b>
+     */
+    private final class Search {
+
+        /**
+         * The node of each state reached
+         */
+        private final Map<PackedState, SearchNode> nodes = new HashMap<>();
+
+        /**
+         * The open nodes, ordered by the weight of the current search
+         */
+        private final IndexedHeap open = new IndexedHeap();
+
+        /**
+         * The fingerprints of the states expanded by the current search
+         */
+        private final LongHashSet closed = new LongHashSet();
+
+        /**
+         * The nodes whose cost decreased after they were expanded by the current search
+         */
+        private final List<SearchNode> inconsistent = new ArrayList<>();
+
+        /**
+         * The node of the cheapest goal state reached (null if no goal state has been reached)
+         */
+        private SearchNode best;
+
+        /**
+         * Constructor of the search
+         *
+         * @param initialState the initial state
+         */
+        private Search(PackedState initialState) {
+            SearchNode root = new SearchNode(initialState, null, null, 0,
+                    AnytimeWeightedAStarPlanner.this.getHeuristic().estimate(initialState));
+            this.nodes.put(initialState, root);
+            this.open.add(root);
+        }
+
+        /**
+         * Returns the cost of the best plan found
+         *
+         * @return the cost of the best plan, or {@link Integer#MAX_VALUE} if no plan has been found
+         */
+        private int bestCost() {
+            return this.best == null ? Integer.MAX_VALUE : this.best.getG();
+        }
+
+        /**
+         * Expands the open nodes while they can lead to a plan cheaper than the best plan found
+         *
+         * @return false if the search was stopped before the end
+         */
+        private boolean improve() {
+            AnytimeWeightedAStarPlanner planner = AnytimeWeightedAStarPlanner.this;
+            Heuristic heuristic = planner.getHeuristic();
+            List<CompiledAction> actions = new ArrayList<>();
+            while (!planner.stopped && !this.open.isEmpty()
+                    && this.open.priorityOf(this.open.peek()) < this.bestCost()) {
+                // Checked before the node leaves the open list, which keeps the bound of a stopped search valid
+                planner.countExpansion(this.nodes.size());
+                SearchNode current = this.open.poll();
+                PackedState currentState = current.getState();
+                this.closed.add(currentState.getFingerprint());
+                actions.clear();
+                planner.getSuccessorGenerator().collect(currentState, actions);
+                for (CompiledAction action : actions) {
+                    PackedState newState = action.successor(currentState);
+                    int newDistance = current.getG() + action.getCost();
+                    SearchNode node = this.nodes.get(newState);
+                    if (node == null) {
+                        planner.incrementProbe();
+                        node = new SearchNode(newState, current, action.getAction(), newDistance,
+                                heuristic.estimateSuccessor(currentState, current.getH(), action.getAction(),
+                                        newState));
+                        this.nodes.put(newState, node);
+                    } else if (newDistance < node.getG()) {
+                        planner.incrementProbe();
+                        node.reparent(current, action.getAction(), newDistance);
+                    } else {
+                        continue;
+                    }
+                    if (planner.getGoal().isSatisfiedBy(newState)) {
+                        // A plan never goes through a goal state, which would end a cheaper plan
+                        if (newDistance < this.bestCost()) {
+                            this.best = node;
+                        }
+                    } else if (this.closed.contains(newState.getFingerprint())) {
+                        this.inconsistent.add(node);
+                    } else {
+                        this.open.add(node);
+                    }
+                }
+            }
+            return !planner.stopped;
+        }
+
+        /**
+         * Prepares the next search: the inconsistent nodes are opened again and no node is expanded
+         */
+        private void restart() {
+            for (SearchNode node : this.inconsistent) {
+                this.open.add(node);
+            }
+            this.inconsistent.clear();
+            this.closed.clear();
+        }
+
+        /**
+         * <b>
+         * Returns the suboptimality bound of the best plan found
+         * </b>
+         *
+         * <p>
+         * Every plan cheaper than the best plan goes through an open or inconsistent node, so the cost of
+         * an optimal plan is at least the lowest f-value of these nodes, with an admissible heuristic. <br>
+         * </p>
+         *
+         * @param weight the weight of the current search
+         * @return the suboptimality bound, at most the weight
+         */
+        private float bound(float weight) {
+            if (this.best == null) {
+                return weight;
+            }
+            // The open nodes are ordered by f-value to find the lowest one, the next search orders them again
+            this.open.setWeight(1);
+            float lowest = this.open.isEmpty() ? Float.POSITIVE_INFINITY : this.open.peek().getF();
+            for (SearchNode node : this.inconsistent) {
+                lowest = Math.min(lowest, node.getF());
+            }
+            if (lowest >= this.bestCost()) {
+                return 1;
+            }
+            return lowest <= 0 ? weight : Math.min(weight, this.bestCost() / lowest);
+        }
+    }
+}
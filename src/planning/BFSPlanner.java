@@ -15,6 +15,11 @@ import java.util.*;
  * (i.e. the nodes closer to the leaves of the tree)
  * </p>
  *
+ * <p>
+ * The visited states are indexed by their 64-bit fingerprint, and a state is stored as soon as it is
+ * generated, so testing if a successor is new takes a constant time. <br>
+ * </p>
+ *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
  * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
  * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
@@ -31,10 +36,18 @@ public class BFSPlanner extends AbstractPlanner {
         super(problem);
     }
 
-    public static List<Action> getBfsPlan(Map<Map<Variable, Object>, Map<Variable, Object>> parents,
-                                          Map<Map<Variable, Object>, Action> actions, Map<Variable, Object> goal) {
+    /**
+     * Returns the plan that leads to a state from the parents and the actions of the visited states
+     *
+     * @param parents the parent of each visited state (null for the initial state)
+     * @param actions the action that leads to each visited state from its parent
+     * @param goal    the state to reach
+     * @param <S>     the type of the states
+     * @return the plan that leads to the state
+     */
+    public static <S> List<Action> getBfsPlan(Map<S, S> parents, Map<S, Action> actions, S goal) {
         List<Action> plan = new LinkedList<>();
-        Map<Variable, Object> current = goal;
+        S current = goal;
         while (parents.get(current) != null) {
             plan.add(actions.get(current));
             current = parents.get(current);
@@ -43,6 +56,17 @@ public class BFSPlanner extends AbstractPlanner {
         return plan;
     }
 
+    /**
+     * <b>
+     * Returns a plan with the fewest actions, using the Breadth-First Search algorithm
+     * </b>
+     *
+     * <p>
+     * The generated states are kept in a {@link NodeStore}: each state is identified by its
+     * position, and its parent and the action that reached it are primitive columns of the store,
+     * so the plan is rebuilt by following the identifiers. <br>
+     * </p>
+     */
     @Override
     public List<Action> plan() {
 
@@ -50,35 +74,37 @@ public class BFSPlanner extends AbstractPlanner {
             return Collections.emptyList();
         }
         this.resetProbe();
-        Set<Map<Variable, Object>> visited = new HashSet<>();
-        ArrayDeque<Map<Variable, Object>> open = new ArrayDeque<>();
-        open.add(this.getInitialState());
-        Map<Map<Variable, Object>, Map<Variable, Object>> parents = new HashMap<>();
-        Map<Map<Variable, Object>, Action> plan = new HashMap<>();
-        parents.put(this.getInitialState(), null);
-        Map<Variable, Object> currentState;
-        while (!open.isEmpty()) {
-            currentState = open.poll();
+        StateLayout layout = this.getLayout();
+        SuccessorGenerator generator = this.getSuccessorGenerator();
+        Goal goal = this.getGoal();
+        PackedAssignment compiledGoal = goal instanceof BasicGoal ? PackedAssignment.compile(layout, goal.getGoal()) : null;
+        PackedState initialState = this.getPackedInitialState();
+        NodeStore store = new NodeStore(layout, this.getCompiledActions());
+        store.add(initialState.words(), initialState.getFingerprint(), -1, -1, 0);
+        long[] words = new long[layout.getWordCount()];
+        long[] undo = new long[layout.getWordCount()];
+        List<CompiledAction> applicable = new ArrayList<>();
+        // The states are stored in the order they are generated, so the store is the queue of the search
+        for (int current = 0; current < store.size(); current++) {
+            store.load(current, words);
+            long fingerprint = store.getFingerprint(current);
+            this.countExpansion(store.size());
             this.incrementProbe();
-            visited.add(currentState);
-            for (Action action : this.getActions()) {
-                if (action.isApplicable(currentState)) {
-                    Map<Variable, Object> successor = action.successor(currentState);
-                    if (!visited.contains(successor) && !open.contains(successor)) {
-                        this.incrementProbe();
-                        parents.put(successor, currentState);
-                        plan.put(successor, action);
-                        if (this.getGoal().isSatisfiedBy(successor)) {
-                            return BFSPlanner.getBfsPlan(parents, plan, successor);
-                        }
-                        open.add(successor);
-
+            applicable.clear();
+            generator.collect(words, applicable);
+            for (CompiledAction action : applicable) {
+                long successor = fingerprint ^ action.apply(words, undo);
+                if (store.find(words, successor) < 0) {
+                    this.incrementProbe();
+                    int id = store.add(words, successor, current, action.getId(), store.getCost(current) + 1);
+                    if (compiledGoal != null ? compiledGoal.matches(words)
+                            : goal.isSatisfiedBy(new PackedState(layout, words, successor))) {
+                        return store.getPlan(id);
                     }
                 }
+                action.undo(words, undo);
             }
         }
         return null;
     }
-
-
 }
@@ -93,6 +93,16 @@ public class BasicAction implements Action {
         return successor;
     }
 
+    @Override
+    public boolean isApplicable(PackedState state) {
+        return state.containsAll(this.precondition);
+    }
+
+    @Override
+    public PackedState successor(PackedState state) {
+        return state.with(this.effect);
+    }
+
 
     @Override
     public String toString() {
@@ -27,6 +27,11 @@ public class BasicGoal implements Goal {
      */
     private final Map<Variable, Object> goal;
 
+    /**
+     * The goal compiled against the layout of the last tested packed state
+     */
+    private PackedAssignment compiledGoal;
+
     /**
      * <b>
      * Constructor of the class
@@ -51,6 +56,16 @@ public class BasicGoal implements Goal {
         return assignment.entrySet().containsAll(this.goal.entrySet());
     }
 
+    @Override
+    public boolean isSatisfiedBy(PackedState state) {
+        PackedAssignment compiled = this.compiledGoal;
+        if (compiled == null || compiled.getLayout() != state.getLayout()) {
+            compiled = PackedAssignment.compile(state.getLayout(), this.goal);
+            this.compiledGoal = compiled;
+        }
+        return compiled.isSatisfiedBy(state);
+    }
+
     /**
      * Returns the goal
      *
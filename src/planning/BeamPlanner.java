@@ -3,6 +3,10 @@ package planning;
 import representation.Variable;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * <b>
@@ -11,9 +15,19 @@ import java.util.*;
  *
  * <p>
  * A beam search algorithm is an algorithm that solves a planning problem using an heuristic. <br>
- * It is a variant of the A* algorithm. <br>
- * The beam search algorithm uses a beam width to limit the number of states that are explored. <br>
- * Its particularity is that it does not use a priority queue to store the states to explore. <br>
+ * The search goes layer by layer: all the nodes of a layer are expanded, and only the
+ * <code>beamWidth</code> best successors, by f-value, form the next layer. The successors are
+ * selected with a bounded heap whose root is the worst selected node, so each successor costs at
+ * most <code>O(log beamWidth)</code>. <br>
+ * A state is never kept in two layers: the fingerprints of the kept states are stored in a set. A state
+ * reached by several nodes of a layer keeps its cheapest path before the best successors are selected. <br>
+ * </p>
+ *
+ * <p>
+ * The search is not complete, since the dropped successors are never expanded. With anytime widening,
+ * when a search fails the planner restarts with a beam twice as wide, up to a maximum width. <br>
+ * The nodes of a layer can also be expanded by several threads, which estimate the successors in
+ * parallel; the heuristic and the goal must then allow concurrent calls. <br>
  * </p>
  *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
@@ -29,6 +43,16 @@ public class BeamPlanner extends AStarPlanner {
      */
     private final int beamWidth;
 
+    /**
+     * The maximum beam width reached by anytime widening
+     */
+    private final int maxBeamWidth;
+
+    /**
+     * The number of threads expanding a layer
+     */
+    private final int nbThreads;
+
     /**
      * Constructor of the class BeamPlanner
      *
@@ -40,8 +64,29 @@ public class BeamPlanner extends AStarPlanner {
      */
     public BeamPlanner(Map<Variable, Object> initialState, Set<Action> actions,
                        Goal goal, Heuristic heuristic, int beamWidth) {
+        this(initialState, actions, goal, heuristic, beamWidth, beamWidth, 1);
+    }
+
+    /**
+     * Constructor of the class BeamPlanner with anytime widening and parallel expansion
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     * @param beamWidth    the beam width of the first search
+     * @param maxBeamWidth the maximum beam width, the width is doubled after each failed search
+     *                     until it exceeds this width
+     * @param nbThreads    the number of threads expanding a layer
+     * @throws IllegalArgumentException if a width or the number of threads is not positive
+     */
+    public BeamPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal,
+                       Heuristic heuristic, int beamWidth, int maxBeamWidth, int nbThreads) {
         super(initialState, actions, goal, heuristic);
+        BeamPlanner.check(beamWidth, maxBeamWidth, nbThreads);
         this.beamWidth = beamWidth;
+        this.maxBeamWidth = maxBeamWidth;
+        this.nbThreads = nbThreads;
     }
 
     /**
@@ -52,24 +97,316 @@ public class BeamPlanner extends AStarPlanner {
      * @param beamWidth the beam width
      */
     public BeamPlanner(PlanningProblem problem, Heuristic heuristic, int beamWidth) {
+        this(problem, heuristic, beamWidth, beamWidth, 1);
+    }
+
+    /**
+     * Constructor of the class BeamPlanner with anytime widening and parallel expansion
+     *
+     * @param problem      the problem
+     * @param heuristic    the heuristic
+     * @param beamWidth    the beam width of the first search
+     * @param maxBeamWidth the maximum beam width, the width is doubled after each failed search
+     *                     until it exceeds this width
+     * @param nbThreads    the number of threads expanding a layer
+     * @throws IllegalArgumentException if a width or the number of threads is not positive
+     */
+    public BeamPlanner(PlanningProblem problem, Heuristic heuristic, int beamWidth, int maxBeamWidth,
+                       int nbThreads) {
         super(problem, heuristic);
+        BeamPlanner.check(beamWidth, maxBeamWidth, nbThreads);
         this.beamWidth = beamWidth;
+        this.maxBeamWidth = maxBeamWidth;
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Checks the parameters of the planner
+     *
+     * @param beamWidth    the beam width of the first search
+     * @param maxBeamWidth the maximum beam width
+     * @param nbThreads    the number of threads expanding a layer
+     * @throws IllegalArgumentException if a width or the number of threads is not positive
+     */
+    private static void check(int beamWidth, int maxBeamWidth, int nbThreads) {
+        if (beamWidth <= 0 || maxBeamWidth <= 0) {
+            throw new IllegalArgumentException("The beam width must be positive");
+        }
+        if (nbThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+    }
+
+    /**
+     * Returns the beam width of the first search
+     *
+     * @return the beam width
+     */
+    public int getBeamWidth() {
+        return this.beamWidth;
+    }
+
+    /**
+     * Returns the maximum beam width reached by anytime widening
+     *
+     * @return the maximum beam width
+     */
+    public int getMaxBeamWidth() {
+        return this.maxBeamWidth;
+    }
+
+    /**
+     * Returns the number of threads expanding a layer
+     *
+     * @return the number of threads
+     */
+    public int getNbThreads() {
+        return this.nbThreads;
     }
 
     @Override
     public List<Action> plan() {
-        //Map des heuristiques
-        Map<Map<Variable, Object>, Float> heuristics = new HashMap<>();
-        heuristics.put(this.getInitialState(), this.getHeuristic().estimate(this.getInitialState()));
-
-        //Priority queue des états à explorer
-        PriorityQueue<Map<Variable, Object>> toExplore = new LimitedSizeQueue<>(this.beamWidth, Comparator.comparing(heuristics::get));
-        toExplore.add(this.getInitialState());
-        //Map des distances
-        Map<Map<Variable, Object>, Float> distances = new HashMap<>();
-        distances.put(this.getInitialState(), 0f);
-
-        return this.astarPlan(new HashMap<>(), new HashMap<>(), distances, heuristics, toExplore);
+        this.resetProbe();
+        PackedState initialState = this.getPackedInitialState();
+        if (this.getGoal().isSatisfiedBy(initialState)) {
+            return new ArrayList<>();
+        }
+        // Build the shared read-only structures before starting the threads
+        this.getSuccessorGenerator();
+        ExecutorService executor = this.nbThreads == 1 ? null : Executors.newFixedThreadPool(this.nbThreads);
+        try {
+            long width = this.beamWidth;
+            while (true) {
+                List<Action> plan = this.beamSearch(initialState, (int) width, executor);
+                if (plan != null || width >= this.maxBeamWidth) {
+                    return plan;
+                }
+                width = Math.min(2 * width, this.maxBeamWidth);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
     }
-}
 
+    /**
+     * <b>
+     * Runs a beam search with a given width
+     * </b>
+     *
+     * @param initialState the initial state
+     * @param width        the beam width
+     * @param executor     the threads expanding a layer, or null to expand it in the calling thread
+     * @return the plan found, or null if a layer runs out of nodes
+     */
+    private List<Action> beamSearch(PackedState initialState, int width, ExecutorService executor) {
+        LongHashSet kept = new LongHashSet();
+        kept.add(initialState.getFingerprint());
+        List<SearchNode> layer = new ArrayList<>();
+        layer.add(new SearchNode(initialState, null, null, 0, this.getHeuristic().estimate(initialState)));
+        Selection selection = new Selection(width);
+        // The cheapest node of each state of the layer, by fingerprint
+        Map<Long, SearchNode> generated = new LinkedHashMap<>();
+
+        while (!layer.isEmpty()) {
+            selection.clear();
+            generated.clear();
+            SearchNode goal = null;
+            for (List<SearchNode> successors : this.expand(layer, kept, executor)) {
+                for (SearchNode node : successors) {
+                    SearchNode known = generated.putIfAbsent(node.getState().getFingerprint(), node);
+                    if (known == null) {
+                        this.incrementProbe();
+                    } else if (node.getG() < known.getG()) {
+                        // A state reached by several nodes of the previous layer keeps its cheapest path
+                        generated.put(node.getState().getFingerprint(), node);
+                    }
+                }
+            }
+            for (SearchNode node : generated.values()) {
+                if (this.getGoal().isSatisfiedBy(node.getState())) {
+                    if (goal == null || node.getG() < goal.getG()) {
+                        goal = node;
+                    }
+                } else {
+                    selection.offer(node);
+                }
+            }
+            if (goal != null) {
+                return goal.getPlan();
+            }
+            layer = selection.toList();
+            for (SearchNode node : layer) {
+                kept.add(node.getState().getFingerprint());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Expands the nodes of a layer
+     *
+     * @param layer    the nodes of the layer
+     * @param kept     the fingerprints of the states of the previous layers (only read)
+     * @param executor the threads expanding the layer, or null to expand it in the calling thread
+     * @return the successors of the nodes, in one or more lists
+     */
+    private List<List<SearchNode>> expand(List<SearchNode> layer, LongHashSet kept, ExecutorService executor) {
+        if (executor == null || layer.size() < 2 * this.nbThreads) {
+            return Collections.singletonList(this.expand(layer, 0, layer.size(), kept));
+        }
+        List<Future<List<SearchNode>>> futures = new ArrayList<>(this.nbThreads);
+        int chunk = (layer.size() + this.nbThreads - 1) / this.nbThreads;
+        for (int start = 0; start < layer.size(); start += chunk) {
+            int from = start;
+            int to = Math.min(layer.size(), start + chunk);
+            futures.add(executor.submit(() -> this.expand(layer, from, to, kept)));
+        }
+        List<List<SearchNode>> successors = new ArrayList<>(futures.size());
+        try {
+            for (Future<List<SearchNode>> future : futures) {
+                successors.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The expansion of a layer was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SearchBudget.Stop) {
+                throw (SearchBudget.Stop) e.getCause();
+            }
+            throw new IllegalStateException("The expansion of a layer failed", e.getCause());
+        }
+        return successors;
+    }
+
+    /**
+     * Expands a part of the nodes of a layer
+     *
+     * @param layer the nodes of the layer
+     * @param from  the position of the first node to expand
+     * @param to    the position after the last node to expand
+     * @param kept  the fingerprints of the states of the previous layers (only read)
+     * @return the successors of the nodes that are not in a previous layer
+     */
+    private List<SearchNode> expand(List<SearchNode> layer, int from, int to, LongHashSet kept) {
+        List<SearchNode> successors = new ArrayList<>();
+        List<CompiledAction> actions = new ArrayList<>();
+        Heuristic heuristic = this.getHeuristic();
+        for (int i = from; i < to; i++) {
+            this.countExpansion(kept.size() + layer.size());
+            SearchNode current = layer.get(i);
+            PackedState currentState = current.getState();
+            actions.clear();
+            this.getSuccessorGenerator().collect(currentState, actions);
+            for (CompiledAction action : actions) {
+                PackedState successor = action.successor(currentState);
+                if (!kept.contains(successor.getFingerprint())) {
+                    successors.add(new SearchNode(successor, current, action.getAction(),
+                            current.getG() + action.getCost(),
+                            heuristic.estimateSuccessor(currentState, current.getH(), action.getAction(), successor)));
+                }
+            }
+        }
+        return successors;
+    }
+
+    /**
+     * <b>
+     * Bounded selection of the best nodes of a layer
+     * </b>
+     *
+     * <p>
+     * The selected nodes are stored in a binary heap whose root is the worst of them: a new node
+     * replaces the root if it is better, and is dropped otherwise. <br>
+     * A node is better than another if its f-value is lower, or if its f-value is equal and its
+     * g-value is higher. <br>
+     * </p>
+     */
+    private static final class Selection {
+
+        /**
+         * The selected nodes, the worst at the root
+         */
+        private final SearchNode[] heap;
+
+        /**
+         * The number of selected nodes
+         */
+        private int size;
+
+        /**
+         * Constructor of the selection
+         *
+         * @param width the maximum number of selected nodes
+         */
+        private Selection(int width) {
+            this.heap = new SearchNode[width];
+        }
+
+        /**
+         * Returns a boolean indicating if a node is worse than another
+         *
+         * @param a a node
+         * @param b another node
+         * @return true if the first node is worse than the second one
+         */
+        private static boolean isWorse(SearchNode a, SearchNode b) {
+            return a.getF() > b.getF() || (a.getF() == b.getF() && a.getG() < b.getG());
+        }
+
+        /**
+         * Offers a node to the selection
+         *
+         * @param node the node
+         */
+        private void offer(SearchNode node) {
+            if (this.size < this.heap.length) {
+                int i = this.size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!Selection.isWorse(node, this.heap[parent])) {
+                        break;
+                    }
+                    this.heap[i] = this.heap[parent];
+                    i = parent;
+                }
+                this.heap[i] = node;
+            } else if (Selection.isWorse(this.heap[0], node)) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= this.size) {
+                        break;
+                    }
+                    if (child + 1 < this.size && Selection.isWorse(this.heap[child + 1], this.heap[child])) {
+                        child++;
+                    }
+                    if (!Selection.isWorse(this.heap[child], node)) {
+                        break;
+                    }
+                    this.heap[i] = this.heap[child];
+                    i = child;
+                }
+                this.heap[i] = node;
+            }
+        }
+
+        /**
+         * Returns the selected nodes
+         *
+         * @return the list of the selected nodes
+         */
+        private List<SearchNode> toList() {
+            return new ArrayList<>(Arrays.asList(this.heap).subList(0, this.size));
+        }
+
+        /**
+         * Removes all the selected nodes
+         */
+        private void clear() {
+            Arrays.fill(this.heap, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+}
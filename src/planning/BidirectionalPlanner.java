@@ -0,0 +1,316 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using a bidirectional uniform-cost search
+ * </b>
+ *
+ * <p>
+ * When the goal is a full assignment, it is a single state, and the search can run from both ends:
+ * a forward search from the initial state and a backward search from the goal state, which meet in
+ * the middle. Each search only needs to reach about half the depth of the plan. <br>
+ * </p>
+ *
+ * <p>
+ * The backward search regresses the states through the basic actions: a state <code>s'</code> can be
+ * reached by an action from a state <code>s</code> if <code>s'</code> contains the effects of the action
+ * and agrees with the preconditions on the variables that the action does not change. Then
+ * <code>s</code> is <code>s'</code> with the preconditions written in, and any value for the variables
+ * changed by the action but absent from its preconditions. <br>
+ * The search alternates the direction with the smallest open list, and stops when the sum of the
+ * lowest costs of both open lists reaches the cost of the best meeting state, so the plan is optimal. <br>
+ * </p>
+ *
+ * <p>
+ * If the initial state or the goal is not a full assignment, or if an action is not a basic action,
+ * the planner falls back to a forward search ({@link DijkstraPlanner}). <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see DijkstraPlanner
+ */
+public class BidirectionalPlanner extends AbstractPlanner {
+
+    /**
+     * The index of the regressions of the actions, built on first use
+     */
+    private SuccessorGenerator regressionGenerator;
+
+    /**
+     * The variables of each action that are changed but absent from its preconditions, by action identifier
+     */
+    private int[][] freeVariables;
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     */
+    public BidirectionalPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal) {
+        super(initialState, actions, goal);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem the problem
+     */
+    public BidirectionalPlanner(PlanningProblem problem) {
+        super(problem);
+    }
+
+    /**
+     * <b>
+     * Returns the goal state of the problem
+     * </b>
+     *
+     * @return the packed goal state, or null if the goal is not a full assignment of the variables
+     * or the initial state is not a full assignment
+     */
+    public PackedState getGoalState() {
+        Goal goal = this.getGoal();
+        if (!(goal instanceof BasicGoal)) {
+            return null;
+        }
+        StateLayout layout = this.getLayout();
+        Map<Variable, Object> assignment = goal.getGoal();
+        PackedState initialState = this.getPackedInitialState();
+        for (int i = 0; i < layout.size(); i++) {
+            if (!assignment.containsKey(layout.getVariable(i)) || initialState.get(i) == 0) {
+                return null;
+            }
+        }
+        return layout.pack(assignment);
+    }
+
+    /**
+     * Returns a boolean indicating if all the actions of the problem are basic actions
+     *
+     * @return true if all the actions can be regressed
+     */
+    private boolean canRegress() {
+        for (CompiledAction action : this.getCompiledActions()) {
+            if (!action.isCompiled() || !action.getPrecondition().isSatisfiable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <b>
+     * Returns the index of the regressions of the actions
+     * </b>
+     *
+     * <p>
+     * The regression of an action is compiled as an action whose preconditions are the effects of the
+     * action plus its preconditions on the variables that it does not change, and whose effects are
+     * its preconditions. The variables changed by the action but absent from its preconditions are
+     * enumerated when a state is regressed. <br>
+     * </p>
+     *
+     * @return the successor generator of the regressions
+     */
+    private SuccessorGenerator getRegressionGenerator() {
+        if (this.regressionGenerator == null) {
+            StateLayout layout = this.getLayout();
+            CompiledAction[] actions = this.getCompiledActions();
+            CompiledAction[] regressions = new CompiledAction[actions.length];
+            this.freeVariables = new int[actions.length][];
+            for (CompiledAction action : actions) {
+                BasicAction basicAction = (BasicAction) action.getAction();
+                Map<Variable, Object> precondition = basicAction.getPrecondition() == null
+                        ? Collections.emptyMap() : basicAction.getPrecondition();
+                Map<Variable, Object> condition = new HashMap<>(basicAction.getEffect());
+                List<Integer> free = new ArrayList<>();
+                for (Map.Entry<Variable, Object> entry : precondition.entrySet()) {
+                    condition.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                for (Variable variable : basicAction.getEffect().keySet()) {
+                    if (!precondition.containsKey(variable)) {
+                        free.add(layout.indexOf(variable));
+                    }
+                }
+                int id = action.getId();
+                regressions[id] = new CompiledAction(layout, basicAction, id,
+                        PackedAssignment.compile(layout, condition), PackedAssignment.compile(layout, precondition));
+                this.freeVariables[id] = free.stream().mapToInt(Integer::intValue).toArray();
+            }
+            this.regressionGenerator = new SuccessorGenerator(layout, regressions);
+        }
+        return this.regressionGenerator;
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        PackedState goalState = this.getGoalState();
+        if (goalState == null || !this.canRegress()) {
+            DijkstraPlanner planner = new DijkstraPlanner(this.getInitialState(), this.getActions(), this.getGoal());
+            planner.setBudget(this.getBudget());
+            try {
+                return planner.plan();
+            } finally {
+                this.setProbe(planner.getProbe());
+            }
+        }
+
+        PackedState initialState = this.getPackedInitialState();
+        if (initialState.equals(goalState)) {
+            return new ArrayList<>();
+        }
+        Map<PackedState, SearchNode> forward = new HashMap<>();
+        Map<PackedState, SearchNode> backward = new HashMap<>();
+        IndexedHeap forwardOpen = new IndexedHeap();
+        IndexedHeap backwardOpen = new IndexedHeap();
+        SearchNode start = new SearchNode(initialState, null, null, 0, 0f);
+        SearchNode end = new SearchNode(goalState, null, null, 0, 0f);
+        forward.put(initialState, start);
+        backward.put(goalState, end);
+        forwardOpen.add(start);
+        backwardOpen.add(end);
+
+        Meeting meeting = new Meeting();
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
+            if ((long) forwardOpen.peek().getG() + backwardOpen.peek().getG() >= meeting.cost) {
+                break;
+            }
+            this.countExpansion(forward.size() + backward.size());
+            if (forwardOpen.size() <= backwardOpen.size()) {
+                this.expandForward(forwardOpen.poll(), forward, forwardOpen, backward, meeting);
+            } else {
+                this.expandBackward(backwardOpen.poll(), backward, backwardOpen, forward, meeting);
+            }
+        }
+        if (meeting.state == null) {
+            return null;
+        }
+
+        List<Action> plan = forward.get(meeting.state).getPlan();
+        for (SearchNode node = backward.get(meeting.state); node.getParent() != null; node = node.getParent()) {
+            plan.add(node.getAction());
+        }
+        return plan;
+    }
+
+    /**
+     * Expands a node of the forward search
+     *
+     * @param current  the node
+     * @param nodes    the nodes of the forward search
+     * @param open     the open list of the forward search
+     * @param opposite the nodes of the backward search
+     * @param meeting  the best meeting state
+     */
+    private void expandForward(SearchNode current, Map<PackedState, SearchNode> nodes, IndexedHeap open,
+                               Map<PackedState, SearchNode> opposite, Meeting meeting) {
+        PackedState currentState = current.getState();
+        for (CompiledAction action : this.getSuccessorGenerator().getApplicableActions(currentState)) {
+            this.relax(action.successor(currentState), current, action, nodes, open, opposite, meeting);
+        }
+    }
+
+    /**
+     * Expands a node of the backward search, regressing its state through the actions
+     *
+     * @param current  the node
+     * @param nodes    the nodes of the backward search
+     * @param open     the open list of the backward search
+     * @param opposite the nodes of the forward search
+     * @param meeting  the best meeting state
+     */
+    private void expandBackward(SearchNode current, Map<PackedState, SearchNode> nodes, IndexedHeap open,
+                                Map<PackedState, SearchNode> opposite, Meeting meeting) {
+        PackedState currentState = current.getState();
+        StateLayout layout = this.getLayout();
+        for (CompiledAction regression : this.getRegressionGenerator().getApplicableActions(currentState)) {
+            PackedState regressed = regression.successor(currentState);
+            long[] words = regressed.words().clone();
+            int[] free = this.freeVariables[regression.getId()];
+            int[] codes = new int[free.length];
+            Arrays.fill(codes, 1);
+            // Enumerate every value of the free variables (codes start at 1)
+            while (true) {
+                long fingerprint = regressed.getFingerprint();
+                for (int i = 0; i < free.length; i++) {
+                    fingerprint ^= layout.zobristKey(free[i], layout.read(regressed.words(), free[i]))
+                            ^ layout.zobristKey(free[i], codes[i]);
+                    layout.write(words, free[i], codes[i]);
+                }
+                this.relax(new PackedState(layout, words.clone(), fingerprint), current, regression, nodes, open,
+                        opposite, meeting);
+                int i = 0;
+                while (i < free.length && codes[i] == layout.getDomainSize(free[i])) {
+                    codes[i] = 1;
+                    i++;
+                }
+                if (i == free.length) {
+                    break;
+                }
+                codes[i]++;
+            }
+        }
+    }
+
+    /**
+     * Records a state reached from a node, and the meeting state if it is reached by the other search
+     *
+     * @param state    the state
+     * @param current  the node from which the state is reached
+     * @param action   the action between the node and the state
+     * @param nodes    the nodes of the search
+     * @param open     the open list of the search
+     * @param opposite the nodes of the other search
+     * @param meeting  the best meeting state
+     */
+    private void relax(PackedState state, SearchNode current, CompiledAction action,
+                       Map<PackedState, SearchNode> nodes, IndexedHeap open,
+                       Map<PackedState, SearchNode> opposite, Meeting meeting) {
+        int g = current.getG() + action.getCost();
+        SearchNode node = nodes.get(state);
+        if (node == null) {
+            this.incrementProbe();
+            node = new SearchNode(state, current, action.getAction(), g, 0f);
+            nodes.put(state, node);
+            open.add(node);
+        } else if (g < node.getG()) {
+            node.reparent(current, action.getAction(), g);
+            open.add(node);
+        } else {
+            return;
+        }
+        SearchNode other = opposite.get(state);
+        if (other != null && (long) g + other.getG() < meeting.cost) {
+            meeting.cost = (long) g + other.getG();
+            meeting.state = state;
+        }
+    }
+
+    /**
+     * <b>
+     * Best state reached by both searches
+     * </b>
+     */
+    private static final class Meeting {
+
+        /**
+         * The cost of the best plan through a meeting state
+         */
+        private long cost = Long.MAX_VALUE;
+
+        /**
+         * The best meeting state (null if the searches have not met)
+         */
+        private PackedState state;
+    }
+}
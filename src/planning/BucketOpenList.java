@@ -0,0 +1,174 @@
+package planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <b>
+ * Class representing an open list stored in buckets of integer f-values
+ * </b>
+ *
+ * <p>
+ * This is a Dial queue: the key of a node is the floor of its f-value, and each key has a bucket
+ * (a stack of nodes). The list keeps the smallest key that may hold a node, so adding and
+ * polling a node are <code>O(1)</code> amortized when the keys are small integers, which is
+ * the case of action costs of a few units and integer heuristics. <br>
+ * </p>
+ *
+ * <p>
+ * Updating a node uses lazy deletion: the node is pushed in the bucket of its new key and
+ * remembers this key, its entry in the old bucket is skipped when it is reached. <br>
+ * Inside a bucket, the last node added is polled first, which favors the deepest nodes. <br>
+ * </p>
+ *
+ * <p>
+ * A node whose f-value is infinite (a dead end for the heuristic) can never lead to the goal, so it is
+ * not stored. The keys are bounded by {@link #MAX_KEY}, since each key up to the largest one has a bucket. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see IndexedHeap
+ */
+public class BucketOpenList implements OpenList {
+
+    /**
+     * The largest key of a node (larger f-values must use a heap, see {@link IndexedHeap})
+     */
+    public static final int MAX_KEY = 1 << 20;
+
+    /**
+     * The buckets of the nodes, by key
+     */
+    private final List<SearchNode[]> buckets = new ArrayList<>();
+
+    /**
+     * The number of entries (current or stale) of each bucket
+     */
+    private int[] bucketSizes = new int[16];
+
+    /**
+     * The smallest key whose bucket may hold a node
+     */
+    private int minKey;
+
+    /**
+     * The number of nodes of the open list
+     */
+    private int size;
+
+    /**
+     * Returns the key of a node
+     *
+     * @param node the node
+     * @return the floor of the f-value of the node, at least 0
+     */
+    private static int keyOf(SearchNode node) {
+        return Math.max(0, (int) Math.floor(node.getF()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * A node with an infinite f-value is not added (and is removed if it was in the open list). <br>
+     * </p>
+     *
+     * @throws IllegalArgumentException if the f-value of the node is finite and greater than {@link #MAX_KEY}
+     */
+    @Override
+    public boolean add(SearchNode node) {
+        if (node.getF() == Float.POSITIVE_INFINITY) {
+            if (node.index >= 0) {
+                // Its entry in its bucket becomes stale
+                node.index = -1;
+                this.size--;
+            }
+            return false;
+        }
+        int key = BucketOpenList.keyOf(node);
+        if (key > BucketOpenList.MAX_KEY) {
+            throw new IllegalArgumentException("The f-value " + node.getF() + " is too large for a bucket open list");
+        }
+        if (node.index == key) {
+            return true;
+        }
+        if (node.index < 0) {
+            this.size++;
+        }
+        // The entry of the node in its old bucket (if any) becomes stale
+        node.index = key;
+        this.push(key, node);
+        if (key < this.minKey) {
+            this.minKey = key;
+        }
+        return true;
+    }
+
+    @Override
+    public SearchNode poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        while (true) {
+            while (this.minKey >= this.buckets.size() || this.bucketSizes[this.minKey] == 0) {
+                this.minKey++;
+            }
+            SearchNode[] bucket = this.buckets.get(this.minKey);
+            int last = --this.bucketSizes[this.minKey];
+            SearchNode node = bucket[last];
+            bucket[last] = null;
+            if (node.index == this.minKey) {
+                node.index = -1;
+                this.size--;
+                return node;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        for (int key = 0; key < this.buckets.size(); key++) {
+            SearchNode[] bucket = this.buckets.get(key);
+            for (int i = 0; i < this.bucketSizes[key]; i++) {
+                bucket[i].index = -1;
+                bucket[i] = null;
+            }
+            this.bucketSizes[key] = 0;
+        }
+        this.minKey = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Pushes an entry in a bucket, creating the bucket if needed
+     *
+     * @param key  the key of the bucket
+     * @param node the node
+     */
+    private void push(int key, SearchNode node) {
+        while (this.buckets.size() <= key) {
+            this.buckets.add(new SearchNode[8]);
+        }
+        if (key >= this.bucketSizes.length) {
+            this.bucketSizes = Arrays.copyOf(this.bucketSizes, Math.max(key + 1, 2 * this.bucketSizes.length));
+        }
+        SearchNode[] bucket = this.buckets.get(key);
+        int size = this.bucketSizes[key];
+        if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, 2 * size);
+            this.buckets.set(key, bucket);
+        }
+        bucket[size] = node;
+        this.bucketSizes[key] = size + 1;
+    }
+}
@@ -0,0 +1,209 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.Map;
+
+/**
+ * <b>
+ * Class representing a bounded cache of the estimates of an heuristic
+ * </b>
+ *
+ * <p>
+ * The estimates of the packed states are stored in a table indexed by the fingerprint of the states,
+ * so a state that is reached again is not estimated again. It suits the heuristics that are expensive
+ * to compute, such as the relaxed plans or the pattern databases with several patterns. <br>
+ * The table has a fixed number of slots: each fingerprint has a single slot, and a new estimate
+ * replaces the one stored in its slot. The table stores primitive values only. <br>
+ * </p>
+ *
+ * <p>
+ * A slot holds the estimate and the fingerprint xored with the estimate, so that a slot written by
+ * two threads at once can only be read as a miss: the cache can be used by a parallel planner
+ * without locks. <br>
+ * The cache is bound to the layout of the states it stores, and is emptied when a state of another
+ * layout is estimated. The estimates of the states given as maps are not cached. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PackedState#getFingerprint()
+ */
+public class CachedHeuristic implements Heuristic {
+
+    /**
+     * The marker of an occupied slot, in the high bits of the stored estimate
+     */
+    private static final long OCCUPIED = 1L << 32;
+
+    /**
+     * The cached heuristic
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * The number of slots of the table
+     */
+    private final int capacity;
+
+    /**
+     * The table of the current layout
+     */
+    private volatile Table table;
+
+    /**
+     * Constructor of the class
+     *
+     * @param heuristic the heuristic to cache
+     * @param capacity  the number of estimates stored (rounded up to a power of two)
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public CachedHeuristic(Heuristic heuristic, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.heuristic = heuristic;
+        int slots = 1;
+        while (slots < capacity && slots < (1 << 30)) {
+            slots <<= 1;
+        }
+        this.capacity = slots;
+    }
+
+    /**
+     * Returns the cached heuristic
+     *
+     * @return the cached heuristic
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns the number of slots of the table
+     *
+     * @return the maximum number of estimates stored
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the table of a layout, replacing the current table if it belongs to another layout
+     *
+     * @param layout the layout
+     * @return the table of the layout
+     */
+    private Table getTable(StateLayout layout) {
+        Table table = this.table;
+        if (table == null || table.layout != layout) {
+            table = new Table(layout, this.capacity);
+            this.table = table;
+        }
+        return table;
+    }
+
+    @Override
+    public float estimate(Map<Variable, Object> state) {
+        return this.heuristic.estimate(state);
+    }
+
+    @Override
+    public float estimate(PackedState state) {
+        Table table = this.getTable(state.getLayout());
+        long fingerprint = state.getFingerprint();
+        long value = table.lookup(fingerprint);
+        if (value != 0L) {
+            return Float.intBitsToFloat((int) value);
+        }
+        float estimate = this.heuristic.estimate(state);
+        table.store(fingerprint, estimate);
+        return estimate;
+    }
+
+    @Override
+    public float estimateSuccessor(PackedState parent, float parentValue, Action action, PackedState successor) {
+        Table table = this.getTable(successor.getLayout());
+        long fingerprint = successor.getFingerprint();
+        long value = table.lookup(fingerprint);
+        if (value != 0L) {
+            return Float.intBitsToFloat((int) value);
+        }
+        float estimate = this.heuristic.estimateSuccessor(parent, parentValue, action, successor);
+        table.store(fingerprint, estimate);
+        return estimate;
+    }
+
+    /**
+     * <b>
+     * Slots of the estimates of the states of a layout
+     * </b>
+     */
+    private static final class Table {
+
+        /**
+         * The layout of the states
+         */
+        private final StateLayout layout;
+
+        /**
+         * The fingerprint of the state of each slot, xored with its estimate
+         */
+        private final long[] keys;
+
+        /**
+         * The bits of the estimate of each slot, with the {@link CachedHeuristic#OCCUPIED} marker (0 for an empty slot)
+         */
+        private final long[] values;
+
+        /**
+         * Constructor of the table
+         *
+         * @param layout   the layout of the states
+         * @param capacity the number of slots (a power of two)
+         */
+        private Table(StateLayout layout, int capacity) {
+            this.layout = layout;
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        /**
+         * Returns the slot of a fingerprint
+         *
+         * @param fingerprint the fingerprint of a state
+         * @return the slot of the fingerprint
+         */
+        private int slotOf(long fingerprint) {
+            return (int) (fingerprint ^ (fingerprint >>> 32)) & (this.keys.length - 1);
+        }
+
+        /**
+         * Returns the estimate stored for a fingerprint
+         *
+         * @param fingerprint the fingerprint of a state
+         * @return the bits of the estimate with the {@link CachedHeuristic#OCCUPIED} marker, 0 if the state is not stored
+         */
+        private long lookup(long fingerprint) {
+            int slot = this.slotOf(fingerprint);
+            long value = this.values[slot];
+            return (value & CachedHeuristic.OCCUPIED) != 0 && (this.keys[slot] ^ value) == fingerprint ? value : 0L;
+        }
+
+        /**
+         * Stores an estimate in the slot of a fingerprint
+         *
+         * @param fingerprint the fingerprint of the state
+         * @param estimate    the estimate of the state
+         */
+        private void store(long fingerprint, float estimate) {
+            int slot = this.slotOf(fingerprint);
+            long value = (Float.floatToIntBits(estimate) & 0xFFFFFFFFL) | CachedHeuristic.OCCUPIED;
+            this.keys[slot] = fingerprint ^ value;
+            this.values[slot] = value;
+        }
+    }
+}
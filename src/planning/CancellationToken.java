@@ -0,0 +1,43 @@
+package planning;
+
+/**
+ * <b>
+ * Class representing a token used to cancel a running planner
+ * </b>
+ *
+ * <p>
+ * The token is given to a planner through a {@link PlanningRequest}. Any thread can cancel it: the
+ * planner checks it regularly in its main loop, stops, and returns a {@link PlanResult} with the
+ * status {@link PlanResult.Status#CANCELLED}. <br>
+ * A token can be shared by several requests, which are all cancelled at once. It cannot be reset. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public final class CancellationToken {
+
+    /**
+     * A boolean indicating if the token is cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the token
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Returns a boolean indicating if the token is cancelled
+     *
+     * @return true if the token is cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+}
@@ -0,0 +1,213 @@
+package planning;
+
+/**
+ * <b>
+ * Class representing an action compiled against a state layout
+ * </b>
+ *
+ * <p>
+ * A compiled action wraps an action with an integer identifier, its cost and, for a basic action,
+ * its preconditions and effects compiled into bit masks. <br>
+ * Testing if a compiled basic action is applicable is a few mask compares, and its successor
+ * is an array copy followed by a masked write. <br>
+ * Other actions are delegated to their packed state methods. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see ActionCompiler
+ */
+public final class CompiledAction {
+
+    /**
+     * The layout against which the action is compiled
+     */
+    private final StateLayout layout;
+
+    /**
+     * The compiled action
+     */
+    private final Action action;
+
+    /**
+     * The identifier of the action
+     */
+    private final int id;
+
+    /**
+     * The cost of the action
+     */
+    private final int cost;
+
+    /**
+     * The compiled preconditions (null if the action is not a basic action)
+     */
+    private final PackedAssignment precondition;
+
+    /**
+     * The compiled effects (null if the action is not a basic action)
+     */
+    private final PackedAssignment effect;
+
+    /**
+     * Package-private constructor of the class (use an {@link ActionCompiler})
+     *
+     * @param layout       the layout against which the action is compiled
+     * @param action       the action
+     * @param id           the identifier of the action
+     * @param precondition the compiled preconditions (null if the action is not a basic action)
+     * @param effect       the compiled effects (null if the action is not a basic action)
+     */
+    CompiledAction(StateLayout layout, Action action, int id, PackedAssignment precondition, PackedAssignment effect) {
+        this.layout = layout;
+        this.action = action;
+        this.id = id;
+        this.cost = action.getCost();
+        this.precondition = precondition;
+        this.effect = effect;
+    }
+
+    /**
+     * Returns the compiled action
+     *
+     * @return the compiled action
+     */
+    public Action getAction() {
+        return this.action;
+    }
+
+    /**
+     * Returns the identifier of the action
+     *
+     * @return the identifier of the action
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the cost of the action
+     *
+     * @return the cost of the action
+     */
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * Returns a boolean indicating if the action is a compiled basic action
+     *
+     * @return true if the preconditions and the effects of the action are compiled
+     */
+    public boolean isCompiled() {
+        return this.precondition != null;
+    }
+
+    /**
+     * Returns the compiled preconditions of the action
+     *
+     * @return the compiled preconditions, or null if the action is not a basic action
+     */
+    public PackedAssignment getPrecondition() {
+        return this.precondition;
+    }
+
+    /**
+     * Returns the compiled effects of the action
+     *
+     * @return the compiled effects, or null if the action is not a basic action
+     */
+    public PackedAssignment getEffect() {
+        return this.effect;
+    }
+
+    /**
+     * Returns a boolean indicating if the action can be performed by a packed state
+     *
+     * @param state the packed state to test
+     * @return true if the action can be performed by the state
+     */
+    public boolean isApplicable(PackedState state) {
+        if (this.precondition == null) {
+            return this.action.isApplicable(state);
+        }
+        return this.precondition.matches(state.words());
+    }
+
+    /**
+     * Returns the new packed state after performing the action
+     *
+     * @param state the packed state on which the action is performed
+     *              (the state must satisfy the preconditions)
+     * @return the new packed state after performing the action
+     */
+    public PackedState successor(PackedState state) {
+        if (this.effect == null) {
+            return this.action.successor(state);
+        }
+        return this.effect.applyTo(state);
+    }
+
+    /**
+     * Returns a boolean indicating if the action can be performed by packed words
+     *
+     * @param words the packed words of a state of the layout of the action
+     * @return true if the action can be performed by the state
+     */
+    boolean isApplicable(long[] words) {
+        if (this.precondition == null) {
+            return this.action.isApplicable(new PackedState(this.layout, words));
+        }
+        return this.precondition.matches(words);
+    }
+
+    /**
+     * <b>
+     * Performs the action in place on packed words
+     * </b>
+     *
+     * <p>
+     * The bits overwritten by the action are saved in <code>undo</code>, so that
+     * {@link #undo(long[], long[])} restores the words. <br>
+     * </p>
+     *
+     * @param words the packed words (the state must satisfy the preconditions)
+     * @param undo  the undo record, at least as long as the words
+     * @return the value to xor with the fingerprint of the words to get the fingerprint of the successor
+     */
+    long apply(long[] words, long[] undo) {
+        if (this.effect == null) {
+            System.arraycopy(words, 0, undo, 0, words.length);
+            PackedState state = new PackedState(this.layout, undo.clone());
+            PackedState successor = this.action.successor(state);
+            System.arraycopy(successor.words(), 0, words, 0, words.length);
+            return state.getFingerprint() ^ successor.getFingerprint();
+        }
+        long delta = this.effect.fingerprintDelta(words);
+        this.effect.save(words, undo);
+        this.effect.writeTo(words);
+        return delta;
+    }
+
+    /**
+     * Reverts the action performed in place by {@link #apply(long[], long[])}
+     *
+     * @param words the packed words
+     * @param undo  the undo record filled when the action was performed
+     */
+    void undo(long[] words, long[] undo) {
+        if (this.effect == null) {
+            System.arraycopy(undo, 0, words, 0, words.length);
+        } else {
+            this.effect.restore(words, undo);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledAction [id=" + this.id + ", action=" + this.action + "]";
+    }
+}
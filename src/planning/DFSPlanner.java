@@ -17,6 +17,17 @@ import java.util.*;
  * The depth-first search algorithm is implemented by the method <code>plan()</code>
  * </p>
  *
+ * <p>
+ * The search is iterative: the path is stored in an explicit stack, so a deep plan cannot overflow
+ * the call stack. A single state is updated in place by the actions and restored from their undo
+ * records when the search backtracks, so the main loop allocates nothing. <br>
+ * Without depth limit, the visited states are never visited again. With a depth limit, the paths
+ * longer than the limit are cut and only the states of the current path are avoided, so a state
+ * reached again by a shorter path is explored again. With iterative deepening, depth-limited
+ * searches are run with a limit increased by one each time, which finds a plan with the fewest
+ * actions. <br>
+ * </p>
+ *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
  * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
  * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
@@ -25,51 +36,336 @@ import java.util.*;
  */
 public class DFSPlanner extends AbstractPlanner {
 
+    /**
+     * The depth limit of a search without limit
+     */
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of actions of a plan
+     */
+    private final int maxDepth;
+
+    /**
+     * True if depth-limited searches are run with an increasing limit, up to the maximum depth
+     */
+    private final boolean iterativeDeepening;
 
+    /**
+     * Constructor of the class, without depth limit
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     */
     public DFSPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal) {
+        this(initialState, actions, goal, DFSPlanner.UNLIMITED_DEPTH, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState       the initial state
+     * @param actions            the set of actions
+     * @param goal               the goal
+     * @param maxDepth           the maximum number of actions of a plan, or {@link #UNLIMITED_DEPTH}
+     * @param iterativeDeepening true to run depth-limited searches with an increasing limit, up to the maximum depth
+     * @throws IllegalArgumentException if the maximum depth is negative
+     */
+    public DFSPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal, int maxDepth,
+                      boolean iterativeDeepening) {
         super(initialState, actions, goal);
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("The maximum depth cannot be negative");
+        }
+        this.maxDepth = maxDepth;
+        this.iterativeDeepening = iterativeDeepening;
     }
 
+    /**
+     * Constructor of the class, without depth limit
+     *
+     * @param problem the problem
+     */
     public DFSPlanner(PlanningProblem problem) {
-        super(problem);
+        this(problem, DFSPlanner.UNLIMITED_DEPTH, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem            the problem
+     * @param maxDepth           the maximum number of actions of a plan, or {@link #UNLIMITED_DEPTH}
+     * @param iterativeDeepening true to run depth-limited searches with an increasing limit, up to the maximum depth
+     * @throws IllegalArgumentException if the maximum depth is negative
+     */
+    public DFSPlanner(PlanningProblem problem, int maxDepth, boolean iterativeDeepening) {
+        this(problem.getInitialState(), problem.getActions(), problem.getGoal(), maxDepth, iterativeDeepening);
+    }
+
+    /**
+     * Returns the maximum number of actions of a plan
+     *
+     * @return the maximum depth, or {@link #UNLIMITED_DEPTH}
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Returns a boolean indicating if iterative deepening is used
+     *
+     * @return true if depth-limited searches are run with an increasing limit
+     */
+    public boolean isIterativeDeepening() {
+        return this.iterativeDeepening;
     }
 
     @Override
     public List<Action> plan() {
         this.resetProbe();
-        return this.dfsRec(this.getInitialState(), new ArrayList<>(), new HashSet<>());
+        Search search = new Search();
+        if (!this.iterativeDeepening) {
+            return search.run(this.maxDepth);
+        }
+        for (int limit = 0; limit <= this.maxDepth; limit++) {
+            List<Action> plan = search.run(limit);
+            if (plan != null || !search.cutoff) {
+                // Without cut path, a deeper search would explore the same states
+                return plan;
+            }
+        }
+        return null;
     }
 
     /**
-     * Recursive method that implements the depth-first search algorithm
-     *
-     * @param currentState the current state
-     * @param plan         the plan
-     * @param visited      the set of visited states
-     * @return the plan that is a sequence of actions that leads from the initial state to a state that satisfies the goal
+     * <b>
+     * Depth-first search on a single state updated in place
+     * </b>
      */
-    private List<Action> dfsRec(Map<Variable, Object> currentState, List<Action> plan,
-                                Set<Map<Variable, Object>> visited) {
-        if (this.getGoal().isSatisfiedBy(currentState)) {
-            return plan;
+    private final class Search {
+
+        /**
+         * The layout of the states
+         */
+        private final StateLayout layout = DFSPlanner.this.getLayout();
+
+        /**
+         * The index of the applicable actions
+         */
+        private final SuccessorGenerator generator = DFSPlanner.this.getSuccessorGenerator();
+
+        /**
+         * The compiled goal, or null if the goal is not a basic goal
+         */
+        private final PackedAssignment goal;
+
+        /**
+         * The number of words of a state
+         */
+        private final int wordCount = this.layout.getWordCount();
+
+        /**
+         * The initial state
+         */
+        private final PackedState initialState;
+
+        /**
+         * The current state
+         */
+        private final long[] words;
+
+        /**
+         * The fingerprints of the visited states (used without depth limit)
+         */
+        private final LongHashSet visited = new LongHashSet();
+
+        /**
+         * The applicable actions of the state at each depth
+         */
+        private final List<List<CompiledAction>> successors = new ArrayList<>();
+
+        /**
+         * The position of the next action to try at each depth
+         */
+        private int[] cursors = new int[16];
+
+        /**
+         * The action performed at each depth
+         */
+        private CompiledAction[] applied = new CompiledAction[16];
+
+        /**
+         * The undo record of the action performed at each depth
+         */
+        private long[][] undo = new long[16][];
+
+        /**
+         * The states of the current path, one after the other (used with a depth limit)
+         */
+        private long[] path;
+
+        /**
+         * The fingerprint of the current state, updated with each action
+         */
+        private long fingerprint;
+
+        /**
+         * The fingerprint of the states of the current path
+         */
+        private long[] pathFingerprints = new long[16];
+
+        /**
+         * True if the last search cut a path at the depth limit
+         */
+        private boolean cutoff;
+
+        /**
+         * Constructor of the search
+         */
+        private Search() {
+            Goal goal = DFSPlanner.this.getGoal();
+            this.goal = goal instanceof BasicGoal ? PackedAssignment.compile(this.layout, goal.getGoal()) : null;
+            this.initialState = DFSPlanner.this.getPackedInitialState();
+            this.words = this.initialState.words().clone();
+            this.path = new long[16 * Math.max(1, this.wordCount)];
         }
-        visited.add(currentState);
-        this.incrementProbe();
-        for (Action action : this.getActions()) {
-            if (action.isApplicable(currentState)) {
-                Map<Variable, Object> nextState = action.successor(currentState);
-                if (!visited.contains(nextState)) {
-                    visited.add(nextState);
-                    plan.add(action);
-                    List<Action> result = this.dfsRec(nextState, plan, visited);
-                    if (result != null) {
-                        return result;
+
+        /**
+         * Returns a boolean indicating if the current state satisfies the goal
+         *
+         * @return true if the current state satisfies the goal
+         */
+        private boolean isGoal() {
+            if (this.goal != null) {
+                return this.goal.matches(this.words);
+            }
+            return DFSPlanner.this.getGoal().isSatisfiedBy(new PackedState(this.layout, this.words, this.fingerprint));
+        }
+
+        /**
+         * <b>
+         * Runs a depth-first search from the initial state
+         * </b>
+         *
+         * @param limit the maximum number of actions of a plan, or {@link #UNLIMITED_DEPTH} to never visit a state twice
+         * @return the plan found, or null if no plan is found within the limit
+         */
+        private List<Action> run(int limit) {
+            boolean limited = limit != DFSPlanner.UNLIMITED_DEPTH;
+            System.arraycopy(this.initialState.words(), 0, this.words, 0, this.wordCount);
+            this.fingerprint = this.initialState.getFingerprint();
+            this.visited.clear();
+            this.cutoff = false;
+            if (this.isGoal()) {
+                return new ArrayList<>();
+            }
+            int depth = 0;
+            this.visited.add(this.fingerprint);
+            this.enter(0, limited);
+            while (true) {
+                List<CompiledAction> actions = this.successors.get(depth);
+                if (this.cursors[depth] == actions.size()) {
+                    // Backtrack
+                    if (depth == 0) {
+                        return null;
+                    }
+                    depth--;
+                    this.applied[depth].undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
+                }
+                CompiledAction action = actions.get(this.cursors[depth]++);
+                this.fingerprint ^= action.apply(this.words, this.undo[depth]);
+                boolean known = limited ? this.isOnPath(depth) : !this.visited.add(this.fingerprint);
+                if (known) {
+                    action.undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
+                }
+                this.applied[depth] = action;
+                depth++;
+                if (this.isGoal()) {
+                    List<Action> plan = new ArrayList<>(depth);
+                    for (int i = 0; i < depth; i++) {
+                        plan.add(this.applied[i].getAction());
                     }
-                    plan.remove(action);
+                    return plan;
+                }
+                if (depth >= limit) {
+                    // The path is cut, the state is not expanded
+                    this.cutoff = true;
+                    depth--;
+                    action.undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
                 }
+                this.enter(depth, limited);
             }
         }
-        return null;
-    }
 
+        /**
+         * Pushes the current state on the stack and collects its applicable actions
+         *
+         * @param depth   the depth of the state
+         * @param limited true if the state must be stored to check the path
+         */
+        private void enter(int depth, boolean limited) {
+            DFSPlanner.this.countExpansion(this.visited.size() + depth + 1);
+            DFSPlanner.this.incrementProbe();
+            if (depth == this.cursors.length) {
+                int capacity = 2 * depth;
+                this.cursors = Arrays.copyOf(this.cursors, capacity);
+                this.applied = Arrays.copyOf(this.applied, capacity);
+                this.undo = Arrays.copyOf(this.undo, capacity);
+                this.pathFingerprints = Arrays.copyOf(this.pathFingerprints, capacity);
+                if (limited) {
+                    this.path = Arrays.copyOf(this.path, capacity * Math.max(1, this.wordCount));
+                }
+            }
+            if (depth == this.successors.size()) {
+                this.successors.add(new ArrayList<>());
+                this.undo[depth] = new long[this.wordCount];
+            }
+            List<CompiledAction> actions = this.successors.get(depth);
+            actions.clear();
+            this.generator.collect(this.words, actions);
+            this.cursors[depth] = 0;
+            this.pathFingerprints[depth] = this.fingerprint;
+            if (limited) {
+                System.arraycopy(this.words, 0, this.path, depth * this.wordCount, this.wordCount);
+            }
+        }
+
+        /**
+         * Returns a boolean indicating if the current state is already on the path
+         *
+         * @param depth the depth of the parent of the current state
+         * @return true if the current state is one of the states of the path
+         */
+        private boolean isOnPath(int depth) {
+            for (int d = depth; d >= 0; d--) {
+                if (this.pathFingerprints[d] == this.fingerprint && this.equalsPath(d)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns a boolean indicating if the current state is the state of the path at a given depth
+         *
+         * @param depth the depth
+         * @return true if the states are equal
+         */
+        private boolean equalsPath(int depth) {
+            int offset = depth * this.wordCount;
+            for (int i = 0; i < this.wordCount; i++) {
+                if (this.path[offset + i] != this.words[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -16,71 +16,283 @@ import java.util.*;
  */
 public class DijkstraPlanner extends AbstractPlanner {
 
+    /**
+     * Boolean that if we will use a bucket open list instead of a binary heap
+     */
+    private final boolean useBuckets;
+
     public DijkstraPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal) {
+        this(initialState, actions, goal, false);
+    }
+
+    /**
+     * Constructeur avec le choix de la liste ouverte
+     *
+     * @param initialState l'état initial
+     * @param actions      l'ensemble des actions
+     * @param goal         le but
+     * @param useBuckets   true pour utiliser une liste ouverte à buckets (coûts entiers, distances jusqu'à
+     *                     {@link BucketOpenList#MAX_KEY}) au lieu d'un tas binaire
+     */
+    public DijkstraPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal, boolean useBuckets) {
         super(initialState, actions, goal);
+        this.useBuckets = useBuckets;
     }
 
     public DijkstraPlanner(PlanningProblem problem) {
-        super(problem);
+        this(problem, false);
     }
 
     /**
-     * Returns plan using Dijkstra algorithm
+     * Constructeur avec le choix de la liste ouverte
      *
-     * @param father a map of the father of each state
-     * @param plan   a map of the action to do to reach each state
-     * @param goals
+     * @param problem    le problème
+     * @param useBuckets true pour utiliser une liste ouverte à buckets (coûts entiers, distances jusqu'à
+     *                   {@link BucketOpenList#MAX_KEY}) au lieu d'un tas binaire
      */
-    private static List<Action> getDijkstraPlan(Map<Map<Variable, Object>, Map<Variable, Object>> father,
-                                                Map<Map<Variable, Object>, Action> plan, Queue<Map<Variable, Object>> goals) {
-        LinkedList<Action> actions = new LinkedList<>();
-        Map<Variable, Object> current = goals.poll();
-        while (father.get(current) != null) {
-            actions.addFirst(plan.get(current));
-            current = father.get(current);
-        }
-        return actions;
+    public DijkstraPlanner(PlanningProblem problem, boolean useBuckets) {
+        super(problem);
+        this.useBuckets = useBuckets;
     }
 
+    /**
+     * <b>
+     * Returns plan using Dijkstra algorithm
+     * </b>
+     *
+     * <p>
+     * The states are expanded by increasing distance from the initial state, so the first goal
+     * state that is expanded is reached by a plan of minimal cost and the search stops there. <br>
+     * The generated states are kept in a {@link NodeStore}, which holds their distance, their parent
+     * and the action that reached them in primitive columns, and the open list holds the identifiers
+     * of the states with their distance. When a shorter path to a state is found, the state is added
+     * again to the open list and its old entry is skipped when it is polled. <br>
+     * </p>
+     */
     @Override
     public List<Action> plan() {
-        Map<Map<Variable, Object>, Map<Variable, Object>> father = new HashMap<>();
-        Map<Map<Variable, Object>, Action> plan = new HashMap<>();
-        Map<Map<Variable, Object>, Float> distance = new HashMap<>();
-        PriorityQueue<Map<Variable, Object>> open = new PriorityQueue<>(Comparator.comparing(distance::get));
-        PriorityQueue<Map<Variable, Object>> goals = new PriorityQueue<>(Comparator.comparing(distance::get));
         this.resetProbe();
-        father.put(this.getInitialState(), null);
-        distance.put(this.getInitialState(), 0f);
-        open.add(this.getInitialState());
-        Map<Variable, Object> currentState;
+        StateLayout layout = this.getLayout();
+        SuccessorGenerator generator = this.getSuccessorGenerator();
+        Goal goal = this.getGoal();
+        PackedAssignment compiledGoal = goal instanceof BasicGoal ? PackedAssignment.compile(layout, goal.getGoal()) : null;
+        PackedState initialState = this.getPackedInitialState();
+        NodeStore store = new NodeStore(layout, this.getCompiledActions());
+        DistanceQueue open = this.useBuckets ? new DistanceBuckets() : new DistanceHeap();
+        open.add(store.add(initialState.words(), initialState.getFingerprint(), -1, -1, 0), 0);
+        long[] words = new long[layout.getWordCount()];
+        long[] undo = new long[layout.getWordCount()];
+        List<CompiledAction> applicable = new ArrayList<>();
         while (!open.isEmpty()) {
-            currentState = open.poll();
-            if (this.getGoal().isSatisfiedBy(currentState)) {
-                goals.add(currentState);
+            long entry = open.poll();
+            int current = (int) entry;
+            int distance = (int) (entry >>> 32);
+            if (distance != store.getCost(current)) {
+                // A shorter path to the state was found after this entry was added
+                continue;
             }
-            for (Action action : this.getActions()) {
-                if (action.isApplicable(currentState)) {
-                    Map<Variable, Object> newState = action.successor(currentState);
-                    distance.computeIfAbsent(newState, (k) -> {
-                        this.incrementProbe();
-                        return Float.POSITIVE_INFINITY;
-                    });
-                    Float newDistance = distance.get(currentState) + action.getCost();
-                    if (distance.get(newState) > newDistance) {
-                        distance.put(newState, newDistance);
-                        father.put(newState, currentState);
-                        plan.put(newState, action);
-                        open.add(newState);
-                    }
+            store.load(current, words);
+            long fingerprint = store.getFingerprint(current);
+            if (compiledGoal != null ? compiledGoal.matches(words)
+                    : goal.isSatisfiedBy(new PackedState(layout, words, fingerprint))) {
+                return store.getPlan(current);
+            }
+            this.countExpansion(store.size());
+            applicable.clear();
+            generator.collect(words, applicable);
+            for (CompiledAction action : applicable) {
+                long successor = fingerprint ^ action.apply(words, undo);
+                int newDistance = distance + action.getCost();
+                int node = store.find(words, successor);
+                if (node < 0) {
+                    this.incrementProbe();
+                    open.add(store.add(words, successor, current, action.getId(), newDistance), newDistance);
+                } else if (newDistance < store.getCost(node)) {
+                    store.reparent(node, current, action.getId(), newDistance);
+                    open.add(node, newDistance);
                 }
+                action.undo(words, undo);
             }
         }
-        if (goals.isEmpty()) {
-            return null;
+        return null;
+    }
+
+    /**
+     * <b>
+     * Interface representing the open list of the search, which holds identifiers of states by distance
+     * </b>
+     *
+     * <p>
+     * An entry is a <code>long</code> holding the distance in its high half and the identifier of the
+     * state in its low half. <br>
+     * </p>
+     */
+    private interface DistanceQueue {
+
+        /**
+         * Adds an entry
+         *
+         * @param id       the identifier of the state
+         * @param distance the distance of the state (not negative)
+         */
+        void add(int id, int distance);
+
+        /**
+         * Removes and returns the entry with the lowest distance
+         *
+         * @return the entry with the lowest distance
+         */
+        long poll();
+
+        /**
+         * Returns a boolean indicating if the open list is empty
+         *
+         * @return true if the open list is empty
+         */
+        boolean isEmpty();
+    }
+
+    /**
+     * <b>
+     * Open list stored in a binary heap of entries
+     * </b>
+     */
+    private static final class DistanceHeap implements DistanceQueue {
+
+        /**
+         * The entries of the heap
+         */
+        private long[] heap = new long[1024];
+
+        /**
+         * The number of entries of the heap
+         */
+        private int size;
+
+        @Override
+        public void add(int id, int distance) {
+            if (this.size == this.heap.length) {
+                this.heap = Arrays.copyOf(this.heap, 2 * this.size);
+            }
+            long entry = ((long) distance << 32) | (id & 0xFFFFFFFFL);
+            int i = this.size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (this.heap[parent] <= entry) {
+                    break;
+                }
+                this.heap[i] = this.heap[parent];
+                i = parent;
+            }
+            this.heap[i] = entry;
         }
-        return DijkstraPlanner.getDijkstraPlan(father, plan, goals);
 
+        @Override
+        public long poll() {
+            long first = this.heap[0];
+            long entry = this.heap[--this.size];
+            int i = 0;
+            int half = this.size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                    child++;
+                }
+                if (entry <= this.heap[child]) {
+                    break;
+                }
+                this.heap[i] = this.heap[child];
+                i = child;
+            }
+            this.heap[i] = entry;
+            return first;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
     }
 
+    /**
+     * <b>
+     * Open list stored in buckets of distances (Dial queue)
+     * </b>
+     *
+     * <p>
+     * Each distance has a stack of identifiers, and the smallest distance that may hold an entry is
+     * kept, so adding and polling an entry are <code>O(1)</code> amortized when the action costs are
+     * small integers (see {@link BucketOpenList}). <br>
+     * Like the keys of a {@link BucketOpenList}, the distances are bounded by {@link BucketOpenList#MAX_KEY},
+     * since each distance up to the largest one has a bucket. <br>
+     * </p>
+     */
+    private static final class DistanceBuckets implements DistanceQueue {
+
+        /**
+         * The identifiers of each bucket, by distance
+         */
+        private final List<int[]> buckets = new ArrayList<>();
+
+        /**
+         * The number of identifiers of each bucket
+         */
+        private int[] bucketSizes = new int[16];
+
+        /**
+         * The smallest distance whose bucket may hold an entry
+         */
+        private int minDistance;
+
+        /**
+         * The number of entries
+         */
+        private int size;
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalArgumentException if the distance is greater than {@link BucketOpenList#MAX_KEY}
+         */
+        @Override
+        public void add(int id, int distance) {
+            if (distance > BucketOpenList.MAX_KEY) {
+                throw new IllegalArgumentException("The distance " + distance + " is too large for a bucket open list");
+            }
+            while (this.buckets.size() <= distance) {
+                this.buckets.add(new int[8]);
+            }
+            if (distance >= this.bucketSizes.length) {
+                this.bucketSizes = Arrays.copyOf(this.bucketSizes,
+                        Math.max(distance + 1, 2 * this.bucketSizes.length));
+            }
+            int[] bucket = this.buckets.get(distance);
+            int size = this.bucketSizes[distance];
+            if (size == bucket.length) {
+                bucket = Arrays.copyOf(bucket, 2 * size);
+                this.buckets.set(distance, bucket);
+            }
+            bucket[size] = id;
+            this.bucketSizes[distance] = size + 1;
+            if (distance < this.minDistance) {
+                this.minDistance = distance;
+            }
+            this.size++;
+        }
+
+        @Override
+        public long poll() {
+            while (this.bucketSizes[this.minDistance] == 0) {
+                this.minDistance++;
+            }
+            int id = this.buckets.get(this.minDistance)[--this.bucketSizes[this.minDistance]];
+            this.size--;
+            return ((long) this.minDistance << 32) | (id & 0xFFFFFFFFL);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+    }
 }
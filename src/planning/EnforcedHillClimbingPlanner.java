@@ -0,0 +1,284 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using the enforced hill-climbing algorithm
+ * </b>
+ *
+ * <p>
+ * Enforced hill-climbing commits to a state at each step: from the current state, a breadth-first
+ * search looks for the closest state with a strictly lower heuristic estimate, which becomes the
+ * current state. The breadth-first search escapes the plateaus and the local minima of the
+ * heuristic. It ignores the costs of the actions and does not find optimal plans. <br>
+ * With preferred operators, given by a {@link PreferredOperatorsHeuristic}, the breadth-first search
+ * only follows the preferred operators of each state, and follows all the actions only if this fails.
+ * The preferred operators of a state are found by the same call to the heuristic as its estimate. <br>
+ * </p>
+ *
+ * <p>
+ * Enforced hill-climbing is incomplete: it fails when the breadth-first search runs out of states,
+ * such as in a dead end. The planner then falls back to a {@link GreedyBestFirstPlanner}. <br>
+ * The breadth-first search is also stopped on large plateaus, which are common when some actions
+ * cost nothing (the estimate does not decrease when they are performed): after
+ * {@link #PLATEAU_LIMIT} expansions, the greedy best-first search starts from the current state, and
+ * from the initial state if it fails. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public class EnforcedHillClimbingPlanner extends AbstractPlanner {
+
+    /**
+     * The maximum number of expansions of a breadth-first search
+     */
+    public static final int PLATEAU_LIMIT = 10000;
+
+    /**
+     * The heuristic
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * True if the breadth-first searches first follow the preferred operators only
+     */
+    private final boolean usePreferred;
+
+    /**
+     * Constructor of the class, without preferred operators
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     */
+    public EnforcedHillClimbingPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                                       Goal goal, Heuristic heuristic) {
+        this(initialState, actions, goal, heuristic, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     * @param usePreferred true to follow the preferred operators only, before all the actions
+     *                     (ignored if the heuristic is not a {@link PreferredOperatorsHeuristic})
+     */
+    public EnforcedHillClimbingPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal,
+                                       Heuristic heuristic, boolean usePreferred) {
+        super(initialState, actions, goal);
+        this.heuristic = heuristic;
+        this.usePreferred = usePreferred && heuristic instanceof PreferredOperatorsHeuristic;
+    }
+
+    /**
+     * Constructor of the class, without preferred operators
+     *
+     * @param problem   the problem
+     * @param heuristic the heuristic
+     */
+    public EnforcedHillClimbingPlanner(PlanningProblem problem, Heuristic heuristic) {
+        this(problem, heuristic, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem      the problem
+     * @param heuristic    the heuristic
+     * @param usePreferred true to follow the preferred operators only, before all the actions
+     *                     (ignored if the heuristic is not a {@link PreferredOperatorsHeuristic})
+     */
+    public EnforcedHillClimbingPlanner(PlanningProblem problem, Heuristic heuristic, boolean usePreferred) {
+        this(problem.getInitialState(), problem.getActions(), problem.getGoal(), heuristic, usePreferred);
+    }
+
+    /**
+     * Returns the heuristic
+     *
+     * @return the heuristic
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns a boolean indicating if the preferred operators are used
+     *
+     * @return true if the breadth-first searches first follow the preferred operators only
+     */
+    public boolean usesPreferredOperators() {
+        return this.usePreferred;
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        PackedState initialState = this.getPackedInitialState();
+        Set<Action> initialPreferred = this.usePreferred ? new HashSet<>() : null;
+        Candidate current = new Candidate(new SearchNode(initialState, null, null, 0,
+                this.evaluate(initialState, initialPreferred)), initialPreferred);
+        while (!this.getGoal().isSatisfiedBy(current.node.getState())) {
+            if (current.node.getH() == Float.POSITIVE_INFINITY) {
+                return this.fallBack(null);
+            }
+            if (this.usePreferred && current.preferred == null) {
+                // The state was reached by following all the actions, its preferred operators are not known yet
+                Set<Action> preferred = new HashSet<>();
+                this.evaluate(current.node.getState(), preferred);
+                current = new Candidate(current.node, preferred);
+            }
+            Candidate better = this.usePreferred ? this.improve(current, true) : null;
+            if (better == null) {
+                better = this.improve(current, false);
+            }
+            if (better == null) {
+                return this.fallBack(current.node);
+            }
+            current = better;
+        }
+        return current.node.getPlan();
+    }
+
+    /**
+     * <b>
+     * Searches breadth-first the closest state with a lower estimate than a given state
+     * </b>
+     *
+     * @param start         the state, with its preferred operators if they are used
+     * @param preferredOnly true to follow only the preferred operators of the states
+     * @return a goal state or a state with a lower estimate, or null if none is found
+     */
+    private Candidate improve(Candidate start, boolean preferredOnly) {
+        ArrayDeque<Candidate> queue = new ArrayDeque<>();
+        LongHashSet seen = new LongHashSet();
+        List<CompiledAction> actions = new ArrayList<>();
+        queue.add(start);
+        seen.add(start.node.getState().getFingerprint());
+        for (int expansions = 0; !queue.isEmpty() && expansions < EnforcedHillClimbingPlanner.PLATEAU_LIMIT;
+             expansions++) {
+            Candidate candidate = queue.poll();
+            SearchNode current = candidate.node;
+            PackedState currentState = current.getState();
+            this.countExpansion(seen.size());
+            actions.clear();
+            this.getSuccessorGenerator().collect(currentState, actions);
+            for (CompiledAction action : actions) {
+                if (preferredOnly && !candidate.preferred.contains(action.getAction())) {
+                    continue;
+                }
+                PackedState newState = action.successor(currentState);
+                if (!seen.add(newState.getFingerprint())) {
+                    continue;
+                }
+                this.incrementProbe();
+                // The preferred operators of the successor are only needed if the search follows them
+                Set<Action> preferred = preferredOnly ? new HashSet<>() : null;
+                float h = preferredOnly ? this.evaluate(newState, preferred)
+                        : this.heuristic.estimateSuccessor(currentState, current.getH(), action.getAction(), newState);
+                SearchNode node = new SearchNode(newState, current, action.getAction(),
+                        current.getG() + action.getCost(), h);
+                if (node.getH() < start.node.getH() || this.getGoal().isSatisfiedBy(newState)) {
+                    return new Candidate(node, preferred);
+                }
+                if (node.getH() != Float.POSITIVE_INFINITY) {
+                    queue.add(new Candidate(node, preferred));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <b>
+     * Estimates a state and finds its preferred operators
+     * </b>
+     *
+     * @param state     the state
+     * @param preferred the set in which the preferred operators are added, or null if they are not needed
+     * @return the estimate of the state
+     */
+    private float evaluate(PackedState state, Set<Action> preferred) {
+        if (preferred == null) {
+            return this.heuristic.estimate(state);
+        }
+        return ((PreferredOperatorsHeuristic) this.heuristic).estimate(state, preferred);
+    }
+
+    /**
+     * <b>
+     * Searches a plan with a greedy best-first search
+     * </b>
+     *
+     * @param current the node of the state reached by the hill-climbing, or null to start from the initial state
+     * @return the plan found, or null if there is none
+     */
+    private List<Action> fallBack(SearchNode current) {
+        if (current != null && current.getParent() != null) {
+            List<Action> suffix = this.greedyPlan(current.getState().asMap());
+            if (suffix != null) {
+                List<Action> plan = current.getPlan();
+                plan.addAll(suffix);
+                return plan;
+            }
+        }
+        return this.greedyPlan(this.getInitialState());
+    }
+
+    /**
+     * Searches a plan from a state with a greedy best-first search
+     *
+     * @param state the state
+     * @return the plan found, or null if there is none
+     */
+    private List<Action> greedyPlan(Map<Variable, Object> state) {
+        GreedyBestFirstPlanner planner = new GreedyBestFirstPlanner(state, this.getActions(), this.getGoal(),
+                this.heuristic, false, this.usePreferred);
+        planner.setBudget(this.getBudget());
+        int probe = this.getProbe();
+        try {
+            return planner.plan();
+        } finally {
+            this.setProbe(probe + planner.getProbe());
+        }
+    }
+
+    /**
+     * <b>
+     * State reached by the hill-climbing, with its preferred operators
+     * </b>
+     */
+    private static final class Candidate {
+
+        /**
+         * The node of the state
+         */
+        private final SearchNode node;
+
+        /**
+         * The preferred operators of the state, or null if they are not known
+         */
+        private final Set<Action> preferred;
+
+        /**
+         * Constructor of the candidate
+         *
+         * @param node      the node of the state
+         * @param preferred the preferred operators of the state, or null if they are not known
+         */
+        private Candidate(SearchNode node, Set<Action> preferred) {
+            this.node = node;
+            this.preferred = preferred;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package planning;
+
+import java.util.Set;
+
+/**
+ * <b>
+ * Class representing the FF heuristic (cost of a relaxed plan)
+ * </b>
+ *
+ * <p>
+ * The costs of the facts are computed as for h_add, which gives for each fact the action that
+ * reached it at the lowest cost. A relaxed plan is then extracted backward from the goal facts,
+ * by selecting the best achiever of each needed fact and needing its preconditions in turn. <br>
+ * The estimate is the cost of the relaxed plan: an action needed by several facts is counted once,
+ * so it does not overcount like h_add. It is not admissible. <br>
+ * The actions of the relaxed plan whose preconditions all hold in the state are its helpful actions,
+ * which are its preferred operators. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see RelaxationHeuristic
+ * @see HAddHeuristic
+ */
+public class FFHeuristic extends RelaxationHeuristic implements PreferredOperatorsHeuristic {
+
+    /**
+     * Constructor of the class
+     *
+     * @param actions the actions of the problem
+     * @param goal    the goal
+     */
+    public FFHeuristic(Set<Action> actions, Goal goal) {
+        super(actions, goal, true);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem the problem
+     */
+    public FFHeuristic(PlanningProblem problem) {
+        this(problem.getActions(), problem.getGoal());
+    }
+
+    @Override
+    public float estimate(PackedState state, Set<Action> preferred) {
+        return super.estimate(state, preferred);
+    }
+
+    @Override
+    float value(FactGraph graph, Workspace workspace) {
+        int stamp = workspace.stamp;
+        int[] stack = workspace.stack;
+        int top = 0;
+        for (int fact : graph.goalFacts) {
+            workspace.factMark[fact] = stamp;
+            stack[top++] = fact;
+        }
+        float cost = 0;
+        while (top > 0) {
+            int action = workspace.achiever[stack[--top]];
+            if (action < 0 || workspace.actionMark[action] == stamp) {
+                // A fact of the state, or an action already in the relaxed plan
+                continue;
+            }
+            workspace.actionMark[action] = stamp;
+            cost += graph.actionCost[action];
+            boolean helpful = true;
+            for (int i = graph.preconditionStart[action]; i < graph.preconditionStart[action + 1]; i++) {
+                int fact = graph.preconditions[i];
+                // Only the facts of the state have no achiever
+                helpful &= workspace.achiever[fact] < 0;
+                if (workspace.factMark[fact] != stamp) {
+                    workspace.factMark[fact] = stamp;
+                    stack[top++] = fact;
+                }
+            }
+            if (helpful && workspace.preferred != null) {
+                workspace.preferred.add(graph.actions[action]);
+            }
+        }
+        return cost;
+    }
+}
@@ -36,6 +36,22 @@ public interface Goal {
      */
     boolean isSatisfiedBy(Map<Variable, Object> assignment);
 
+    /**
+     * <b>
+     * Return a boolean indicating if the goal is reached by a packed state
+     * </b>
+     *
+     * <p>
+     * By default, the goal is tested on the map view of the state.
+     * </p>
+     *
+     * @param state the packed state to test
+     * @return true if the goal is reached by the state
+     */
+    default boolean isSatisfiedBy(PackedState state) {
+        return this.isSatisfiedBy(state.asMap());
+    }
+
     /**
      * <b>
      * Returns the goal
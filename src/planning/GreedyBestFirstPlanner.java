@@ -0,0 +1,337 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using the greedy best-first search algorithm
+ * </b>
+ *
+ * <p>
+ * A greedy best-first search expands the state with the lowest heuristic estimate first, ignoring
+ * the cost of the path that reached it. It does not find optimal plans, but it usually finds a plan
+ * after far fewer expansions than A*. A state is only reached once: its first path is kept. <br>
+ * </p>
+ *
+ * <p>
+ * With deferred evaluation, the successors of a state are not estimated when they are generated:
+ * they are ordered by the estimate of their parent, and only the states that are expanded are
+ * estimated. This saves most of the evaluations when the heuristic is expensive. <br>
+ * With preferred operators, given by a {@link PreferredOperatorsHeuristic}, the successors reached
+ * by a preferred operator are also put in a second open list. The two open lists are expanded in
+ * turn, and the preferred one is favored for a while each time a state with a better estimate is
+ * found. With eager evaluation, the preferred operators of a state are found by the same call to the
+ * heuristic as its estimate, when it is generated, and are kept with it in the open lists. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public class GreedyBestFirstPlanner extends AbstractPlanner {
+
+    /**
+     * The number of expansions during which the preferred open list is favored after a progress
+     */
+    private static final int BOOST = 1000;
+
+    /**
+     * The heuristic
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * True if the states are estimated when they are expanded instead of when they are generated
+     */
+    private final boolean deferred;
+
+    /**
+     * True if the successors reached by a preferred operator are expanded first
+     */
+    private final boolean usePreferred;
+
+    /**
+     * Constructor of the class, with eager evaluation and without preferred operators
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     */
+    public GreedyBestFirstPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                                  Goal goal, Heuristic heuristic) {
+        this(initialState, actions, goal, heuristic, false, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     * @param deferred     true to estimate the states when they are expanded instead of when they are generated
+     * @param usePreferred true to expand first the successors reached by a preferred operator
+     *                     (ignored if the heuristic is not a {@link PreferredOperatorsHeuristic})
+     */
+    public GreedyBestFirstPlanner(Map<Variable, Object> initialState, Set<Action> actions, Goal goal,
+                                  Heuristic heuristic, boolean deferred, boolean usePreferred) {
+        super(initialState, actions, goal);
+        this.heuristic = heuristic;
+        this.deferred = deferred;
+        this.usePreferred = usePreferred && heuristic instanceof PreferredOperatorsHeuristic;
+    }
+
+    /**
+     * Constructor of the class, with eager evaluation and without preferred operators
+     *
+     * @param problem   the problem
+     * @param heuristic the heuristic
+     */
+    public GreedyBestFirstPlanner(PlanningProblem problem, Heuristic heuristic) {
+        this(problem, heuristic, false, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem      the problem
+     * @param heuristic    the heuristic
+     * @param deferred     true to estimate the states when they are expanded instead of when they are generated
+     * @param usePreferred true to expand first the successors reached by a preferred operator
+     *                     (ignored if the heuristic is not a {@link PreferredOperatorsHeuristic})
+     */
+    public GreedyBestFirstPlanner(PlanningProblem problem, Heuristic heuristic, boolean deferred,
+                                  boolean usePreferred) {
+        this(problem.getInitialState(), problem.getActions(), problem.getGoal(), heuristic, deferred,
+                usePreferred);
+    }
+
+    /**
+     * Returns the heuristic
+     *
+     * @return the heuristic
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns a boolean indicating if the evaluation of the states is deferred
+     *
+     * @return true if the states are estimated when they are expanded
+     */
+    public boolean isDeferred() {
+        return this.deferred;
+    }
+
+    /**
+     * Returns a boolean indicating if the preferred operators are used
+     *
+     * @return true if the successors reached by a preferred operator are expanded first
+     */
+    public boolean usesPreferredOperators() {
+        return this.usePreferred;
+    }
+
+    /**
+     * <b>
+     * Estimates a state and finds its preferred operators
+     * </b>
+     *
+     * @param state     the state
+     * @param preferred the set in which the preferred operators are added, or null if they are not needed
+     * @return the estimate of the state
+     */
+    private float evaluate(PackedState state, Set<Action> preferred) {
+        if (preferred == null) {
+            return this.heuristic.estimate(state);
+        }
+        return ((PreferredOperatorsHeuristic) this.heuristic).estimate(state, preferred);
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        PackedState initialState = this.getPackedInitialState();
+        if (this.getGoal().isSatisfiedBy(initialState)) {
+            return new ArrayList<>();
+        }
+        OpenQueue open = new OpenQueue();
+        OpenQueue preferredOpen = new OpenQueue();
+        LongHashSet seen = new LongHashSet();
+        LongHashSet expanded = new LongHashSet();
+        // With deferred evaluation, the preferred operators of the expanded state are found in this set
+        Set<Action> deferredPreferred = this.usePreferred && this.deferred ? new HashSet<>() : null;
+        List<CompiledAction> actions = new ArrayList<>();
+
+        Set<Action> initialPreferred = this.usePreferred && !this.deferred ? new HashSet<>() : null;
+        float initialEstimate = this.deferred ? 0 : this.evaluate(initialState, initialPreferred);
+        if (initialEstimate == Float.POSITIVE_INFINITY) {
+            return null;
+        }
+        seen.add(initialState.getFingerprint());
+        open.add(new SearchNode(initialState, null, null, 0, initialEstimate), initialPreferred);
+        float best = Float.POSITIVE_INFINITY;
+        int boost = 0;
+        boolean turn = false;
+
+        while (!open.isEmpty() || !preferredOpen.isEmpty()) {
+            // The preferred open list is used every other expansion, or always while it is boosted
+            boolean fromPreferred = !preferredOpen.isEmpty() && (open.isEmpty() || boost > 0 || turn);
+            turn = !turn;
+            if (boost > 0) {
+                boost--;
+            }
+            OpenQueue.Entry entry = fromPreferred ? preferredOpen.poll() : open.poll();
+            SearchNode current = entry.node;
+            PackedState currentState = current.getState();
+            if (!expanded.add(currentState.getFingerprint())) {
+                continue;
+            }
+            this.countExpansion(seen.size());
+            float estimate = current.getH();
+            Set<Action> preferred = entry.preferred;
+            if (this.deferred) {
+                if (deferredPreferred != null) {
+                    deferredPreferred.clear();
+                }
+                preferred = deferredPreferred;
+                estimate = this.evaluate(currentState, preferred);
+                if (estimate == Float.POSITIVE_INFINITY) {
+                    continue;
+                }
+            }
+            if (estimate < best) {
+                best = estimate;
+                boost = GreedyBestFirstPlanner.BOOST;
+            }
+
+            actions.clear();
+            this.getSuccessorGenerator().collect(currentState, actions);
+            for (CompiledAction action : actions) {
+                PackedState newState = action.successor(currentState);
+                if (!seen.add(newState.getFingerprint())) {
+                    continue;
+                }
+                this.incrementProbe();
+                // With deferred evaluation, a node holds the estimate of its parent until it is expanded
+                Set<Action> newPreferred = null;
+                float h;
+                if (this.deferred) {
+                    h = estimate;
+                } else if (this.usePreferred) {
+                    newPreferred = new HashSet<>();
+                    h = this.evaluate(newState, newPreferred);
+                } else {
+                    h = this.heuristic.estimateSuccessor(currentState, estimate, action.getAction(), newState);
+                }
+                SearchNode node = new SearchNode(newState, current, action.getAction(),
+                        current.getG() + action.getCost(), h);
+                if (this.getGoal().isSatisfiedBy(newState)) {
+                    return node.getPlan();
+                }
+                if (h == Float.POSITIVE_INFINITY) {
+                    continue;
+                }
+                open.add(node, newPreferred);
+                if (preferred != null && preferred.contains(action.getAction())) {
+                    preferredOpen.add(node, newPreferred);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <b>
+     * Open list ordered by heuristic estimate, breaking ties in favor of the oldest node
+     * </b>
+     */
+    static final class OpenQueue {
+
+        /**
+         * The entries of the open list
+         */
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+        /**
+         * The number of nodes added so far
+         */
+        private long order;
+
+        /**
+         * Adds a node
+         *
+         * @param node      the node
+         * @param preferred the preferred operators of the state of the node, or null if they are not known
+         */
+        void add(SearchNode node, Set<Action> preferred) {
+            this.queue.add(new Entry(node, preferred, this.order++));
+        }
+
+        /**
+         * Removes and returns the entry of the node with the lowest estimate
+         *
+         * @return the entry of the node with the lowest estimate, or null if the open list is empty
+         */
+        Entry poll() {
+            return this.queue.poll();
+        }
+
+        /**
+         * Returns a boolean indicating if the open list is empty
+         *
+         * @return true if the open list is empty
+         */
+        boolean isEmpty() {
+            return this.queue.isEmpty();
+        }
+
+        /**
+         * <b>
+         * Node of the open list with its preferred operators and its order of insertion
+         * </b>
+         */
+        static final class Entry implements Comparable<Entry> {
+
+            /**
+             * The node
+             */
+            private final SearchNode node;
+
+            /**
+             * The preferred operators of the state of the node, or null if they are not known
+             */
+            private final Set<Action> preferred;
+
+            /**
+             * The order of insertion of the node
+             */
+            private final long order;
+
+            /**
+             * Constructor of the entry
+             *
+             * @param node      the node
+             * @param preferred the preferred operators of the state of the node, or null if they are not known
+             * @param order     the order of insertion of the node
+             */
+            private Entry(SearchNode node, Set<Action> preferred, long order) {
+                this.node = node;
+                this.preferred = preferred;
+                this.order = order;
+            }
+
+            @Override
+            public int compareTo(Entry other) {
+                int byEstimate = Float.compare(this.node.getH(), other.node.getH());
+                return byEstimate != 0 ? byEstimate : Long.compare(this.order, other.order);
+            }
+        }
+    }
+}
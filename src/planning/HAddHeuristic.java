@@ -0,0 +1,54 @@
+package planning;
+
+import java.util.Set;
+
+/**
+ * <b>
+ * Class representing the h_add heuristic
+ * </b>
+ *
+ * <p>
+ * The cost of an action in the relaxation is its cost plus the sum of the costs of its preconditions,
+ * and the estimate is the sum of the costs of the goal facts, as if the goal facts were reached
+ * independently. <br>
+ * It is not admissible, since the cost of an action shared by several facts is counted several
+ * times, but it is much better informed than h_max and suits greedy or weighted searches. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see RelaxationHeuristic
+ */
+public class HAddHeuristic extends RelaxationHeuristic {
+
+    /**
+     * Constructor of the class
+     *
+     * @param actions the actions of the problem
+     * @param goal    the goal
+     */
+    public HAddHeuristic(Set<Action> actions, Goal goal) {
+        super(actions, goal, true);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem the problem
+     */
+    public HAddHeuristic(PlanningProblem problem) {
+        this(problem.getActions(), problem.getGoal());
+    }
+
+    @Override
+    float value(FactGraph graph, Workspace workspace) {
+        float sum = 0;
+        for (int fact : graph.goalFacts) {
+            sum += workspace.factCost[fact];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,54 @@
+package planning;
+
+import java.util.Set;
+
+/**
+ * <b>
+ * Class representing the h_max heuristic
+ * </b>
+ *
+ * <p>
+ * The cost of an action in the relaxation is its cost plus the highest cost of its preconditions,
+ * and the estimate is the highest cost of the goal facts: it is the cost of the most expensive
+ * goal fact, each taken separately. <br>
+ * It is admissible, so an A* search with this heuristic finds an optimal plan, but it is often
+ * much lower than the real cost. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see RelaxationHeuristic
+ */
+public class HMaxHeuristic extends RelaxationHeuristic {
+
+    /**
+     * Constructor of the class
+     *
+     * @param actions the actions of the problem
+     * @param goal    the goal
+     */
+    public HMaxHeuristic(Set<Action> actions, Goal goal) {
+        super(actions, goal, false);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem the problem
+     */
+    public HMaxHeuristic(PlanningProblem problem) {
+        this(problem.getActions(), problem.getGoal());
+    }
+
+    @Override
+    float value(FactGraph graph, Workspace workspace) {
+        int max = 0;
+        for (int fact : graph.goalFacts) {
+            max = Math.max(max, workspace.factCost[fact]);
+        }
+        return max;
+    }
+}
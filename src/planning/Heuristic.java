@@ -30,4 +30,41 @@ public interface Heuristic {
      * @return the estimated cost of the path from the state to the goal
      */
     float estimate(Map<Variable, Object> state);
+
+    /**
+     * <b>
+     * Returns the estimated cost of the path from a packed state to the goal
+     * </b>
+     *
+     * <p>
+     * By default, the estimation is done on the map view of the state.
+     * </p>
+     *
+     * @param state the packed state
+     * @return the estimated cost of the path from the state to the goal
+     */
+    default float estimate(PackedState state) {
+        return this.estimate(state.asMap());
+    }
+
+    /**
+     * <b>
+     * Returns the estimated cost of the path from the successor of a state to the goal
+     * </b>
+     *
+     * <p>
+     * This is the method called by the planners for each successor they generate, knowing the estimate
+     * of its parent. By default, the successor is estimated from scratch; an {@link IncrementalHeuristic}
+     * updates the estimate of the parent instead.
+     * </p>
+     *
+     * @param parent      the state on which the action is performed
+     * @param parentValue the estimate of the state
+     * @param action      the action performed
+     * @param successor   the new state after performing the action
+     * @return the estimated cost of the path from the successor to the goal
+     */
+    default float estimateSuccessor(PackedState parent, float parentValue, Action action, PackedState successor) {
+        return this.estimate(successor);
+    }
 }
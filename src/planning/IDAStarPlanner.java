@@ -0,0 +1,406 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using the IDA* algorithm (Iterative Deepening A*)
+ * </b>
+ *
+ * <p>
+ * IDA* runs successive depth-first searches bounded by a threshold on the f-value. The first
+ * threshold is the estimate of the initial state, and each search raises it to the smallest
+ * f-value that exceeded it, until a goal is reached. <br>
+ * Only the current path is stored: the state is a single <code>long[]</code> on which the actions
+ * are performed in place and reverted on backtrack, and the depth-first search uses an explicit
+ * stack instead of recursion. <br>
+ * </p>
+ *
+ * <p>
+ * The states of the current path are never revisited. A bounded transposition table can also be
+ * used to prune the states already reached by a path that is not more expensive during the same
+ * search; when it is full, the least recently used states are forgotten. <br>
+ * With an admissible heuristic, the plan found is optimal. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see AStarPlanner
+ */
+public class IDAStarPlanner extends AbstractPlanner {
+
+    /**
+     * The heuristic
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * The maximum number of states of the transposition table (0 if no table is used)
+     */
+    private final int transpositionTableSize;
+
+    /**
+     * Constructor of the class without transposition table
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     */
+    public IDAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                          Goal goal, Heuristic heuristic) {
+        this(initialState, actions, goal, heuristic, 0);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState           the initial state
+     * @param actions                the set of actions
+     * @param goal                   the goal
+     * @param heuristic              the heuristic
+     * @param transpositionTableSize the maximum number of states of the transposition table (0 for no table)
+     * @throws IllegalArgumentException if the size of the transposition table is negative
+     */
+    public IDAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                          Goal goal, Heuristic heuristic, int transpositionTableSize) {
+        super(initialState, actions, goal);
+        if (transpositionTableSize < 0) {
+            throw new IllegalArgumentException("The size of the transposition table cannot be negative");
+        }
+        this.heuristic = heuristic;
+        this.transpositionTableSize = transpositionTableSize;
+    }
+
+    /**
+     * Constructor of the class without transposition table
+     *
+     * @param problem   the problem
+     * @param heuristic the heuristic
+     */
+    public IDAStarPlanner(PlanningProblem problem, Heuristic heuristic) {
+        this(problem, heuristic, 0);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem                the problem
+     * @param heuristic              the heuristic
+     * @param transpositionTableSize the maximum number of states of the transposition table (0 for no table)
+     * @throws IllegalArgumentException if the size of the transposition table is negative
+     */
+    public IDAStarPlanner(PlanningProblem problem, Heuristic heuristic, int transpositionTableSize) {
+        super(problem);
+        if (transpositionTableSize < 0) {
+            throw new IllegalArgumentException("The size of the transposition table cannot be negative");
+        }
+        this.heuristic = heuristic;
+        this.transpositionTableSize = transpositionTableSize;
+    }
+
+    /**
+     * Returns the heuristic
+     *
+     * @return the heuristic
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns the maximum number of states of the transposition table
+     *
+     * @return the size of the transposition table, 0 if no table is used
+     */
+    public int getTranspositionTableSize() {
+        return this.transpositionTableSize;
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        Search search = new Search();
+        float threshold = search.estimate();
+        while (true) {
+            List<Action> plan = search.run(threshold);
+            if (plan != null) {
+                return plan;
+            }
+            if (search.nextThreshold == Float.POSITIVE_INFINITY) {
+                return null;
+            }
+            threshold = search.nextThreshold;
+        }
+    }
+
+    /**
+     * <b>
+     * Depth-first search bounded by a threshold, on a single state updated in place
+     * </b>
+     */
+    private final class Search {
+
+        /**
+         * The layout of the states
+         */
+        private final StateLayout layout = IDAStarPlanner.this.getLayout();
+
+        /**
+         * The index of the applicable actions
+         */
+        private final SuccessorGenerator generator = IDAStarPlanner.this.getSuccessorGenerator();
+
+        /**
+         * The compiled goal, or null if the goal is not a basic goal
+         */
+        private final PackedAssignment goal;
+
+        /**
+         * The number of words of a state
+         */
+        private final int wordCount = this.layout.getWordCount();
+
+        /**
+         * The current state
+         */
+        private final long[] words;
+
+        /**
+         * The transposition table (null if no table is used)
+         */
+        private final Map<PackedState, Integer> table;
+
+        /**
+         * The applicable actions of the state at each depth
+         */
+        private List<List<CompiledAction>> successors = new ArrayList<>();
+
+        /**
+         * The position of the next action to try at each depth
+         */
+        private int[] cursors = new int[16];
+
+        /**
+         * The action performed at each depth
+         */
+        private CompiledAction[] applied = new CompiledAction[16];
+
+        /**
+         * The undo record of the action performed at each depth
+         */
+        private long[][] undo = new long[16][];
+
+        /**
+         * The cost of the path at each depth
+         */
+        private int[] costs = new int[16];
+
+        /**
+         * The states of the current path, one after the other
+         */
+        private long[] path;
+
+        /**
+         * The fingerprint of the current state, updated with each action
+         */
+        private long fingerprint;
+
+        /**
+         * The fingerprint of the states of the current path
+         */
+        private long[] pathFingerprints = new long[16];
+
+        /**
+         * The smallest f-value that exceeded the threshold during the last search
+         */
+        private float nextThreshold;
+
+        /**
+         * Constructor of the search, starting at the initial state
+         */
+        private Search() {
+            Goal goal = IDAStarPlanner.this.getGoal();
+            this.goal = goal instanceof BasicGoal ? PackedAssignment.compile(this.layout, goal.getGoal()) : null;
+            PackedState initialState = IDAStarPlanner.this.getPackedInitialState();
+            this.words = initialState.words().clone();
+            this.fingerprint = initialState.getFingerprint();
+            this.path = new long[16 * Math.max(1, this.wordCount)];
+            int size = IDAStarPlanner.this.transpositionTableSize;
+            this.table = size == 0 ? null : new LinkedHashMap<PackedState, Integer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PackedState, Integer> eldest) {
+                    return this.size() > size;
+                }
+            };
+        }
+
+        /**
+         * Returns the estimate of the current state
+         *
+         * @return the estimate of the current state
+         */
+        private float estimate() {
+            // The view does not copy the words, the heuristic must not retain it
+            return IDAStarPlanner.this.heuristic.estimate(new PackedState(this.layout, this.words, this.fingerprint));
+        }
+
+        /**
+         * Returns a boolean indicating if the current state satisfies the goal
+         *
+         * @return true if the current state satisfies the goal
+         */
+        private boolean isGoal() {
+            if (this.goal != null) {
+                return this.goal.matches(this.words);
+            }
+            return IDAStarPlanner.this.getGoal().isSatisfiedBy(
+                    new PackedState(this.layout, this.words, this.fingerprint));
+        }
+
+        /**
+         * <b>
+         * Runs a depth-first search bounded by a threshold
+         * </b>
+         *
+         * @param threshold the maximal f-value of the expanded states
+         * @return the plan found, or null if no plan is found within the threshold
+         */
+        private List<Action> run(float threshold) {
+            this.nextThreshold = Float.POSITIVE_INFINITY;
+            if (this.table != null) {
+                this.table.clear();
+            }
+            if (this.isGoal()) {
+                return new ArrayList<>();
+            }
+            int depth = 0;
+            this.enter(0, 0);
+            while (true) {
+                List<CompiledAction> actions = this.successors.get(depth);
+                if (this.cursors[depth] == actions.size()) {
+                    // Backtrack
+                    if (depth == 0) {
+                        return null;
+                    }
+                    depth--;
+                    this.applied[depth].undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
+                }
+                CompiledAction action = actions.get(this.cursors[depth]++);
+                this.fingerprint ^= action.apply(this.words, this.undo[depth]);
+                IDAStarPlanner.this.incrementProbe();
+                int cost = this.costs[depth] + action.getCost();
+                if (this.isOnPath(depth) || this.isTransposition(cost)) {
+                    action.undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
+                }
+                float f = cost + this.estimate();
+                if (f > threshold) {
+                    this.nextThreshold = Math.min(this.nextThreshold, f);
+                    action.undo(this.words, this.undo[depth]);
+                    this.fingerprint = this.pathFingerprints[depth];
+                    continue;
+                }
+                this.applied[depth] = action;
+                depth++;
+                if (this.isGoal()) {
+                    List<Action> plan = new ArrayList<>(depth);
+                    for (int i = 0; i < depth; i++) {
+                        plan.add(this.applied[i].getAction());
+                    }
+                    return plan;
+                }
+                this.enter(depth, cost);
+            }
+        }
+
+        /**
+         * Pushes the current state on the stack
+         *
+         * @param depth the depth of the state
+         * @param cost  the cost of the path to the state
+         */
+        private void enter(int depth, int cost) {
+            IDAStarPlanner.this.countExpansion(depth + 1 + (this.table == null ? 0 : this.table.size()));
+            if (depth == this.cursors.length) {
+                int capacity = 2 * depth;
+                this.cursors = Arrays.copyOf(this.cursors, capacity);
+                this.applied = Arrays.copyOf(this.applied, capacity);
+                this.undo = Arrays.copyOf(this.undo, capacity);
+                this.costs = Arrays.copyOf(this.costs, capacity);
+                this.pathFingerprints = Arrays.copyOf(this.pathFingerprints, capacity);
+                this.path = Arrays.copyOf(this.path, capacity * Math.max(1, this.wordCount));
+            }
+            if (depth == this.successors.size()) {
+                this.successors.add(new ArrayList<>());
+                this.undo[depth] = new long[this.wordCount];
+            }
+            List<CompiledAction> actions = this.successors.get(depth);
+            actions.clear();
+            this.generator.collect(this.words, actions);
+            this.cursors[depth] = 0;
+            this.costs[depth] = cost;
+            this.pathFingerprints[depth] = this.fingerprint;
+            System.arraycopy(this.words, 0, this.path, depth * this.wordCount, this.wordCount);
+        }
+
+        /**
+         * Returns a boolean indicating if the current state is already on the path
+         *
+         * @param depth the depth of the parent of the current state
+         * @return true if the current state is one of the states of the path
+         */
+        private boolean isOnPath(int depth) {
+            for (int d = depth; d >= 0; d--) {
+                if (this.pathFingerprints[d] == this.fingerprint && this.equalsPath(d)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns a boolean indicating if the current state is the state of the path at a given depth
+         *
+         * @param depth the depth
+         * @return true if the states are equal
+         */
+        private boolean equalsPath(int depth) {
+            int offset = depth * this.wordCount;
+            for (int i = 0; i < this.wordCount; i++) {
+                if (this.path[offset + i] != this.words[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a boolean indicating if the current state was already reached by a path that is not
+         * more expensive, and records the cost of the path otherwise
+         *
+         * @param cost the cost of the path to the current state
+         * @return true if the current state can be pruned
+         */
+        private boolean isTransposition(int cost) {
+            if (this.table == null) {
+                return false;
+            }
+            PackedState key = new PackedState(this.layout, this.words.clone(), this.fingerprint);
+            Integer known = this.table.get(key);
+            if (known != null && known <= cost) {
+                return true;
+            }
+            this.table.put(key, cost);
+            return false;
+        }
+    }
+}
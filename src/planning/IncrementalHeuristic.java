@@ -0,0 +1,42 @@
+package planning;
+
+/**
+ * <b>
+ * Interface representing an heuristic whose estimate can be updated after an action
+ * </b>
+ *
+ * <p>
+ * An incremental heuristic computes the estimate of the successor of a state from the estimate of
+ * the state and the action performed, instead of estimating the successor from scratch. For an
+ * heuristic that counts the goal variables of a state, only the variables of the effects of the
+ * action are visited. <br>
+ * The planners use {@link #estimateSuccessor(PackedState, float, Action, PackedState)}, which calls
+ * {@link #estimateIncremental(PackedState, float, Action)}. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see Heuristic
+ */
+public interface IncrementalHeuristic extends Heuristic {
+
+    /**
+     * <b>
+     * Returns the estimate of the successor of a state by an action, from the estimate of the state
+     * </b>
+     *
+     * @param parent      the state on which the action is performed
+     * @param parentValue the estimate of the state
+     * @param action      the action performed (applicable in the state)
+     * @return the estimated cost of the path from the successor to the goal
+     */
+    float estimateIncremental(PackedState parent, float parentValue, Action action);
+
+    @Override
+    default float estimateSuccessor(PackedState parent, float parentValue, Action action, PackedState successor) {
+        return this.estimateIncremental(parent, parentValue, action);
+    }
+}
@@ -0,0 +1,285 @@
+package planning;
+
+import java.util.Arrays;
+
+/**
+ * <b>
+ * Class representing an open list stored in an indexed binary heap
+ * </b>
+ *
+ * <p>
+ * Nodes are ordered by f-value, ties are broken in favor of the node with the highest g-value,
+ * which is the closest to a goal according to the heuristic. <br>
+ * Each node stores its position in the heap, so updating a node after a cheaper path to it has
+ * been found is a sift in <code>O(log n)</code> instead of a duplicate entry. <br>
+ * </p>
+ *
+ * <p>
+ * The heap can be bounded: when it is full, adding a node evicts the node with the highest
+ * f-value, or rejects the added node if it is the worst one. <br>
+ * </p>
+ *
+ * <p>
+ * The heuristic estimate can be weighted: nodes are then ordered by <code>g + w * h</code>, as in a
+ * weighted A* search. The weight can be changed while the heap holds nodes, which reorders them. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public class IndexedHeap implements OpenList {
+
+    /**
+     * The maximum number of nodes of the heap
+     */
+    private final int capacity;
+
+    /**
+     * True if ties on the f-value are broken in favor of the highest g-value
+     */
+    private final boolean preferHigherG;
+
+    /**
+     * The weight of the heuristic estimate of the nodes
+     */
+    private float weight = 1;
+
+    /**
+     * The nodes of the heap
+     */
+    private SearchNode[] heap;
+
+    /**
+     * The number of nodes of the heap
+     */
+    private int size;
+
+    /**
+     * Constructor of an unbounded heap breaking ties in favor of the highest g-value
+     */
+    public IndexedHeap() {
+        this(Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param capacity      the maximum number of nodes of the heap
+     * @param preferHigherG true to break ties on the f-value in favor of the highest g-value
+     */
+    public IndexedHeap(int capacity, boolean preferHigherG) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the heap must be positive");
+        }
+        this.capacity = capacity;
+        this.preferHigherG = preferHigherG;
+        this.heap = new SearchNode[Math.min(capacity, 64)];
+    }
+
+    /**
+     * Returns the maximum number of nodes of the heap
+     *
+     * @return the capacity of the heap
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the weight of the heuristic estimate of the nodes
+     *
+     * @return the weight of the heuristic estimate
+     */
+    public float getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * <b>
+     * Changes the weight of the heuristic estimate of the nodes
+     * </b>
+     *
+     * <p>
+     * The nodes of the heap are reordered in <code>O(n)</code>. <br>
+     * </p>
+     *
+     * @param weight the new weight of the heuristic estimate
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    public void setWeight(float weight) {
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("The weight of the heuristic must be positive");
+        }
+        this.weight = weight;
+        for (int i = (this.size >>> 1) - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    }
+
+    /**
+     * Returns the priority of a node
+     *
+     * @param node the node
+     * @return the sum of the g-value and the weighted heuristic estimate of the node
+     */
+    public float priorityOf(SearchNode node) {
+        return this.weight == 1 ? node.getF() : node.getG() + this.weight * node.getH();
+    }
+
+    @Override
+    public boolean add(SearchNode node) {
+        if (node.index >= 0) {
+            // The node can be better or worse than before (the heuristic may be inconsistent)
+            this.siftUp(node.index);
+            this.siftDown(node.index);
+            return true;
+        }
+        if (this.size == this.capacity) {
+            int worst = this.worst();
+            if (!this.less(node, this.heap[worst])) {
+                return false;
+            }
+            this.removeAt(worst);
+        }
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, (int) Math.min(this.capacity, 2L * this.heap.length));
+        }
+        this.heap[this.size] = node;
+        node.index = this.size;
+        this.size++;
+        this.siftUp(node.index);
+        return true;
+    }
+
+    @Override
+    public SearchNode poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        SearchNode first = this.heap[0];
+        this.removeAt(0);
+        return first;
+    }
+
+    /**
+     * Returns the node of the heap with the lowest f-value, without removing it
+     *
+     * @return the node with the lowest f-value, or null if the heap is empty
+     */
+    public SearchNode peek() {
+        return this.size == 0 ? null : this.heap[0];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.heap[i].index = -1;
+            this.heap[i] = null;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Returns a boolean indicating if a node must be expanded before another one
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return true if the first node has a lower priority, or the same priority and a higher g-value
+     */
+    private boolean less(SearchNode a, SearchNode b) {
+        float fa = this.priorityOf(a);
+        float fb = this.priorityOf(b);
+        if (fa != fb) {
+            return fa < fb;
+        }
+        return this.preferHigherG && a.getG() > b.getG();
+    }
+
+    /**
+     * Returns the position of the node with the highest f-value, which is one of the leaves
+     *
+     * @return the position of the worst node of the heap
+     */
+    private int worst() {
+        int worst = this.size - 1;
+        for (int i = this.size / 2; i < this.size; i++) {
+            if (this.less(this.heap[worst], this.heap[i])) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * Removes the node at a given position
+     *
+     * @param i the position of the node
+     */
+    private void removeAt(int i) {
+        this.heap[i].index = -1;
+        this.size--;
+        if (i == this.size) {
+            this.heap[i] = null;
+            return;
+        }
+        SearchNode last = this.heap[this.size];
+        this.heap[this.size] = null;
+        this.heap[i] = last;
+        last.index = i;
+        this.siftUp(i);
+        this.siftDown(last.index);
+    }
+
+    /**
+     * Moves a node towards the root while it is better than its parent
+     *
+     * @param i the position of the node
+     */
+    private void siftUp(int i) {
+        SearchNode node = this.heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!this.less(node, this.heap[parent])) {
+                break;
+            }
+            this.heap[i] = this.heap[parent];
+            this.heap[i].index = i;
+            i = parent;
+        }
+        this.heap[i] = node;
+        node.index = i;
+    }
+
+    /**
+     * Moves a node towards the leaves while one of its children is better
+     *
+     * @param i the position of the node
+     */
+    private void siftDown(int i) {
+        SearchNode node = this.heap[i];
+        int half = this.size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < this.size && this.less(this.heap[right], this.heap[child])) {
+                child = right;
+            }
+            if (!this.less(this.heap[child], node)) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            this.heap[i].index = i;
+            i = child;
+        }
+        this.heap[i] = node;
+        node.index = i;
+    }
+}
@@ -0,0 +1,162 @@
+package planning;
+
+import java.util.Arrays;
+
+/**
+ * <b>
+ * Class representing a set of primitive <code>long</code> values
+ * </b>
+ *
+ * <p>
+ * The values are stored in a single <code>long[]</code> with open addressing and linear probing,
+ * so adding or testing a value allocates nothing and touches a few consecutive slots. <br>
+ * The value <code>0</code> marks an empty slot, its presence in the set is stored apart. <br>
+ * It is used to store the fingerprints of the visited states of a search instead of the states
+ * themselves. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PackedState#getFingerprint()
+ */
+public final class LongHashSet {
+
+    /**
+     * The slots of the table, 0 for an empty slot
+     */
+    private long[] slots;
+
+    /**
+     * The number of values in the table (the value 0 excluded)
+     */
+    private int count;
+
+    /**
+     * A boolean indicating if the value 0 is in the set
+     */
+    private boolean containsZero;
+
+    /**
+     * Constructor of an empty set
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Constructor of an empty set
+     *
+     * @param expectedSize the expected number of values
+     * @throws IllegalArgumentException if the expected number of values is negative
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("The expected size cannot be negative");
+        }
+        int capacity = 16;
+        while (capacity < 2L * expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.slots = new long[capacity];
+    }
+
+    /**
+     * Returns the slot of a value in a table
+     *
+     * @param value the value (not 0)
+     * @param mask  the size of the table minus one
+     * @return the first slot to probe for the value
+     */
+    private static int slotOf(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Adds a value to the set
+     *
+     * @param value the value
+     * @return true if the value was not in the set
+     */
+    public boolean add(long value) {
+        if (value == 0L) {
+            boolean added = !this.containsZero;
+            this.containsZero = true;
+            return added;
+        }
+        int mask = this.slots.length - 1;
+        int slot = LongHashSet.slotOf(value, mask);
+        while (this.slots[slot] != 0L) {
+            if (this.slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = value;
+        this.count++;
+        if (2 * this.count > this.slots.length) {
+            this.grow();
+        }
+        return true;
+    }
+
+    /**
+     * Returns a boolean indicating if a value is in the set
+     *
+     * @param value the value
+     * @return true if the value is in the set
+     */
+    public boolean contains(long value) {
+        if (value == 0L) {
+            return this.containsZero;
+        }
+        int mask = this.slots.length - 1;
+        int slot = LongHashSet.slotOf(value, mask);
+        while (this.slots[slot] != 0L) {
+            if (this.slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values in the set
+     *
+     * @return the number of values in the set
+     */
+    public int size() {
+        return this.containsZero ? this.count + 1 : this.count;
+    }
+
+    /**
+     * Removes all the values of the set, keeping its capacity
+     */
+    public void clear() {
+        Arrays.fill(this.slots, 0L);
+        this.count = 0;
+        this.containsZero = false;
+    }
+
+    /**
+     * Doubles the size of the table
+     */
+    private void grow() {
+        long[] old = this.slots;
+        this.slots = new long[2 * old.length];
+        int mask = this.slots.length - 1;
+        for (long value : old) {
+            if (value != 0L) {
+                int slot = LongHashSet.slotOf(value, mask);
+                while (this.slots[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                this.slots[slot] = value;
+            }
+        }
+    }
+}
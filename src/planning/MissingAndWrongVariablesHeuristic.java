@@ -34,7 +34,7 @@ import java.util.Map;
  * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
  * @version 1.0
  */
-public class MissingAndWrongVariablesHeuristic implements Heuristic {
+public class MissingAndWrongVariablesHeuristic implements IncrementalHeuristic {
 
     /**
      * The goal
@@ -60,4 +60,40 @@ public class MissingAndWrongVariablesHeuristic implements Heuristic {
         }
         return missingAndWrongVariables;
     }
+
+    @Override
+    public float estimate(PackedState state) {
+        StateLayout layout = state.getLayout();
+        float missingAndWrongVariables = 0;
+        for (Map.Entry<Variable, Object> entry : goal.getGoal().entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            if (index < 0 || state.get(index) != layout.codeOf(index, entry.getValue())) {
+                missingAndWrongVariables++;
+            }
+        }
+        return missingAndWrongVariables;
+    }
+
+    @Override
+    public float estimateIncremental(PackedState parent, float parentValue, Action action) {
+        if (!(action instanceof BasicAction)) {
+            return this.estimate(action.successor(parent));
+        }
+        StateLayout layout = parent.getLayout();
+        float missingAndWrongVariables = parentValue;
+        for (Map.Entry<Variable, Object> entry : ((BasicAction) action).getEffect().entrySet()) {
+            Object goalValue = goal.getGoal().get(entry.getKey());
+            if (goalValue == null) {
+                continue;
+            }
+            int index = layout.indexOf(entry.getKey());
+            int code = index < 0 ? 0 : parent.get(index);
+            boolean wasCounted = code == 0 || code != layout.codeOf(index, goalValue);
+            boolean isCounted = !goalValue.equals(entry.getValue());
+            if (wasCounted != isCounted) {
+                missingAndWrongVariables += isCounted ? 1 : -1;
+            }
+        }
+        return missingAndWrongVariables;
+    }
 }
@@ -33,7 +33,7 @@ import java.util.Map;
  * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
  * @version 1.0
  */
-public class MissingVariablesHeuristic implements Heuristic {
+public class MissingVariablesHeuristic implements IncrementalHeuristic {
 
     /**
      * The goal
@@ -59,4 +59,39 @@ public class MissingVariablesHeuristic implements Heuristic {
         }
         return missingVariables;
     }
+
+    @Override
+    public float estimate(PackedState state) {
+        StateLayout layout = state.getLayout();
+        float missingVariables = 0;
+        for (Map.Entry<Variable, Object> entry : goal.getGoal().entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            if (index < 0 || state.get(index) == 0) {
+                missingVariables++;
+            }
+        }
+        return missingVariables;
+    }
+
+    @Override
+    public float estimateIncremental(PackedState parent, float parentValue, Action action) {
+        if (!(action instanceof BasicAction)) {
+            return this.estimate(action.successor(parent));
+        }
+        StateLayout layout = parent.getLayout();
+        float missingVariables = parentValue;
+        for (Map.Entry<Variable, Object> entry : ((BasicAction) action).getEffect().entrySet()) {
+            Object goalValue = goal.getGoal().get(entry.getKey());
+            if (goalValue == null) {
+                continue;
+            }
+            int index = layout.indexOf(entry.getKey());
+            int code = index < 0 ? 0 : parent.get(index);
+            // The variable is assigned by the action
+            if (code == 0) {
+                missingVariables--;
+            }
+        }
+        return missingVariables;
+    }
 }
@@ -0,0 +1,290 @@
+package planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <b>
+ * Class representing the states generated by a search, stored in primitive columns
+ * </b>
+ *
+ * <p>
+ * Each state gets an <code>int</code> identifier, its position in the store. The packed words of
+ * the states are stored one after the other in a single <code>long[]</code>, and the fingerprint,
+ * the parent, the action that reached the state and the cost of its path are stored in primitive
+ * arrays at the position of the state. No object is created for a state. <br>
+ * A plan is rebuilt by following the parents from a state to the initial state (whose parent is
+ * <code>-1</code>), and the actions are found from their identifiers
+ * (see {@link AbstractPlanner#getCompiledActions()}). <br>
+ * </p>
+ *
+ * <p>
+ * The states are indexed by their fingerprint with open addressing, and the words are compared
+ * when two fingerprints are equal, so a state is found exactly. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PackedState
+ */
+final class NodeStore {
+
+    /**
+     * The layout of the states
+     */
+    private final StateLayout layout;
+
+    /**
+     * The compiled actions, by identifier
+     */
+    private final CompiledAction[] actions;
+
+    /**
+     * The number of words of a state
+     */
+    private final int wordCount;
+
+    /**
+     * The words of the states, one state after the other
+     */
+    private long[] words;
+
+    /**
+     * The fingerprint of each state
+     */
+    private long[] fingerprints;
+
+    /**
+     * The parent of each state (-1 for the initial state)
+     */
+    private int[] parents;
+
+    /**
+     * The identifier of the action that reached each state (-1 for the initial state)
+     */
+    private int[] actionIds;
+
+    /**
+     * The cost of the path of each state
+     */
+    private int[] costs;
+
+    /**
+     * The index of the states by fingerprint: the identifier plus one of a state, 0 for an empty slot
+     */
+    private int[] slots;
+
+    /**
+     * The number of states
+     */
+    private int size;
+
+    /**
+     * Constructor of an empty store
+     *
+     * @param layout  the layout of the states
+     * @param actions the compiled actions, by identifier
+     */
+    NodeStore(StateLayout layout, CompiledAction[] actions) {
+        this.layout = layout;
+        this.actions = actions;
+        this.wordCount = layout.getWordCount();
+        int capacity = 1024;
+        this.words = new long[capacity * Math.max(1, this.wordCount)];
+        this.fingerprints = new long[capacity];
+        this.parents = new int[capacity];
+        this.actionIds = new int[capacity];
+        this.costs = new int[capacity];
+        this.slots = new int[2 * capacity];
+    }
+
+    /**
+     * Returns the first slot to probe for a fingerprint
+     *
+     * @param fingerprint the fingerprint
+     * @param mask        the size of the index minus one
+     * @return the first slot to probe
+     */
+    private static int slotOf(long fingerprint, int mask) {
+        long hash = fingerprint * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the identifier of a state
+     *
+     * @param state       the words of the state
+     * @param fingerprint the fingerprint of the state
+     * @return the identifier of the state, or -1 if it is not in the store
+     */
+    int find(long[] state, long fingerprint) {
+        int mask = this.slots.length - 1;
+        int slot = NodeStore.slotOf(fingerprint, mask);
+        while (this.slots[slot] != 0) {
+            int id = this.slots[slot] - 1;
+            if (this.fingerprints[id] == fingerprint && this.equals(id, state)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * <b>
+     * Adds a state that is not in the store
+     * </b>
+     *
+     * @param state       the words of the state (copied)
+     * @param fingerprint the fingerprint of the state
+     * @param parent      the identifier of the parent, -1 for the initial state
+     * @param action      the identifier of the action that reached the state, -1 for the initial state
+     * @param cost        the cost of the path of the state
+     * @return the identifier of the state
+     */
+    int add(long[] state, long fingerprint, int parent, int action, int cost) {
+        if (this.size == this.parents.length) {
+            this.grow();
+        }
+        int id = this.size++;
+        System.arraycopy(state, 0, this.words, id * this.wordCount, this.wordCount);
+        this.fingerprints[id] = fingerprint;
+        this.parents[id] = parent;
+        this.actionIds[id] = action;
+        this.costs[id] = cost;
+        this.index(id);
+        return id;
+    }
+
+    /**
+     * Replaces the path of a state by a cheaper one
+     *
+     * @param id     the identifier of the state
+     * @param parent the identifier of the new parent
+     * @param action the identifier of the action that reaches the state from the new parent
+     * @param cost   the new cost of the path of the state
+     */
+    void reparent(int id, int parent, int action, int cost) {
+        this.parents[id] = parent;
+        this.actionIds[id] = action;
+        this.costs[id] = cost;
+    }
+
+    /**
+     * Copies the words of a state
+     *
+     * @param id   the identifier of the state
+     * @param into the array receiving the words
+     */
+    void load(int id, long[] into) {
+        System.arraycopy(this.words, id * this.wordCount, into, 0, this.wordCount);
+    }
+
+    /**
+     * Returns the fingerprint of a state
+     *
+     * @param id the identifier of the state
+     * @return the fingerprint of the state
+     */
+    long getFingerprint(int id) {
+        return this.fingerprints[id];
+    }
+
+    /**
+     * Returns the cost of the path of a state
+     *
+     * @param id the identifier of the state
+     * @return the cost of the path of the state
+     */
+    int getCost(int id) {
+        return this.costs[id];
+    }
+
+    /**
+     * Returns the number of states
+     *
+     * @return the number of states
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a state of the store as a packed state
+     *
+     * @param id the identifier of the state
+     * @return a copy of the state
+     */
+    PackedState getState(int id) {
+        long[] state = new long[this.wordCount];
+        this.load(id, state);
+        return new PackedState(this.layout, state, this.fingerprints[id]);
+    }
+
+    /**
+     * Returns the plan that leads from the initial state to a state
+     *
+     * @param id the identifier of the state
+     * @return the actions of the path of the state
+     */
+    List<Action> getPlan(int id) {
+        List<Action> plan = new ArrayList<>();
+        for (int node = id; this.parents[node] >= 0; node = this.parents[node]) {
+            plan.add(this.actions[this.actionIds[node]].getAction());
+        }
+        Collections.reverse(plan);
+        return plan;
+    }
+
+    /**
+     * Returns a boolean indicating if a state has given words
+     *
+     * @param id    the identifier of the state
+     * @param state the words
+     * @return true if the words of the state are equal to the given words
+     */
+    private boolean equals(int id, long[] state) {
+        int offset = id * this.wordCount;
+        for (int i = 0; i < this.wordCount; i++) {
+            if (this.words[offset + i] != state[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a state to the index
+     *
+     * @param id the identifier of the state
+     */
+    private void index(int id) {
+        int mask = this.slots.length - 1;
+        int slot = NodeStore.slotOf(this.fingerprints[id], mask);
+        while (this.slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = id + 1;
+    }
+
+    /**
+     * Doubles the capacity of the columns and of the index
+     */
+    private void grow() {
+        int capacity = 2 * this.parents.length;
+        this.words = Arrays.copyOf(this.words, capacity * Math.max(1, this.wordCount));
+        this.fingerprints = Arrays.copyOf(this.fingerprints, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.actionIds = Arrays.copyOf(this.actionIds, capacity);
+        this.costs = Arrays.copyOf(this.costs, capacity);
+        this.slots = new int[2 * capacity];
+        for (int id = 0; id < this.size; id++) {
+            this.index(id);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package planning;
+
+/**
+ * <b>
+ * Interface representing the open list of a best-first search
+ * </b>
+ *
+ * <p>
+ * An open list holds the search nodes waiting to be expanded and returns them by increasing f-value. <br>
+ * Adding a node that is already in the open list updates its position, so a node whose path has been
+ * replaced by a cheaper one (see {@link SearchNode#reparent(SearchNode, Action, int)}) is never
+ * stored twice. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see SearchNode
+ */
+public interface OpenList {
+
+    /**
+     * <b>
+     * Adds a node to the open list, or updates its position if it is already in the open list
+     * </b>
+     *
+     * @param node the node
+     * @return true if the node is in the open list after the call
+     */
+    boolean add(SearchNode node);
+
+    /**
+     * Removes and returns the node of the open list with the lowest f-value
+     *
+     * @return the node with the lowest f-value, or null if the open list is empty
+     */
+    SearchNode poll();
+
+    /**
+     * Returns the number of nodes of the open list
+     *
+     * @return the number of nodes of the open list
+     */
+    int size();
+
+    /**
+     * Returns a boolean indicating if the open list is empty
+     *
+     * @return true if the open list is empty
+     */
+    default boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Removes all the nodes of the open list
+     */
+    void clear();
+}
@@ -0,0 +1,279 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <b>
+ * Class representing a partial assignment compiled into bit masks
+ * </b>
+ *
+ * <p>
+ * A packed assignment is a partial assignment of variables compiled against a {@link StateLayout}. <br>
+ * For each word of a packed state that holds one of its variables, it stores the mask of the
+ * fields of these variables and the bits of their codes. <br>
+ * Testing if a packed state satisfies the assignment is then a few mask compares, and writing
+ * the assignment into a packed state is a few masked writes, without any allocation. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public final class PackedAssignment {
+
+    /**
+     * The layout against which the assignment is compiled
+     */
+    private final StateLayout layout;
+
+    /**
+     * The indices of the words that hold a variable of the assignment
+     */
+    private final int[] words;
+
+    /**
+     * The mask of the fields of the variables of the assignment, for each word
+     */
+    private final long[] masks;
+
+    /**
+     * The bits of the codes of the values of the assignment, for each word
+     */
+    private final long[] bits;
+
+    /**
+     * The indices of the variables of the assignment
+     */
+    private final int[] variables;
+
+    /**
+     * The codes of the values of the assignment
+     */
+    private final int[] codes;
+
+    /**
+     * False if the assignment uses a variable or a value that is not part of the layout
+     */
+    private final boolean satisfiable;
+
+    /**
+     * Private constructor of the class (use {@link #compile(StateLayout, Map)})
+     *
+     * @param layout      the layout
+     * @param assignment  the codes of the assignment, by variable index
+     * @param satisfiable false if the assignment cannot be satisfied by a state of the layout
+     */
+    private PackedAssignment(StateLayout layout, TreeMap<Integer, Integer> assignment, boolean satisfiable) {
+        this.layout = layout;
+        this.satisfiable = satisfiable;
+        this.variables = new int[assignment.size()];
+        this.codes = new int[assignment.size()];
+
+        // Group the fields by word
+        TreeMap<Integer, long[]> byWord = new TreeMap<>();
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : assignment.entrySet()) {
+            int index = entry.getKey();
+            int code = entry.getValue();
+            this.variables[i] = index;
+            this.codes[i] = code;
+            i++;
+            long[] maskAndBits = byWord.computeIfAbsent(layout.wordOf(index), w -> new long[2]);
+            maskAndBits[0] |= layout.maskOf(index);
+            maskAndBits[1] |= layout.bitsOf(index, code);
+        }
+
+        this.words = new int[byWord.size()];
+        this.masks = new long[byWord.size()];
+        this.bits = new long[byWord.size()];
+        i = 0;
+        for (Map.Entry<Integer, long[]> entry : byWord.entrySet()) {
+            this.words[i] = entry.getKey();
+            this.masks[i] = entry.getValue()[0];
+            this.bits[i] = entry.getValue()[1];
+            i++;
+        }
+    }
+
+    /**
+     * <b>
+     * Compiles a partial assignment against a layout
+     * </b>
+     *
+     * <p>
+     * A variable or a value that is not part of the layout cannot be held by a packed state of the layout,
+     * so an assignment that uses one is compiled into an assignment that is never satisfied.
+     * </p>
+     *
+     * @param layout     the layout
+     * @param assignment the partial assignment
+     * @return the compiled assignment
+     */
+    public static PackedAssignment compile(StateLayout layout, Map<Variable, Object> assignment) {
+        TreeMap<Integer, Integer> codes = new TreeMap<>();
+        boolean satisfiable = true;
+        if (assignment == null) {
+            return new PackedAssignment(layout, codes, true);
+        }
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            int code = index < 0 ? -1 : layout.codeOf(index, entry.getValue());
+            if (code < 0) {
+                satisfiable = false;
+            } else {
+                codes.put(index, code);
+            }
+        }
+        return new PackedAssignment(layout, codes, satisfiable);
+    }
+
+    /**
+     * Returns the layout against which the assignment is compiled
+     *
+     * @return the layout of the assignment
+     */
+    public StateLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Returns a boolean indicating if a state of the layout can satisfy the assignment
+     *
+     * @return false if the assignment uses a variable or a value that is not part of the layout
+     */
+    public boolean isSatisfiable() {
+        return this.satisfiable;
+    }
+
+    /**
+     * Returns the number of variables of the assignment
+     *
+     * @return the number of variables of the assignment
+     */
+    public int size() {
+        return this.variables.length;
+    }
+
+    /**
+     * Returns the index of the i-th variable of the assignment
+     *
+     * @param i the position of the variable in the assignment
+     * @return the index of the variable in the layout
+     */
+    public int getVariable(int i) {
+        return this.variables[i];
+    }
+
+    /**
+     * Returns the code of the value of the i-th variable of the assignment
+     *
+     * @param i the position of the variable in the assignment
+     * @return the code of the value of the variable
+     */
+    public int getCode(int i) {
+        return this.codes[i];
+    }
+
+    /**
+     * Returns a boolean indicating if a packed state satisfies the assignment
+     *
+     * @param state the packed state (must use the layout of the assignment)
+     * @return true if each variable of the assignment has the same value in the state
+     */
+    public boolean isSatisfiedBy(PackedState state) {
+        return this.matches(state.words());
+    }
+
+    /**
+     * Returns a boolean indicating if packed words satisfy the assignment
+     *
+     * @param state the packed words
+     * @return true if each variable of the assignment has the same value in the words
+     */
+    boolean matches(long[] state) {
+        if (!this.satisfiable) {
+            return false;
+        }
+        for (int i = 0; i < this.words.length; i++) {
+            if ((state[this.words[i]] & this.masks[i]) != this.bits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the assignment into packed words
+     *
+     * @param state the packed words
+     */
+    void writeTo(long[] state) {
+        for (int i = 0; i < this.words.length; i++) {
+            int word = this.words[i];
+            state[word] = (state[word] & ~this.masks[i]) | this.bits[i];
+        }
+    }
+
+    /**
+     * Returns the change of the fingerprint of packed words when the assignment is written into them
+     *
+     * @param state the packed words, before the assignment is written
+     * @return the value to xor with the fingerprint of the words
+     */
+    long fingerprintDelta(long[] state) {
+        long delta = 0L;
+        for (int i = 0; i < this.variables.length; i++) {
+            int index = this.variables[i];
+            delta ^= this.layout.zobristKey(index, this.layout.read(state, index))
+                    ^ this.layout.zobristKey(index, this.codes[i]);
+        }
+        return delta;
+    }
+
+    /**
+     * Saves the bits of packed words that {@link #writeTo(long[])} overwrites
+     *
+     * @param state  the packed words
+     * @param buffer the buffer in which the bits are saved, at least as long as the words
+     */
+    void save(long[] state, long[] buffer) {
+        for (int i = 0; i < this.words.length; i++) {
+            buffer[i] = state[this.words[i]] & this.masks[i];
+        }
+    }
+
+    /**
+     * Restores the bits of packed words saved by {@link #save(long[], long[])}
+     *
+     * @param state  the packed words
+     * @param buffer the buffer in which the bits were saved
+     */
+    void restore(long[] state, long[] buffer) {
+        for (int i = 0; i < this.words.length; i++) {
+            int word = this.words[i];
+            state[word] = (state[word] & ~this.masks[i]) | buffer[i];
+        }
+    }
+
+    /**
+     * Returns a new packed state equal to a state, except for the variables of the assignment
+     *
+     * @param state the packed state
+     * @return the new packed state
+     * @throws IllegalStateException if the assignment uses a variable or a value that is not part of the layout
+     */
+    public PackedState applyTo(PackedState state) {
+        if (!this.satisfiable) {
+            throw new IllegalStateException("The assignment is not part of the layout of the state");
+        }
+        long[] successor = state.words().clone();
+        long fingerprint = state.getFingerprint() ^ this.fingerprintDelta(successor);
+        this.writeTo(successor);
+        return new PackedState(this.layout, successor, fingerprint);
+    }
+}
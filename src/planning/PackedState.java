@@ -0,0 +1,293 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a state packed into a bit field
+ * </b>
+ *
+ * <p>
+ * A packed state stores the code of the value of each variable of a {@link StateLayout} in a
+ * <code>long[]</code>. Its 64-bit Zobrist fingerprint is computed once, at construction, or updated
+ * incrementally from the state it is derived from; the hash code is derived from the fingerprint. <br>
+ * Packed states are used as keys by the planners instead of <code>Map&lt;Variable, Object&gt;</code>,
+ * the map representation is still available through {@link #asMap()}. <br>
+ * A packed state is immutable. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see StateLayout
+ */
+public final class PackedState {
+
+    /**
+     * The layout of the state
+     */
+    private final StateLayout layout;
+
+    /**
+     * The packed codes of the variables
+     */
+    private final long[] words;
+
+    /**
+     * The Zobrist fingerprint of the state
+     */
+    private final long fingerprint;
+
+    /**
+     * Package-private constructor of the class, the words are not copied
+     *
+     * @param layout the layout of the state
+     * @param words  the packed codes of the variables
+     */
+    PackedState(StateLayout layout, long[] words) {
+        this(layout, words, layout.fingerprint(words));
+    }
+
+    /**
+     * Package-private constructor of the class with a known fingerprint, the words are not copied
+     *
+     * @param layout      the layout of the state
+     * @param words       the packed codes of the variables
+     * @param fingerprint the fingerprint of the words
+     */
+    PackedState(StateLayout layout, long[] words, long fingerprint) {
+        this.layout = layout;
+        this.words = words;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the layout of the state
+     *
+     * @return the layout of the state
+     */
+    public StateLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Returns the packed words of the state (must not be modified)
+     *
+     * @return the packed words of the state
+     */
+    long[] words() {
+        return this.words;
+    }
+
+    /**
+     * <b>
+     * Returns the 64-bit Zobrist fingerprint of the state
+     * </b>
+     *
+     * <p>
+     * Two equal states have the same fingerprint. Two different states of the same layout have the
+     * same fingerprint with a probability of about <code>2^-64</code>, so the fingerprint can be used
+     * instead of the state in a set of visited states. <br>
+     * </p>
+     *
+     * @return the fingerprint of the state
+     */
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Returns the code of the value of a variable
+     *
+     * @param index the index of the variable in the layout
+     * @return the code of the value of the variable, 0 if the variable is not assigned
+     */
+    public int get(int index) {
+        return this.layout.read(this.words, index);
+    }
+
+    /**
+     * Returns the value of a variable
+     *
+     * @param variable the variable
+     * @return the value of the variable, or null if the variable is not assigned
+     */
+    public Object getValue(Variable variable) {
+        int index = this.layout.indexOf(variable);
+        if (index < 0) {
+            return null;
+        }
+        int code = this.get(index);
+        return code == 0 ? null : this.layout.valueOf(index, code);
+    }
+
+    /**
+     * Returns a boolean indicating if the state contains a partial assignment
+     *
+     * @param assignment the partial assignment
+     * @return true if each variable of the assignment has the same value in the state
+     */
+    public boolean containsAll(Map<Variable, Object> assignment) {
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            int index = this.layout.indexOf(entry.getKey());
+            if (index < 0 || this.get(index) != this.layout.codeOf(index, entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a new state equal to this state, except for the variables of a partial assignment
+     *
+     * @param assignment the partial assignment
+     * @return the new state
+     * @throws IllegalArgumentException if a variable or a value of the assignment is not part of the layout
+     */
+    public PackedState with(Map<Variable, Object> assignment) {
+        long[] successor = this.words.clone();
+        long fingerprint = this.fingerprint;
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            int index = this.layout.indexOf(entry.getKey());
+            int code = index < 0 ? -1 : this.layout.codeOf(index, entry.getValue());
+            if (code < 0) {
+                throw new IllegalArgumentException("The assignment " + entry.getKey().getName() + "="
+                        + entry.getValue() + " is not part of the layout");
+            }
+            fingerprint ^= this.layout.zobristKey(index, this.layout.read(successor, index))
+                    ^ this.layout.zobristKey(index, code);
+            this.layout.write(successor, index, code);
+        }
+        return new PackedState(this.layout, successor, fingerprint);
+    }
+
+    /**
+     * <b>
+     * Returns a read-only map view of the state
+     * </b>
+     *
+     * <p>
+     * The view contains the assigned variables only, and is equal to any map containing the same
+     * assignment. It is used to call code that works on <code>Map&lt;Variable, Object&gt;</code>. <br>
+     * </p>
+     *
+     * @return a read-only map view of the state
+     */
+    public Map<Variable, Object> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PackedState)) {
+            return false;
+        }
+        PackedState other = (PackedState) obj;
+        return this.fingerprint == other.fingerprint && this.layout == other.layout
+                && Arrays.equals(this.words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.fingerprint ^ (this.fingerprint >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return this.asMap().toString();
+    }
+
+    /**
+     * <b>
+     * Read-only map view of a packed state
+     * </b>
+     */
+    private final class MapView extends AbstractMap<Variable, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof Variable ? PackedState.this.getValue((Variable) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (!(key instanceof Variable)) {
+                return false;
+            }
+            int index = PackedState.this.layout.indexOf((Variable) key);
+            return index >= 0 && PackedState.this.get(index) != 0;
+        }
+
+        @Override
+        public Set<Entry<Variable, Object>> entrySet() {
+            return new AbstractSet<Entry<Variable, Object>>() {
+                @Override
+                public Iterator<Entry<Variable, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < PackedState.this.layout.size(); i++) {
+                        if (PackedState.this.get(i) != 0) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * <b>
+     * Iterator over the assigned variables of a packed state
+     * </b>
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Variable, Object>> {
+
+        /**
+         * The index of the next assigned variable
+         */
+        private int next = this.advance(0);
+
+        /**
+         * Returns the index of the first assigned variable from a given index
+         *
+         * @param from the index to start from
+         * @return the index of the first assigned variable, or the size of the layout
+         */
+        private int advance(int from) {
+            int index = from;
+            while (index < PackedState.this.layout.size() && PackedState.this.get(index) == 0) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < PackedState.this.layout.size();
+        }
+
+        @Override
+        public Map.Entry<Variable, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = this.next;
+            this.next = this.advance(index + 1);
+            StateLayout layout = PackedState.this.layout;
+            return new AbstractMap.SimpleImmutableEntry<>(layout.getVariable(index),
+                    layout.valueOf(index, PackedState.this.get(index)));
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <b>
+ * Class representing a planner using a parallel A* algorithm (Hash Distributed A*)
+ * </b>
+ *
+ * <p>
+ * The states are distributed among several worker threads by their hash code: each state has
+ * a single owner, which stores its search node in a local table and a local open list. <br>
+ * A worker expands the best node of its open list and sends each successor to its owner through
+ * a lock-free mailbox, so the workers never share a table or a lock. <br>
+ * </p>
+ *
+ * <p>
+ * The cost of the best plan found so far is shared by all the workers, which prune the nodes whose
+ * f-value is not lower. A goal state is recorded as soon as its owner receives it, so the bound is
+ * known before the goal would be expanded. The search terminates when no node is left in an open list
+ * and no successor is left in a mailbox: with an admissible heuristic, the best plan found is then optimal. <br>
+ * The heuristic and the goal must allow concurrent calls. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see AStarPlanner
+ */
+public class ParallelAStarPlanner extends AStarPlanner {
+
+    /**
+     * The number of worker threads
+     */
+    private final int nbThreads;
+
+    /**
+     * Constructor of the class using one worker thread per available processor
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     */
+    public ParallelAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                                Goal goal, Heuristic heuristic) {
+        this(initialState, actions, goal, heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     * @param nbThreads    the number of worker threads
+     * @throws IllegalArgumentException if the number of worker threads is not positive
+     */
+    public ParallelAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                                Goal goal, Heuristic heuristic, int nbThreads) {
+        super(initialState, actions, goal, heuristic);
+        if (nbThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem   the problem
+     * @param heuristic the heuristic
+     * @param nbThreads the number of worker threads
+     * @throws IllegalArgumentException if the number of worker threads is not positive
+     */
+    public ParallelAStarPlanner(PlanningProblem problem, Heuristic heuristic, int nbThreads) {
+        super(problem, heuristic);
+        if (nbThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Returns the number of worker threads
+     *
+     * @return the number of worker threads
+     */
+    public int getNbThreads() {
+        return this.nbThreads;
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        PackedState initialState = this.getPackedInitialState();
+        // Build the shared read-only structures before starting the workers
+        this.getSuccessorGenerator();
+
+        Search search = new Search(this.nbThreads);
+        search.send(new Message(initialState, null, null, 0));
+
+        Thread[] threads = new Thread[this.nbThreads];
+        for (int i = 0; i < this.nbThreads; i++) {
+            threads[i] = new Thread(search.workers[i], "hda-worker-" + i);
+            threads[i].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            search.failure.compareAndSet(null, e);
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            Thread.currentThread().interrupt();
+        }
+
+        int probe = 0;
+        for (Worker worker : search.workers) {
+            probe += worker.probe;
+        }
+        this.setProbe(probe);
+
+        Throwable failure = search.failure.get();
+        if (failure instanceof SearchBudget.Stop) {
+            throw (SearchBudget.Stop) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("The parallel search failed", failure);
+        }
+        SearchNode best = search.incumbent.get();
+        return best == null ? null : best.getPlan();
+    }
+
+    /**
+     * <b>
+     * Successor sent to the owner of its state
+     * </b>
+     */
+    private static final class Message {
+
+        /**
+         * The state
+         */
+        private final PackedState state;
+
+        /**
+         * The node that generated the state (null for the initial state)
+         */
+        private final SearchNode parent;
+
+        /**
+         * The action that leads from the state of the parent to the state
+         */
+        private final Action action;
+
+        /**
+         * The cost of the path to the state through the parent
+         */
+        private final int g;
+
+        /**
+         * Constructor of the message
+         *
+         * @param state  the state
+         * @param parent the node that generated the state
+         * @param action the action that leads from the state of the parent to the state
+         * @param g      the cost of the path to the state through the parent
+         */
+        private Message(PackedState state, SearchNode parent, Action action, int g) {
+            this.state = state;
+            this.parent = parent;
+            this.action = action;
+            this.g = g;
+        }
+    }
+
+    /**
+     * <b>
+     * State shared by the workers of one call to {@link #plan()}
+     * </b>
+     */
+    private final class Search {
+
+        /**
+         * The workers
+         */
+        private final Worker[] workers;
+
+        /**
+         * The number of nodes in the open lists plus the number of messages in the mailboxes,
+         * the search is over when it reaches 0
+         */
+        private final AtomicLong pending = new AtomicLong();
+
+        /**
+         * The cost of the best plan found so far
+         */
+        private final AtomicInteger bestCost = new AtomicInteger(Integer.MAX_VALUE);
+
+        /**
+         * The goal node of the best plan found so far
+         */
+        private final AtomicReference<SearchNode> incumbent = new AtomicReference<>();
+
+        /**
+         * The first failure of a worker, which stops all the workers
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Constructor of the search
+         *
+         * @param nbThreads the number of workers
+         */
+        private Search(int nbThreads) {
+            this.workers = new Worker[nbThreads];
+            for (int i = 0; i < nbThreads; i++) {
+                this.workers[i] = new Worker(this);
+            }
+        }
+
+        /**
+         * Returns the number of states stored by the workers
+         *
+         * @return the number of nodes of the workers (read without synchronization, so it is approximate)
+         */
+        private long storedNodes() {
+            long stored = 0;
+            for (Worker worker : this.workers) {
+                stored += worker.nodes.size();
+            }
+            return stored;
+        }
+
+        /**
+         * Sends a successor to the owner of its state
+         *
+         * @param message the successor
+         */
+        private void send(Message message) {
+            // Counted before being visible, so the pending count never drops to 0 while work remains
+            this.pending.incrementAndGet();
+            this.workers[this.ownerOf(message.state)].inbox.add(message);
+        }
+
+        /**
+         * Returns the index of the worker that owns a state
+         *
+         * @param state the state
+         * @return the index of the owner of the state
+         */
+        private int ownerOf(PackedState state) {
+            int hash = state.hashCode() * 0x9E3779B9;
+            return Math.floorMod(hash ^ (hash >>> 16), this.workers.length);
+        }
+
+        /**
+         * Records a plan if it is cheaper than the best plan found so far
+         *
+         * @param goal the goal node of the plan
+         */
+        private void offer(SearchNode goal) {
+            int cost = goal.getG();
+            int best = this.bestCost.get();
+            while (cost < best) {
+                if (this.bestCost.compareAndSet(best, cost)) {
+                    // Plans are offered by increasing cost through bestCost, the last one wins
+                    this.incumbent.accumulateAndGet(goal, (a, b) -> a == null || b.getG() < a.getG() ? b : a);
+                    return;
+                }
+                best = this.bestCost.get();
+            }
+        }
+    }
+
+    /**
+     * <b>
+     * Worker owning a part of the states
+     * </b>
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * The shared state of the search
+         */
+        private final Search search;
+
+        /**
+         * The mailbox of the successors owned by the worker
+         */
+        private final ConcurrentLinkedQueue<Message> inbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The nodes of the states owned by the worker
+         */
+        private final Map<PackedState, SearchNode> nodes = new HashMap<>();
+
+        /**
+         * The open list of the worker
+         */
+        private final IndexedHeap open = new IndexedHeap();
+
+        /**
+         * The number of states visited by the worker
+         */
+        private int probe;
+
+        /**
+         * Constructor of the worker
+         *
+         * @param search the shared state of the search
+         */
+        private Worker(Search search) {
+            this.search = search;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.search();
+            } catch (Throwable e) {
+                this.search.failure.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * Runs the search loop of the worker until the search is over
+         */
+        private void search() {
+            while (this.search.failure.get() == null) {
+                this.receive();
+                SearchNode current = this.open.poll();
+                if (current != null && current.getF() < this.search.bestCost.get()) {
+                    ParallelAStarPlanner.this.countExpansion(this.search.storedNodes());
+                    this.expand(current);
+                } else if (current != null) {
+                    // No node of the open list can lead to a cheaper plan
+                    this.search.pending.addAndGet(-1 - this.open.size());
+                    this.open.clear();
+                } else if (this.search.pending.get() == 0) {
+                    return;
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+
+        /**
+         * Moves the successors of the mailbox to the open list
+         */
+        private void receive() {
+            Message message;
+            while ((message = this.inbox.poll()) != null) {
+                SearchNode node = this.nodes.get(message.state);
+                boolean opened = false;
+                if (node == null) {
+                    this.probe++;
+                    Heuristic heuristic = ParallelAStarPlanner.this.getHeuristic();
+                    node = new SearchNode(message.state, message.parent, message.action, message.g,
+                            message.parent == null ? heuristic.estimate(message.state)
+                                    : heuristic.estimateSuccessor(message.parent.getState(), message.parent.getH(),
+                                    message.action, message.state));
+                    this.nodes.put(message.state, node);
+                    opened = this.isOpened(node);
+                } else if (message.g < node.getG()) {
+                    this.probe++;
+                    node.reparent(message.parent, message.action, message.g);
+                    opened = this.isOpened(node);
+                }
+                if (opened && node.isOpen()) {
+                    // Decrease-key: the node was already counted as pending
+                    this.open.add(node);
+                    this.search.pending.decrementAndGet();
+                } else if (opened) {
+                    // The message becomes a node of the open list
+                    this.open.add(node);
+                } else {
+                    this.search.pending.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Returns a boolean indicating if a node that was created or got a cheaper path must be expanded
+         *
+         * <p>
+         * A goal node is recorded as a plan and is not expanded. <br>
+         * </p>
+         *
+         * @param node the node
+         * @return true if the node must be in the open list
+         */
+        private boolean isOpened(SearchNode node) {
+            if (ParallelAStarPlanner.this.getGoal().isSatisfiedBy(node.getState())) {
+                this.search.offer(node);
+                return false;
+            }
+            return node.getF() < this.search.bestCost.get();
+        }
+
+        /**
+         * Expands a node, sending its successors to their owners
+         *
+         * @param current the node
+         */
+        private void expand(SearchNode current) {
+            PackedState currentState = current.getState();
+            for (CompiledAction action : ParallelAStarPlanner.this.getSuccessorGenerator()
+                    .getApplicableActions(currentState)) {
+                int g = current.getG() + action.getCost();
+                if (g < this.search.bestCost.get()) {
+                    this.search.send(new Message(action.successor(currentState), current,
+                            action.getAction(), g));
+                }
+            }
+            // The node leaves the open list once its successors are counted
+            this.search.pending.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package planning;
+
+import representation.Variable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a pattern database
+ * </b>
+ *
+ * <p>
+ * A pattern is a subset of the variables of a problem. The abstraction of the problem on a pattern
+ * only keeps the values of the pattern variables: an abstract state is an assignment of the pattern
+ * variables, and the preconditions and the effects of the actions are restricted to them. <br>
+ * The pattern database stores the exact cost of reaching the goal from every abstract state, computed
+ * once by a backward uniform-cost search from the abstract goal states. Since every plan of the problem
+ * is a plan of the abstraction, the cost of the abstract state of a state never overestimates the cost
+ * of reaching the goal from the state. <br>
+ * </p>
+ *
+ * <p>
+ * The abstract states are numbered in mixed radix over the codes of the pattern variables, and the
+ * costs are stored in a table of one byte per abstract state: a cost above {@link #MAX_COST} is stored
+ * as {@link #MAX_COST}, and {@link #UNREACHABLE} marks the abstract states from which the goal cannot
+ * be reached. A lookup is an index computation and a single read. <br>
+ * The table can be saved to a file and loaded back through a memory mapping, so that it is computed
+ * only once for a goal. <br>
+ * </p>
+ *
+ * <p>
+ * Only the basic actions are abstracted, the other actions are ignored. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PatternDatabaseHeuristic
+ */
+public final class PatternDatabase {
+
+    /**
+     * The highest cost stored in a table
+     */
+    public static final int MAX_COST = 254;
+
+    /**
+     * The value of the abstract states from which the goal cannot be reached
+     */
+    public static final int UNREACHABLE = 255;
+
+    /**
+     * The maximum number of abstract states of a pattern
+     */
+    public static final int MAX_SIZE = 1 << 30;
+
+    /**
+     * The first bytes of a file of a pattern database
+     */
+    private static final int MAGIC = 0x50444231;
+
+    /**
+     * The layout of the pattern variables, whose codes number the abstract states
+     */
+    private final StateLayout layout;
+
+    /**
+     * The weight of the code of each pattern variable in the index of an abstract state
+     */
+    private final int[] strides;
+
+    /**
+     * The cost of each abstract state, one unsigned byte per state
+     */
+    private final ByteBuffer table;
+
+    /**
+     * The translation of the codes of the last state layout used, built on first use
+     */
+    private volatile Translation translation;
+
+    /**
+     * Private constructor of the class
+     *
+     * @param layout the layout of the pattern variables
+     * @param table  the cost of each abstract state
+     */
+    private PatternDatabase(StateLayout layout, ByteBuffer table) {
+        this.layout = layout;
+        this.strides = PatternDatabase.stridesOf(layout);
+        this.table = table;
+    }
+
+    /**
+     * Returns the weight of the code of each variable of a layout in the index of an abstract state
+     *
+     * @param layout the layout of the pattern variables
+     * @return the strides of the variables
+     * @throws IllegalArgumentException if the pattern has more than {@link #MAX_SIZE} abstract states
+     */
+    private static int[] stridesOf(StateLayout layout) {
+        int[] strides = new int[layout.size()];
+        long size = 1;
+        for (int i = 0; i < layout.size(); i++) {
+            strides[i] = (int) size;
+            size *= layout.getDomainSize(i);
+            if (size > PatternDatabase.MAX_SIZE) {
+                throw new IllegalArgumentException("The pattern has more than " + PatternDatabase.MAX_SIZE
+                        + " abstract states");
+            }
+        }
+        return strides;
+    }
+
+    /**
+     * <b>
+     * Builds the pattern database of a pattern
+     * </b>
+     *
+     * @param pattern the pattern variables
+     * @param actions the actions of the problem
+     * @param goal    the goal
+     * @return the pattern database
+     * @throws IllegalArgumentException if the pattern has more than {@link #MAX_SIZE} abstract states
+     */
+    public static PatternDatabase build(Collection<Variable> pattern, Set<Action> actions, Goal goal) {
+        return PatternDatabase.build(pattern, actions, goal, Collections.emptySet());
+    }
+
+    /**
+     * <b>
+     * Builds the pattern database of a pattern, with a zero cost for the actions that change other variables
+     * </b>
+     *
+     * <p>
+     * The actions that change a variable of <code>charged</code> cost nothing in the abstraction: their
+     * cost is charged to the pattern database of that variable. Pattern databases whose costs are split
+     * this way can be added without overestimating. <br>
+     * </p>
+     *
+     * @param pattern the pattern variables
+     * @param actions the actions of the problem
+     * @param goal    the goal
+     * @param charged the variables to which the cost of the actions that change them is charged
+     * @return the pattern database
+     * @throws IllegalArgumentException if the pattern has more than {@link #MAX_SIZE} abstract states
+     */
+    static PatternDatabase build(Collection<Variable> pattern, Set<Action> actions, Goal goal,
+                                 Set<Variable> charged) {
+        StateLayout layout = StateLayout.of(pattern);
+        int[] strides = PatternDatabase.stridesOf(layout);
+        int n = layout.size();
+        int size = n == 0 ? 1 : strides[n - 1] * layout.getDomainSize(n - 1);
+
+        // The same abstract action keeps its lowest cost
+        Map<List<Integer>, AbstractAction> abstractActions = new HashMap<>();
+        for (Action action : actions) {
+            if (!(action instanceof BasicAction)) {
+                continue;
+            }
+            BasicAction basicAction = (BasicAction) action;
+            int[] precondition = new int[n];
+            int[] effect = new int[n];
+            if (!PatternDatabase.project(layout, basicAction.getPrecondition(), precondition)
+                    || !PatternDatabase.project(layout, basicAction.getEffect(), effect)
+                    || Arrays.stream(effect).allMatch(code -> code == 0)) {
+                // Never applicable, or a self-loop in the abstraction
+                continue;
+            }
+            int cost = action.getCost();
+            for (Variable variable : basicAction.getEffect().keySet()) {
+                if (charged.contains(variable)) {
+                    cost = 0;
+                    break;
+                }
+            }
+            List<Integer> key = new ArrayList<>(2 * n);
+            for (int i = 0; i < n; i++) {
+                key.add(precondition[i]);
+                key.add(effect[i]);
+            }
+            AbstractAction known = abstractActions.get(key);
+            if (known == null || cost < known.cost) {
+                abstractActions.put(key, new AbstractAction(precondition, effect, cost));
+            }
+        }
+
+        int[] distances = new int[size];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        PriorityQueue<long[]> open = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+
+        // The abstract goal states: the goal codes of the pattern variables, any code for the others
+        int[] goalCodes = new int[n];
+        int[] codes = new int[n];
+        if (PatternDatabase.project(layout, goal.getGoal(), goalCodes)) {
+            for (int index = 0; index < size; index++) {
+                PatternDatabase.decode(strides, index, codes);
+                boolean isGoal = true;
+                for (int i = 0; isGoal && i < n; i++) {
+                    isGoal = goalCodes[i] == 0 || goalCodes[i] == codes[i];
+                }
+                if (isGoal) {
+                    distances[index] = 0;
+                    open.add(new long[]{0, index});
+                }
+            }
+        }
+
+        // Backward uniform-cost search, regressing the abstract states through the abstract actions
+        int[] predecessor = new int[n];
+        while (!open.isEmpty()) {
+            long[] entry = open.poll();
+            int index = (int) entry[1];
+            if (entry[0] > distances[index]) {
+                continue;
+            }
+            PatternDatabase.decode(strides, index, codes);
+            for (AbstractAction action : abstractActions.values()) {
+                if (!action.regress(codes, predecessor)) {
+                    continue;
+                }
+                int cost = distances[index] + action.cost;
+                // Enumerate the values of the variables changed by the action without precondition
+                while (true) {
+                    int previous = 0;
+                    for (int i = 0; i < n; i++) {
+                        previous += (predecessor[i] - 1) * strides[i];
+                    }
+                    if (cost < distances[previous]) {
+                        distances[previous] = cost;
+                        open.add(new long[]{cost, previous});
+                    }
+                    int i = 0;
+                    while (i < n && (!action.isFree(i) || predecessor[i] == layout.getDomainSize(i))) {
+                        if (action.isFree(i)) {
+                            predecessor[i] = 1;
+                        }
+                        i++;
+                    }
+                    if (i == n) {
+                        break;
+                    }
+                    predecessor[i]++;
+                }
+            }
+        }
+
+        byte[] table = new byte[size];
+        for (int index = 0; index < size; index++) {
+            int distance = distances[index];
+            table[index] = (byte) (distance == Integer.MAX_VALUE ? PatternDatabase.UNREACHABLE
+                    : Math.min(distance, PatternDatabase.MAX_COST));
+        }
+        return new PatternDatabase(layout, ByteBuffer.wrap(table));
+    }
+
+    /**
+     * Writes the codes of the pattern variables of an assignment
+     *
+     * @param layout     the layout of the pattern variables
+     * @param assignment the assignment (can be null)
+     * @param codes      the codes, indexed by pattern variable (0 for the variables absent from the assignment)
+     * @return false if a value of a pattern variable is not part of its domain
+     */
+    private static boolean project(StateLayout layout, Map<Variable, Object> assignment, int[] codes) {
+        if (assignment == null) {
+            return true;
+        }
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            if (index >= 0) {
+                int code = layout.codeOf(index, entry.getValue());
+                if (code < 0) {
+                    return false;
+                }
+                codes[index] = code;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the codes of the pattern variables of an abstract state
+     *
+     * @param strides the strides of the pattern variables
+     * @param index   the index of the abstract state
+     * @param codes   the codes of the pattern variables
+     */
+    private static void decode(int[] strides, int index, int[] codes) {
+        for (int i = codes.length - 1; i >= 0; i--) {
+            codes[i] = index / strides[i] + 1;
+            index %= strides[i];
+        }
+    }
+
+    /**
+     * Returns the pattern variables
+     *
+     * @return the pattern variables, ordered as in the table
+     */
+    public List<Variable> getPattern() {
+        List<Variable> pattern = new ArrayList<>(this.layout.size());
+        for (int i = 0; i < this.layout.size(); i++) {
+            pattern.add(this.layout.getVariable(i));
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns the number of abstract states
+     *
+     * @return the number of entries of the table
+     */
+    public int size() {
+        return this.table.capacity();
+    }
+
+    /**
+     * Returns the cost of an abstract state
+     *
+     * @param index the index of the abstract state
+     * @return the cost of the abstract state, {@link #UNREACHABLE} if the goal cannot be reached
+     */
+    private int costAt(int index) {
+        return this.table.get(index) & 0xFF;
+    }
+
+    /**
+     * <b>
+     * Returns the cost of reaching the goal from the abstract state of a state
+     * </b>
+     *
+     * @param state the state
+     * @return the cost of the abstract state, 0 if a pattern variable is not assigned by the state
+     * (or has a value outside its domain), {@link #UNREACHABLE} if the goal cannot be reached
+     */
+    public int lookup(Map<Variable, Object> state) {
+        int index = 0;
+        for (int i = 0; i < this.layout.size(); i++) {
+            Object value = state.get(this.layout.getVariable(i));
+            int code = value == null ? -1 : this.layout.codeOf(i, value);
+            if (code <= 0) {
+                return 0;
+            }
+            index += (code - 1) * this.strides[i];
+        }
+        return this.costAt(index);
+    }
+
+    /**
+     * <b>
+     * Returns the cost of reaching the goal from the abstract state of a packed state
+     * </b>
+     *
+     * @param state the packed state
+     * @return the cost of the abstract state, 0 if a pattern variable is not assigned by the state
+     * (or has a value outside its domain), {@link #UNREACHABLE} if the goal cannot be reached
+     */
+    public int lookup(PackedState state) {
+        StateLayout stateLayout = state.getLayout();
+        Translation translation = this.translation;
+        if (translation == null || translation.layout != stateLayout) {
+            translation = new Translation(stateLayout);
+            this.translation = translation;
+        }
+        long[] words = state.words();
+        int index = 0;
+        for (int i = 0; i < this.layout.size(); i++) {
+            int variable = translation.variables[i];
+            int code = variable < 0 ? -1 : translation.codes[i][stateLayout.read(words, variable)];
+            if (code <= 0) {
+                return 0;
+            }
+            index += (code - 1) * this.strides[i];
+        }
+        return this.costAt(index);
+    }
+
+    /**
+     * <b>
+     * Saves the pattern database to a file
+     * </b>
+     *
+     * <p>
+     * The file holds the domain size of each pattern variable followed by the table. The codes of the
+     * values are given by the layout of the pattern variables, so the file must be loaded with the same
+     * variables and domains. <br>
+     * </p>
+     *
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        int n = this.layout.size();
+        ByteBuffer header = ByteBuffer.allocate(4 * (n + 2));
+        header.putInt(PatternDatabase.MAGIC).putInt(n);
+        for (int i = 0; i < n; i++) {
+            header.putInt(this.layout.getDomainSize(i));
+        }
+        header.flip();
+        ByteBuffer table = this.table.duplicate();
+        table.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (table.hasRemaining()) {
+                channel.write(table);
+            }
+        }
+    }
+
+    /**
+     * <b>
+     * Loads a pattern database from a file, through a memory mapping
+     * </b>
+     *
+     * <p>
+     * The table is not read: its pages are loaded by the system when they are accessed. <br>
+     * </p>
+     *
+     * @param path    the path of the file
+     * @param pattern the pattern variables of the saved pattern database
+     * @return the pattern database
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a pattern database of the pattern
+     */
+    public static PatternDatabase load(Path path, Collection<Variable> pattern) throws IOException {
+        StateLayout layout = StateLayout.of(pattern);
+        int n = layout.size();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != PatternDatabase.MAGIC || buffer.getInt() != n) {
+                throw new IllegalArgumentException("The file is not a pattern database of the pattern");
+            }
+            long size = 1;
+            for (int i = 0; i < n; i++) {
+                if (buffer.remaining() < 4 || buffer.getInt() != layout.getDomainSize(i)) {
+                    throw new IllegalArgumentException("The file is not a pattern database of the pattern");
+                }
+                size *= layout.getDomainSize(i);
+            }
+            if (buffer.remaining() != size) {
+                throw new IllegalArgumentException("The table of the file does not match the pattern");
+            }
+            // The mapping stays valid after the channel is closed
+            return new PatternDatabase(layout, buffer.slice());
+        }
+    }
+
+    /**
+     * <b>
+     * Action restricted to the pattern variables
+     * </b>
+     */
+    private static final class AbstractAction {
+
+        /**
+         * The code required for each pattern variable (0 if the variable is not in the preconditions)
+         */
+        private final int[] precondition;
+
+        /**
+         * The code written in each pattern variable (0 if the variable is not changed)
+         */
+        private final int[] effect;
+
+        /**
+         * The cost of the action
+         */
+        private final int cost;
+
+        /**
+         * Constructor of the abstract action
+         *
+         * @param precondition the code required for each pattern variable
+         * @param effect       the code written in each pattern variable
+         * @param cost         the cost of the action
+         */
+        private AbstractAction(int[] precondition, int[] effect, int cost) {
+            this.precondition = precondition;
+            this.effect = effect;
+            this.cost = cost;
+        }
+
+        /**
+         * Returns a boolean indicating if a variable is changed by the action without precondition,
+         * so that any of its values can precede the action
+         *
+         * @param i the pattern variable
+         * @return true if the variable is changed without precondition
+         */
+        private boolean isFree(int i) {
+            return this.effect[i] != 0 && this.precondition[i] == 0;
+        }
+
+        /**
+         * Writes the first predecessor of an abstract state through the action
+         *
+         * @param codes       the codes of the abstract state
+         * @param predecessor the codes of the predecessor, with code 1 for the free variables
+         * @return false if the abstract state cannot be reached by the action
+         */
+        private boolean regress(int[] codes, int[] predecessor) {
+            for (int i = 0; i < codes.length; i++) {
+                if (this.effect[i] != 0) {
+                    if (codes[i] != this.effect[i]) {
+                        return false;
+                    }
+                    predecessor[i] = this.precondition[i] != 0 ? this.precondition[i] : 1;
+                } else {
+                    if (this.precondition[i] != 0 && codes[i] != this.precondition[i]) {
+                        return false;
+                    }
+                    predecessor[i] = codes[i];
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * <b>
+     * Translation of the codes of a state layout into the codes of the pattern variables
+     * </b>
+     */
+    private final class Translation {
+
+        /**
+         * The state layout
+         */
+        private final StateLayout layout;
+
+        /**
+         * The index of each pattern variable in the state layout (-1 if it is not part of it)
+         */
+        private final int[] variables;
+
+        /**
+         * The code of each pattern variable for each code of the state layout (-1 if the value is unknown)
+         */
+        private final int[][] codes;
+
+        /**
+         * Constructor of the translation
+         *
+         * @param layout the state layout
+         */
+        private Translation(StateLayout layout) {
+            StateLayout pattern = PatternDatabase.this.layout;
+            this.layout = layout;
+            this.variables = new int[pattern.size()];
+            this.codes = new int[pattern.size()][];
+            for (int i = 0; i < pattern.size(); i++) {
+                int variable = layout.indexOf(pattern.getVariable(i));
+                this.variables[i] = variable;
+                if (variable >= 0) {
+                    this.codes[i] = new int[layout.getDomainSize(variable) + 1];
+                    this.codes[i][0] = -1;
+                    for (int code = 1; code <= layout.getDomainSize(variable); code++) {
+                        this.codes[i][code] = pattern.codeOf(i, layout.valueOf(variable, code));
+                    }
+                }
+            }
+        }
+    }
+}
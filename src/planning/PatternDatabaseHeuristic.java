@@ -0,0 +1,139 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing an heuristic based on pattern databases
+ * </b>
+ *
+ * <p>
+ * The estimate of a state is obtained from the cost of its abstract state in each pattern database,
+ * a lookup in a precomputed table. <br>
+ * If the databases are not additive, the estimate is the highest of their costs. If they are
+ * additive, the estimate is the sum of their costs: this requires that no action cost is counted
+ * by two databases, which {@link #build(List, Set, Goal, boolean)} ensures by charging the cost of each
+ * action to the first pattern whose variables it changes. <br>
+ * The heuristic is admissible, and the estimate is infinite when the goal cannot be reached from
+ * an abstract state. <br>
+ * </p>
+ *
+ * <p>
+ * For the blocksworld, the patterns are subsets of the variables <code>On_b</code>,
+ * <code>Fixed_b</code> and <code>Free_p</code>, such as the <code>On_b</code> variables of a few
+ * blocks that are close in the goal configuration. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PatternDatabase
+ */
+public class PatternDatabaseHeuristic implements Heuristic {
+
+    /**
+     * The pattern databases
+     */
+    private final PatternDatabase[] databases;
+
+    /**
+     * A boolean indicating if the costs of the databases are added (or maximized)
+     */
+    private final boolean additive;
+
+    /**
+     * Constructor of the class
+     *
+     * @param databases the pattern databases
+     * @param additive  true to add the costs of the databases (they must not count the same action cost twice),
+     *                  false to take their maximum
+     */
+    public PatternDatabaseHeuristic(Collection<PatternDatabase> databases, boolean additive) {
+        this.databases = databases.toArray(new PatternDatabase[0]);
+        this.additive = additive;
+    }
+
+    /**
+     * <b>
+     * Builds the pattern databases of several patterns
+     * </b>
+     *
+     * <p>
+     * If the heuristic is additive, the cost of each action is charged to the first pattern (in the
+     * order of the list) whose variables it changes, and is zero in the databases of the following
+     * patterns. <br>
+     * </p>
+     *
+     * @param patterns the patterns, which should be disjoint
+     * @param actions  the actions of the problem
+     * @param goal     the goal
+     * @param additive true for an additive heuristic, false to take the maximum of the databases
+     * @return the heuristic
+     * @throws IllegalArgumentException if a pattern has more than {@link PatternDatabase#MAX_SIZE} abstract states
+     */
+    public static PatternDatabaseHeuristic build(List<? extends Collection<Variable>> patterns,
+                                                 Set<Action> actions, Goal goal, boolean additive) {
+        List<PatternDatabase> databases = new ArrayList<>(patterns.size());
+        Set<Variable> charged = new HashSet<>();
+        for (Collection<Variable> pattern : patterns) {
+            databases.add(PatternDatabase.build(pattern, actions, goal,
+                    additive ? charged : Collections.emptySet()));
+            charged.addAll(pattern);
+        }
+        return new PatternDatabaseHeuristic(databases, additive);
+    }
+
+    /**
+     * Returns the pattern databases
+     *
+     * @return the pattern databases
+     */
+    public List<PatternDatabase> getDatabases() {
+        return Collections.unmodifiableList(Arrays.asList(this.databases));
+    }
+
+    /**
+     * Returns a boolean indicating if the costs of the databases are added
+     *
+     * @return true if the heuristic is additive
+     */
+    public boolean isAdditive() {
+        return this.additive;
+    }
+
+    /**
+     * Combines the costs of the databases
+     *
+     * @param estimate the estimate of the previous databases
+     * @param cost     the cost of a database
+     * @return the new estimate
+     */
+    private float combine(float estimate, int cost) {
+        if (cost == PatternDatabase.UNREACHABLE) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return this.additive ? estimate + cost : Math.max(estimate, cost);
+    }
+
+    @Override
+    public float estimate(Map<Variable, Object> state) {
+        float estimate = 0;
+        for (PatternDatabase database : this.databases) {
+            estimate = this.combine(estimate, database.lookup(state));
+        }
+        return estimate;
+    }
+
+    @Override
+    public float estimate(PackedState state) {
+        float estimate = 0;
+        for (PatternDatabase database : this.databases) {
+            estimate = this.combine(estimate, database.lookup(state));
+        }
+        return estimate;
+    }
+}
@@ -0,0 +1,37 @@
+package planning;
+
+import java.util.List;
+
+/**
+ * <b>
+ * Interface representing a listener of the plans found by an anytime planner
+ * </b>
+ *
+ * <p>
+ * An anytime planner finds a first plan quickly, then cheaper plans while it is running. It notifies
+ * its listeners each time it finds a plan cheaper than the previous ones, with a bound on how far the
+ * plan can be from an optimal one. A listener can stop the planner once a plan is good enough, or
+ * when a deadline is reached. <br>
+ * The listeners are called by the thread running the planner, and should return quickly. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see AnytimeWeightedAStarPlanner
+ */
+@FunctionalInterface
+public interface PlanListener {
+
+    /**
+     * Notifies that a plan cheaper than the previous ones has been found
+     *
+     * @param plan  the plan
+     * @param cost  the cost of the plan
+     * @param bound the suboptimality bound of the plan: the cost of an optimal plan is at least
+     *              <code>cost / bound</code> (1 if the plan is optimal)
+     */
+    void planFound(List<Action> plan, int cost, float bound);
+}
@@ -0,0 +1,196 @@
+package planning;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <b>
+ * Class representing the result of a call to a planner with a {@link PlanningRequest}
+ * </b>
+ *
+ * <p>
+ * A result holds the status of the search, the plan if one was found, and the statistics of the
+ * search when it stopped: the number of expanded states, of generated states (the probe of the
+ * planner), the highest number of stored states and the duration. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public final class PlanResult {
+
+    /**
+     * <b>
+     * Enumeration of the outcomes of a search
+     * </b>
+     */
+    public enum Status {
+
+        /**
+         * A plan was found
+         */
+        SOLVED,
+
+        /**
+         * The search ended without a plan: the problem has no plan, or an incomplete planner
+         * (such as a beam search) missed it
+         */
+        UNSOLVABLE,
+
+        /**
+         * The timeout or the deadline of the request was reached
+         */
+        TIMEOUT,
+
+        /**
+         * The maximum number of expanded or stored states of the request was reached
+         */
+        BUDGET_EXCEEDED,
+
+        /**
+         * The cancellation token of the request was cancelled, or the planner was stopped (see
+         * {@link AnytimeWeightedAStarPlanner#stop()})
+         */
+        CANCELLED
+    }
+
+    /**
+     * The status of the search
+     */
+    private final Status status;
+
+    /**
+     * The plan found (null if no plan was found, an anytime planner stopped by a limit keeps its best plan)
+     */
+    private final List<Action> plan;
+
+    /**
+     * The number of expanded states
+     */
+    private final long expansions;
+
+    /**
+     * The number of generated states
+     */
+    private final long generated;
+
+    /**
+     * The highest number of states stored by the search
+     */
+    private final long storedNodes;
+
+    /**
+     * The duration of the search, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor of the class
+     *
+     * @param status       the status of the search
+     * @param plan         the plan found, or null (a search stopped by a limit can keep its best plan)
+     * @param expansions   the number of expanded states
+     * @param generated    the number of generated states
+     * @param storedNodes  the highest number of states stored by the search
+     * @param elapsedNanos the duration of the search, in nanoseconds
+     */
+    public PlanResult(Status status, List<Action> plan, long expansions, long generated, long storedNodes,
+                      long elapsedNanos) {
+        this.status = status;
+        this.plan = plan == null ? null : Collections.unmodifiableList(plan);
+        this.expansions = expansions;
+        this.generated = generated;
+        this.storedNodes = storedNodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the status of the search
+     *
+     * @return the status of the search
+     */
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Returns a boolean indicating if a plan was found
+     *
+     * @return true if the status is {@link Status#SOLVED}
+     */
+    public boolean isSolved() {
+        return this.status == Status.SOLVED;
+    }
+
+    /**
+     * Returns the plan found
+     *
+     * @return the plan, or null if no plan was found (a plan can come with the status of a limit,
+     * see {@link AnytimeWeightedAStarPlanner})
+     */
+    public List<Action> getPlan() {
+        return this.plan;
+    }
+
+    /**
+     * Returns the cost of the plan found
+     *
+     * @return the sum of the costs of the actions of the plan, or -1 if no plan was found
+     */
+    public int getCost() {
+        if (this.plan == null) {
+            return -1;
+        }
+        int cost = 0;
+        for (Action action : this.plan) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+
+    /**
+     * Returns the number of expanded states
+     *
+     * @return the number of expanded states
+     */
+    public long getExpansions() {
+        return this.expansions;
+    }
+
+    /**
+     * Returns the number of generated states
+     *
+     * @return the number of generated states
+     */
+    public long getGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * Returns the highest number of states stored by the search
+     *
+     * @return the highest number of stored states
+     */
+    public long getStoredNodes() {
+        return this.storedNodes;
+    }
+
+    /**
+     * Returns the duration of the search
+     *
+     * @return the duration of the search, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanResult [status=" + this.status + ", cost=" + this.getCost() + ", expansions=" + this.expansions
+                + ", generated=" + this.generated + ", storedNodes=" + this.storedNodes
+                + ", elapsedMillis=" + this.elapsedNanos / 1000000 + "]";
+    }
+}
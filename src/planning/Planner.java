@@ -59,5 +59,31 @@ public interface Planner {
      */
     List<Action> plan();
 
+    /**
+     * <b>
+     * Searches a plan within the limits of a request
+     * </b>
+     *
+     * <p>
+     * The search stops when a limit of the request is reached, and the result tells why it stopped.
+     * By default, the limits are only checked before the search: the planners extending
+     * {@link AbstractPlanner} check them in their main loop. <br>
+     * </p>
+     *
+     * @param request the limits of the search
+     * @return the result of the search, with the plan if one was found
+     */
+    default PlanResult plan(PlanningRequest request) {
+        SearchBudget budget = new SearchBudget(request);
+        try {
+            budget.check();
+        } catch (SearchBudget.Stop stop) {
+            return new PlanResult(stop.getStatus(), null, 0, 0, 0, budget.getElapsedNanos());
+        }
+        List<Action> plan = this.plan();
+        return new PlanResult(plan == null ? PlanResult.Status.UNSOLVABLE : PlanResult.Status.SOLVED, plan,
+                0, 0, 0, budget.getElapsedNanos());
+    }
+
 
 }
@@ -0,0 +1,217 @@
+package planning;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>
+ * Class representing the limits of a call to a planner
+ * </b>
+ *
+ * <p>
+ * A request bounds the time and the memory a planner may use to solve a problem:
+ * </p>
+ * <ul>
+ *     <li>a timeout, counted from the start of the search, and a wall-clock deadline</li>
+ *     <li>a maximum number of expanded states</li>
+ *     <li>a maximum number of states stored by the search</li>
+ *     <li>a {@link CancellationToken} that another thread can cancel</li>
+ * </ul>
+ *
+ * <p>
+ * A request is immutable: the methods <code>with...</code> return a copy of the request with one
+ * more limit. The default request has no limit. <br>
+ * The planner checks the limits in its main loop, and the time and the token every few expansions
+ * only, so a planner may slightly exceed its time before it stops (see {@link Planner#plan(PlanningRequest)}). <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PlanResult
+ */
+public final class PlanningRequest {
+
+    /**
+     * The value of a limit that is not set
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * The maximum duration of the search, in nanoseconds
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The wall-clock deadline of the search, in milliseconds since the epoch
+     */
+    private final long deadlineMillis;
+
+    /**
+     * The maximum number of expanded states
+     */
+    private final long maxExpansions;
+
+    /**
+     * The maximum number of states stored by the search
+     */
+    private final long maxStoredNodes;
+
+    /**
+     * The cancellation token (null if the request cannot be cancelled)
+     */
+    private final CancellationToken token;
+
+    /**
+     * Constructor of a request without limits
+     */
+    public PlanningRequest() {
+        this(PlanningRequest.UNLIMITED, PlanningRequest.UNLIMITED, PlanningRequest.UNLIMITED,
+                PlanningRequest.UNLIMITED, null);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param timeoutNanos   the maximum duration of the search, in nanoseconds
+     * @param deadlineMillis the wall-clock deadline of the search, in milliseconds since the epoch
+     * @param maxExpansions  the maximum number of expanded states
+     * @param maxStoredNodes the maximum number of states stored by the search
+     * @param token          the cancellation token, or null
+     */
+    private PlanningRequest(long timeoutNanos, long deadlineMillis, long maxExpansions, long maxStoredNodes,
+                            CancellationToken token) {
+        this.timeoutNanos = timeoutNanos;
+        this.deadlineMillis = deadlineMillis;
+        this.maxExpansions = maxExpansions;
+        this.maxStoredNodes = maxStoredNodes;
+        this.token = token;
+    }
+
+    /**
+     * Checks that a limit is positive
+     *
+     * @param limit the limit
+     * @param name  the name of the limit
+     * @return the limit
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    private static long check(long limit, String name) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The " + name + " must be positive");
+        }
+        return limit;
+    }
+
+    /**
+     * Returns a copy of the request with a timeout, counted from the start of the search
+     *
+     * @param timeout the maximum duration of the search
+     * @param unit    the unit of the timeout
+     * @return the new request
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public PlanningRequest withTimeout(long timeout, TimeUnit unit) {
+        return new PlanningRequest(unit.toNanos(PlanningRequest.check(timeout, "timeout")), this.deadlineMillis,
+                this.maxExpansions, this.maxStoredNodes, this.token);
+    }
+
+    /**
+     * Returns a copy of the request with a wall-clock deadline
+     *
+     * @param deadlineMillis the deadline, in milliseconds since the epoch (see {@link System#currentTimeMillis()})
+     * @return the new request
+     */
+    public PlanningRequest withDeadline(long deadlineMillis) {
+        return new PlanningRequest(this.timeoutNanos, deadlineMillis, this.maxExpansions, this.maxStoredNodes,
+                this.token);
+    }
+
+    /**
+     * Returns a copy of the request with a maximum number of expanded states
+     *
+     * @param maxExpansions the maximum number of expanded states
+     * @return the new request
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public PlanningRequest withMaxExpansions(long maxExpansions) {
+        return new PlanningRequest(this.timeoutNanos, this.deadlineMillis,
+                PlanningRequest.check(maxExpansions, "maximum number of expansions"), this.maxStoredNodes, this.token);
+    }
+
+    /**
+     * Returns a copy of the request with a maximum number of states stored by the search
+     *
+     * @param maxStoredNodes the maximum number of stored states
+     * @return the new request
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public PlanningRequest withMaxStoredNodes(long maxStoredNodes) {
+        return new PlanningRequest(this.timeoutNanos, this.deadlineMillis, this.maxExpansions,
+                PlanningRequest.check(maxStoredNodes, "maximum number of stored nodes"), this.token);
+    }
+
+    /**
+     * Returns a copy of the request with a cancellation token
+     *
+     * @param token the cancellation token
+     * @return the new request
+     */
+    public PlanningRequest withCancellationToken(CancellationToken token) {
+        return new PlanningRequest(this.timeoutNanos, this.deadlineMillis, this.maxExpansions, this.maxStoredNodes,
+                token);
+    }
+
+    /**
+     * Returns the maximum duration of the search
+     *
+     * @return the timeout in nanoseconds, or {@link #UNLIMITED}
+     */
+    public long getTimeoutNanos() {
+        return this.timeoutNanos;
+    }
+
+    /**
+     * Returns the wall-clock deadline of the search
+     *
+     * @return the deadline in milliseconds since the epoch, or {@link #UNLIMITED}
+     */
+    public long getDeadlineMillis() {
+        return this.deadlineMillis;
+    }
+
+    /**
+     * Returns the maximum number of expanded states
+     *
+     * @return the maximum number of expanded states, or {@link #UNLIMITED}
+     */
+    public long getMaxExpansions() {
+        return this.maxExpansions;
+    }
+
+    /**
+     * Returns the maximum number of states stored by the search
+     *
+     * @return the maximum number of stored states, or {@link #UNLIMITED}
+     */
+    public long getMaxStoredNodes() {
+        return this.maxStoredNodes;
+    }
+
+    /**
+     * Returns the cancellation token
+     *
+     * @return the cancellation token, or null if the request cannot be cancelled
+     */
+    public CancellationToken getCancellationToken() {
+        return this.token;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanningRequest [timeoutNanos=" + this.timeoutNanos + ", deadlineMillis=" + this.deadlineMillis
+                + ", maxExpansions=" + this.maxExpansions + ", maxStoredNodes=" + this.maxStoredNodes
+                + ", cancellable=" + (this.token != null) + "]";
+    }
+}
@@ -0,0 +1,36 @@
+package planning;
+
+import java.util.Set;
+
+/**
+ * <b>
+ * Interface representing an heuristic that also finds the preferred operators of a state
+ * </b>
+ *
+ * <p>
+ * The preferred operators of a state are the applicable actions that the heuristic considers as
+ * promising, such as the helpful actions of the relaxed plan of {@link FFHeuristic}: the actions
+ * of the relaxed plan that are applicable in the state. <br>
+ * The satisficing planners expand the successors reached by preferred operators first
+ * (see {@link GreedyBestFirstPlanner} and {@link EnforcedHillClimbingPlanner}). <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public interface PreferredOperatorsHeuristic extends Heuristic {
+
+    /**
+     * <b>
+     * Returns the estimated cost of the path from a packed state to the goal, and finds its preferred operators
+     * </b>
+     *
+     * @param state     the packed state
+     * @param preferred the set in which the preferred operators of the state are added
+     * @return the estimated cost of the path from the state to the goal
+     */
+    float estimate(PackedState state, Set<Action> preferred);
+}
@@ -0,0 +1,641 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Abstract class representing an heuristic computed on the delete relaxation of a problem
+ * </b>
+ *
+ * <p>
+ * In the delete relaxation, a variable can hold several values at once: an action only adds the
+ * facts (variable = value) of its effects and never removes the facts it overwrites. The cost of
+ * reaching each fact from a state is computed by a uniform-cost propagation over the actions, an
+ * action being triggered when all the facts of its preconditions are reached. <br>
+ * The subclasses decide how the costs of the preconditions of an action are combined (their maximum
+ * or their sum) and how the estimate is derived from the costs of the goal facts. <br>
+ * </p>
+ *
+ * <p>
+ * The facts and the basic actions are compiled once for a layout into a fact graph stored in flat
+ * arrays, and each evaluation reuses the buffers of the calling thread, so an evaluation is linear
+ * in the size of the actions (up to the logarithmic cost of the priority queue) and allocates nothing. <br>
+ * Only the basic actions are relaxed, the other actions are ignored. A fact of the state or of an
+ * action that is not part of the layout is ignored, an action whose preconditions are not part of
+ * the layout is never triggered. <br>
+ * When the goal cannot be reached in the relaxation, it cannot be reached at all, and the estimate
+ * is {@link Float#POSITIVE_INFINITY}. This only holds if all the actions are basic: otherwise, the
+ * goal facts that are not reached cost nothing, since another action may reach them. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see HMaxHeuristic
+ * @see HAddHeuristic
+ * @see FFHeuristic
+ */
+public abstract class RelaxationHeuristic implements Heuristic {
+
+    /**
+     * The cost of a fact that is not reached
+     */
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * The actions of the problem
+     */
+    private final Set<Action> actions;
+
+    /**
+     * The goal
+     */
+    private final Goal goal;
+
+    /**
+     * A boolean indicating if the costs of the preconditions of an action are summed (or maximized)
+     */
+    private final boolean additive;
+
+    /**
+     * The fact graph of the last layout used, built on first use
+     */
+    private volatile FactGraph graph;
+
+    /**
+     * Constructor of the class
+     *
+     * @param actions  the actions of the problem
+     * @param goal     the goal
+     * @param additive true to sum the costs of the preconditions of an action, false to take their maximum
+     */
+    protected RelaxationHeuristic(Set<Action> actions, Goal goal, boolean additive) {
+        this.actions = actions;
+        this.goal = goal;
+        this.additive = additive;
+    }
+
+    /**
+     * Returns the actions of the problem
+     *
+     * @return the actions of the problem
+     */
+    public Set<Action> getActions() {
+        return this.actions;
+    }
+
+    /**
+     * Returns the goal
+     *
+     * @return the goal
+     */
+    public Goal getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * Returns the fact graph of a layout, building it if the layout is not the one of the last call
+     *
+     * @param layout the layout, or null to use the last layout (or a layout of the actions and the goal)
+     * @return the fact graph of the layout
+     */
+    private FactGraph getGraph(StateLayout layout) {
+        FactGraph graph = this.graph;
+        if (graph == null || (layout != null && graph.layout != layout)) {
+            if (layout == null) {
+                layout = StateLayout.of(null, this.actions, this.goal);
+            }
+            graph = new FactGraph(layout, this.actions, this.goal.getGoal());
+            this.graph = graph;
+        }
+        return graph;
+    }
+
+    @Override
+    public float estimate(Map<Variable, Object> state) {
+        FactGraph graph = this.getGraph(null);
+        Workspace workspace = graph.getWorkspace();
+        workspace.reset();
+        StateLayout layout = graph.layout;
+        for (Map.Entry<Variable, Object> entry : state.entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            int code = index < 0 ? -1 : layout.codeOf(index, entry.getValue());
+            if (code > 0) {
+                workspace.reach(graph.factOffset[index] + code - 1, 0, -1);
+            }
+        }
+        return this.evaluate(graph, workspace);
+    }
+
+    @Override
+    public float estimate(PackedState state) {
+        return this.estimate(state, null);
+    }
+
+    /**
+     * <b>
+     * Returns the estimated cost of the path from a packed state to the goal, and collects the preferred
+     * operators found by the subclass
+     * </b>
+     *
+     * @param state     the packed state
+     * @param preferred the set in which the preferred operators are added, or null if they are not needed
+     * @return the estimated cost of the path from the state to the goal
+     */
+    float estimate(PackedState state, Set<Action> preferred) {
+        FactGraph graph = this.getGraph(state.getLayout());
+        Workspace workspace = graph.getWorkspace();
+        workspace.reset();
+        long[] words = state.words();
+        for (int i = 0; i < graph.factOffset.length; i++) {
+            int code = graph.layout.read(words, i);
+            if (code > 0) {
+                workspace.reach(graph.factOffset[i] + code - 1, 0, -1);
+            }
+        }
+        workspace.preferred = preferred;
+        try {
+            return this.evaluate(graph, workspace);
+        } finally {
+            workspace.preferred = null;
+        }
+    }
+
+    /**
+     * <b>
+     * Propagates the costs of the facts of the state and returns the estimate
+     * </b>
+     *
+     * @param graph     the fact graph
+     * @param workspace the buffers, in which the facts of the state are reached
+     * @return the estimated cost of the path from the state to the goal
+     */
+    private float evaluate(FactGraph graph, Workspace workspace) {
+        if (graph.goalFacts == null) {
+            return Float.POSITIVE_INFINITY;
+        }
+        this.propagate(graph, workspace);
+        for (int fact : graph.goalFacts) {
+            if (workspace.factCost[fact] == RelaxationHeuristic.UNREACHED) {
+                if (graph.allRelaxed) {
+                    return Float.POSITIVE_INFINITY;
+                }
+                workspace.factCost[fact] = 0;
+                workspace.achiever[fact] = -1;
+            }
+        }
+        return this.value(graph, workspace);
+    }
+
+    /**
+     * <b>
+     * Computes the cost of the facts in the relaxation, by a uniform-cost propagation
+     * </b>
+     *
+     * <p>
+     * The propagation stops as soon as all the goal facts are settled. <br>
+     * </p>
+     *
+     * @param graph     the fact graph
+     * @param workspace the buffers, in which the facts of the state are reached
+     */
+    private void propagate(FactGraph graph, Workspace workspace) {
+        for (int action : graph.unconditional) {
+            this.trigger(graph, workspace, action, 0);
+        }
+        int goalsLeft = graph.goalFacts.length;
+        int[] goalCount = graph.goalCount;
+        while (goalsLeft > 0 && workspace.size > 0) {
+            int cost = workspace.heapCost[0];
+            int fact = workspace.pop();
+            if (cost > workspace.factCost[fact]) {
+                // Stale entry, the fact was reached again with a lower cost
+                continue;
+            }
+            goalsLeft -= goalCount[fact];
+            for (int i = graph.triggeredStart[fact]; i < graph.triggeredStart[fact + 1]; i++) {
+                int action = graph.triggered[i];
+                workspace.actionCost[action] = this.additive
+                        ? workspace.actionCost[action] + cost
+                        : Math.max(workspace.actionCost[action], cost);
+                if (--workspace.remaining[action] == 0) {
+                    this.trigger(graph, workspace, action, workspace.actionCost[action]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reaches the effects of an action whose preconditions are all reached
+     *
+     * @param graph     the fact graph
+     * @param workspace the buffers
+     * @param action    the action
+     * @param cost      the cost of the preconditions of the action
+     */
+    private void trigger(FactGraph graph, Workspace workspace, int action, int cost) {
+        int reached = cost + graph.actionCost[action];
+        for (int i = graph.effectStart[action]; i < graph.effectStart[action + 1]; i++) {
+            workspace.reach(graph.effects[i], reached, action);
+        }
+    }
+
+    /**
+     * <b>
+     * Returns the estimate once the costs of the facts are computed
+     * </b>
+     *
+     * @param graph     the fact graph
+     * @param workspace the buffers, holding the cost and the best achiever of each fact
+     * @return the estimated cost of the path from the state to the goal (all the goal facts are reached)
+     */
+    abstract float value(FactGraph graph, Workspace workspace);
+
+    /**
+     * <b>
+     * Facts and relaxed actions of a layout, stored in flat arrays
+     * </b>
+     *
+     * <p>
+     * The fact <code>(i, code)</code> has the index <code>factOffset[i] + code - 1</code>. The lists of
+     * the preconditions and the effects of each action, and of the actions triggered by each fact, are
+     * stored one after the other, with the start of each list in a separate array. <br>
+     * </p>
+     */
+    static final class FactGraph {
+
+        /**
+         * The layout of the states
+         */
+        final StateLayout layout;
+
+        /**
+         * The index of the first fact of each variable
+         */
+        final int[] factOffset;
+
+        /**
+         * The number of facts
+         */
+        final int factCount;
+
+        /**
+         * The basic action of each relaxed action
+         */
+        final Action[] actions;
+
+        /**
+         * True if all the actions are basic actions, so the facts that are not reached in the relaxation cannot be reached
+         */
+        final boolean allRelaxed;
+
+        /**
+         * The cost of each action
+         */
+        final int[] actionCost;
+
+        /**
+         * The number of preconditions of each action
+         */
+        final int[] preconditionCount;
+
+        /**
+         * The start of the preconditions of each action in <code>preconditions</code>
+         */
+        final int[] preconditionStart;
+
+        /**
+         * The preconditions of the actions
+         */
+        final int[] preconditions;
+
+        /**
+         * The start of the effects of each action in <code>effects</code>
+         */
+        final int[] effectStart;
+
+        /**
+         * The effects of the actions
+         */
+        final int[] effects;
+
+        /**
+         * The start of the actions of each fact in <code>triggered</code>
+         */
+        final int[] triggeredStart;
+
+        /**
+         * The actions whose preconditions contain each fact
+         */
+        final int[] triggered;
+
+        /**
+         * The actions without preconditions
+         */
+        final int[] unconditional;
+
+        /**
+         * The goal facts, or null if a goal fact is not part of the layout
+         */
+        final int[] goalFacts;
+
+        /**
+         * The number of occurrences of each fact in the goal facts
+         */
+        final int[] goalCount;
+
+        /**
+         * The buffers of each thread
+         */
+        private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(() -> new Workspace(this));
+
+        /**
+         * Constructor of the fact graph
+         *
+         * @param layout  the layout of the states
+         * @param actions the actions of the problem
+         * @param goal    the goal assignment
+         */
+        FactGraph(StateLayout layout, Collection<Action> actions, Map<Variable, Object> goal) {
+            this.layout = layout;
+            this.factOffset = new int[layout.size()];
+            int facts = 0;
+            for (int i = 0; i < layout.size(); i++) {
+                this.factOffset[i] = facts;
+                facts += layout.getDomainSize(i);
+            }
+            this.factCount = facts;
+
+            // Compile the preconditions and the effects of the basic actions
+            List<int[]> preconditionLists = new ArrayList<>();
+            List<int[]> effectLists = new ArrayList<>();
+            List<Action> relaxed = new ArrayList<>();
+            List<Integer> costs = new ArrayList<>();
+            boolean allRelaxed = true;
+            for (Action action : actions) {
+                if (!(action instanceof BasicAction)) {
+                    allRelaxed = false;
+                    continue;
+                }
+                BasicAction basicAction = (BasicAction) action;
+                int[] precondition = this.factsOf(basicAction.getPrecondition());
+                int[] effect = this.factsOf(basicAction.getEffect());
+                if (precondition != null && effect != null && effect.length > 0) {
+                    preconditionLists.add(precondition);
+                    effectLists.add(effect);
+                    relaxed.add(action);
+                    costs.add(action.getCost());
+                }
+            }
+            int actionCount = costs.size();
+            this.actions = relaxed.toArray(new Action[0]);
+            this.allRelaxed = allRelaxed;
+            this.actionCost = new int[actionCount];
+            this.preconditionCount = new int[actionCount];
+            this.preconditionStart = new int[actionCount + 1];
+            this.effectStart = new int[actionCount + 1];
+            this.triggeredStart = new int[this.factCount + 1];
+            List<Integer> unconditional = new ArrayList<>();
+            for (int a = 0; a < actionCount; a++) {
+                this.actionCost[a] = costs.get(a);
+                this.preconditionCount[a] = preconditionLists.get(a).length;
+                this.preconditionStart[a + 1] = this.preconditionStart[a] + preconditionLists.get(a).length;
+                this.effectStart[a + 1] = this.effectStart[a] + effectLists.get(a).length;
+                for (int fact : preconditionLists.get(a)) {
+                    this.triggeredStart[fact + 1]++;
+                }
+                if (preconditionLists.get(a).length == 0) {
+                    unconditional.add(a);
+                }
+            }
+            this.preconditions = new int[this.preconditionStart[actionCount]];
+            this.effects = new int[this.effectStart[actionCount]];
+            for (int a = 0; a < actionCount; a++) {
+                System.arraycopy(preconditionLists.get(a), 0, this.preconditions, this.preconditionStart[a],
+                        this.preconditionCount[a]);
+                System.arraycopy(effectLists.get(a), 0, this.effects, this.effectStart[a],
+                        effectLists.get(a).length);
+            }
+            for (int f = 0; f < this.factCount; f++) {
+                this.triggeredStart[f + 1] += this.triggeredStart[f];
+            }
+            this.triggered = new int[this.triggeredStart[this.factCount]];
+            int[] cursors = Arrays.copyOf(this.triggeredStart, this.factCount);
+            for (int a = 0; a < actionCount; a++) {
+                for (int fact : preconditionLists.get(a)) {
+                    this.triggered[cursors[fact]++] = a;
+                }
+            }
+            this.unconditional = unconditional.stream().mapToInt(Integer::intValue).toArray();
+
+            this.goalFacts = this.factsOf(goal);
+            this.goalCount = new int[this.factCount];
+            if (this.goalFacts != null) {
+                for (int fact : this.goalFacts) {
+                    this.goalCount[fact]++;
+                }
+            }
+        }
+
+        /**
+         * Returns the facts of an assignment
+         *
+         * @param assignment the assignment (null for an empty assignment)
+         * @return the indices of the facts, or null if a fact is not part of the layout
+         */
+        private int[] factsOf(Map<Variable, Object> assignment) {
+            if (assignment == null) {
+                return new int[0];
+            }
+            int[] facts = new int[assignment.size()];
+            int i = 0;
+            for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+                int index = this.layout.indexOf(entry.getKey());
+                int code = index < 0 ? -1 : this.layout.codeOf(index, entry.getValue());
+                if (code <= 0) {
+                    return null;
+                }
+                facts[i++] = this.factOffset[index] + code - 1;
+            }
+            return facts;
+        }
+
+        /**
+         * Returns the buffers of the calling thread
+         *
+         * @return the buffers of the calling thread
+         */
+        Workspace getWorkspace() {
+            return this.workspaces.get();
+        }
+    }
+
+    /**
+     * <b>
+     * Buffers of an evaluation, reused by the evaluations of a thread
+     * </b>
+     */
+    static final class Workspace {
+
+        /**
+         * The fact graph
+         */
+        private final FactGraph graph;
+
+        /**
+         * The cost of each fact ({@link #UNREACHED} if the fact is not reached)
+         */
+        final int[] factCost;
+
+        /**
+         * The action that reached each fact with its cost (-1 for the facts of the state)
+         */
+        final int[] achiever;
+
+        /**
+         * The combined cost of the reached preconditions of each action
+         */
+        final int[] actionCost;
+
+        /**
+         * The number of preconditions of each action that are not reached yet
+         */
+        final int[] remaining;
+
+        /**
+         * The facts of the priority queue
+         */
+        private final int[] heapFact;
+
+        /**
+         * The costs of the entries of the priority queue
+         */
+        private final int[] heapCost;
+
+        /**
+         * The number of entries of the priority queue
+         */
+        private int size;
+
+        /**
+         * The mark of each fact, equal to <code>stamp</code> when the fact is marked
+         */
+        final int[] factMark;
+
+        /**
+         * The mark of each action, equal to <code>stamp</code> when the action is marked
+         */
+        final int[] actionMark;
+
+        /**
+         * The current mark, changed at each evaluation so that the marks never need to be cleared
+         */
+        int stamp;
+
+        /**
+         * A stack of facts
+         */
+        final int[] stack;
+
+        /**
+         * The set in which the preferred operators of the evaluated state are added (null if they are not needed)
+         */
+        Set<Action> preferred;
+
+        /**
+         * Constructor of the buffers
+         *
+         * @param graph the fact graph
+         */
+        private Workspace(FactGraph graph) {
+            this.graph = graph;
+            int actionCount = graph.actionCost.length;
+            this.factCost = new int[graph.factCount];
+            this.achiever = new int[graph.factCount];
+            this.actionCost = new int[actionCount];
+            this.remaining = new int[actionCount];
+            // A fact enters the queue once for the state and at most once per effect of a triggered action
+            this.heapFact = new int[graph.factCount + graph.effects.length];
+            this.heapCost = new int[this.heapFact.length];
+            this.factMark = new int[graph.factCount];
+            this.actionMark = new int[actionCount];
+            this.stack = new int[graph.factCount];
+        }
+
+        /**
+         * Resets the buffers before an evaluation
+         */
+        private void reset() {
+            Arrays.fill(this.factCost, RelaxationHeuristic.UNREACHED);
+            Arrays.fill(this.actionCost, 0);
+            System.arraycopy(this.graph.preconditionCount, 0, this.remaining, 0, this.remaining.length);
+            this.size = 0;
+            if (++this.stamp == 0) {
+                Arrays.fill(this.factMark, 0);
+                Arrays.fill(this.actionMark, 0);
+                this.stamp = 1;
+            }
+        }
+
+        /**
+         * Reaches a fact, if its cost is lower than its current cost
+         *
+         * @param fact     the fact
+         * @param cost     the cost of the fact
+         * @param achiever the action that reaches the fact (-1 for a fact of the state)
+         */
+        private void reach(int fact, int cost, int achiever) {
+            if (cost >= this.factCost[fact]) {
+                return;
+            }
+            this.factCost[fact] = cost;
+            this.achiever[fact] = achiever;
+            int i = this.size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (this.heapCost[parent] <= cost) {
+                    break;
+                }
+                this.heapFact[i] = this.heapFact[parent];
+                this.heapCost[i] = this.heapCost[parent];
+                i = parent;
+            }
+            this.heapFact[i] = fact;
+            this.heapCost[i] = cost;
+        }
+
+        /**
+         * Removes the entry of lowest cost of the priority queue
+         *
+         * @return the fact of the entry
+         */
+        private int pop() {
+            int top = this.heapFact[0];
+            int fact = this.heapFact[--this.size];
+            int cost = this.heapCost[this.size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= this.size) {
+                    break;
+                }
+                if (child + 1 < this.size && this.heapCost[child + 1] < this.heapCost[child]) {
+                    child++;
+                }
+                if (this.heapCost[child] >= cost) {
+                    break;
+                }
+                this.heapFact[i] = this.heapFact[child];
+                this.heapCost[i] = this.heapCost[child];
+                i = child;
+            }
+            this.heapFact[i] = fact;
+            this.heapCost[i] = cost;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing a planner using the SMA* algorithm (Simplified Memory-bounded A*)
+ * </b>
+ *
+ * <p>
+ * SMA* behaves like A* as long as the number of stored nodes stays under a budget. When the budget is
+ * reached, the worst leaf (highest f-value, shallowest) is forgotten and its f-value is backed up into
+ * its parent, which remembers the f-value of each of its forgotten children. A node whose forgotten
+ * children become the most promising is expanded again to regenerate them, and a regenerated child
+ * gets back the f-value it had when it was forgotten, so a subtree that was searched is not searched
+ * again from its first f-value. <br>
+ * These f-values are not counted in the budget, a node keeps at most one per applicable action. <br>
+ * The f-value of a node is the best f-value of the plans known to go through it, so the search never
+ * expands a node more than needed and never stores more nodes than the budget. <br>
+ * </p>
+ *
+ * <p>
+ * A state is stored once: a successor whose state is already stored with a path that is not more
+ * expensive is not generated, and a stored leaf is forgotten when a cheaper path to its state is found. <br>
+ * </p>
+ *
+ * <p>
+ * With an admissible heuristic, SMA* returns an optimal plan if the path to it fits in the budget. Unlike
+ * {@link BeamPlanner}, it never silently drops a state: a forgotten state is regenerated when needed. <br>
+ * The price is time: when the budget is much smaller than the number of states with the same f-value,
+ * the same states are forgotten and regenerated many times. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see AStarPlanner
+ */
+public class SMAStarPlanner extends AbstractPlanner {
+
+    /**
+     * The heuristic
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * The maximum number of nodes stored at the same time
+     */
+    private final int maxNodes;
+
+    /**
+     * Constructor of the class
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal
+     * @param heuristic    the heuristic
+     * @param maxNodes     the maximum number of nodes stored at the same time
+     * @throws IllegalArgumentException if the budget is lower than 2
+     */
+    public SMAStarPlanner(Map<Variable, Object> initialState, Set<Action> actions,
+                          Goal goal, Heuristic heuristic, int maxNodes) {
+        super(initialState, actions, goal);
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("The node budget must be at least 2");
+        }
+        this.heuristic = heuristic;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param problem   the problem
+     * @param heuristic the heuristic
+     * @param maxNodes  the maximum number of nodes stored at the same time
+     * @throws IllegalArgumentException if the budget is lower than 2
+     */
+    public SMAStarPlanner(PlanningProblem problem, Heuristic heuristic, int maxNodes) {
+        super(problem);
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("The node budget must be at least 2");
+        }
+        this.heuristic = heuristic;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Returns the heuristic
+     *
+     * @return the heuristic
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns the maximum number of nodes stored at the same time
+     *
+     * @return the node budget
+     */
+    public int getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    @Override
+    public List<Action> plan() {
+        this.resetProbe();
+        return new Search().run();
+    }
+
+    /**
+     * <b>
+     * Node of the SMA* search tree
+     * </b>
+     */
+    private static final class Node {
+
+        /**
+         * The state of the node
+         */
+        private final PackedState state;
+
+        /**
+         * The parent of the node (null for the root)
+         */
+        private final Node parent;
+
+        /**
+         * The action that leads from the state of the parent to the state of the node
+         */
+        private final Action action;
+
+        /**
+         * The cost of the path from the initial state
+         */
+        private final int g;
+
+        /**
+         * The depth of the node
+         */
+        private final int depth;
+
+        /**
+         * The identifier of the node, used to break the remaining ties
+         */
+        private final long id;
+
+        /**
+         * The children of the node that are stored
+         */
+        private final List<Node> children = new ArrayList<>();
+
+        /**
+         * The best f-value of the plans known to go through the node
+         */
+        private float f;
+
+        /**
+         * The best f-value of the forgotten children of the node
+         */
+        private float forgotten = Float.POSITIVE_INFINITY;
+
+        /**
+         * The f-value of each forgotten child of the node, by state (null if no child is forgotten)
+         */
+        private Map<PackedState, Float> forgottenValues;
+
+        /**
+         * The priority of the node in the open list (its f-value for a leaf,
+         * the best f-value of its forgotten children otherwise)
+         */
+        private float key;
+
+        /**
+         * Constructor of the node
+         *
+         * @param state  the state of the node
+         * @param parent the parent of the node
+         * @param action the action that leads from the state of the parent to the state of the node
+         * @param g      the cost of the path from the initial state
+         * @param f      the f-value of the node
+         * @param id     the identifier of the node
+         */
+        private Node(PackedState state, Node parent, Action action, int g, float f, long id) {
+            this.state = state;
+            this.parent = parent;
+            this.action = action;
+            this.g = g;
+            this.f = f;
+            this.key = f;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.id = id;
+        }
+
+        /**
+         * Remembers the f-value of a child that is forgotten
+         *
+         * @param child the state of the child
+         * @param f     the f-value of the child
+         */
+        private void forget(PackedState child, float f) {
+            this.forgotten = Math.min(this.forgotten, f);
+            if (this.forgottenValues == null) {
+                this.forgottenValues = new HashMap<>();
+            }
+            this.forgottenValues.merge(child, f, Math::min);
+        }
+
+        /**
+         * Returns a boolean indicating if the node has no stored child
+         *
+         * @return true if the node is a leaf
+         */
+        private boolean isLeaf() {
+            return this.children.isEmpty();
+        }
+    }
+
+    /**
+     * <b>
+     * State of one call to {@link #plan()}
+     * </b>
+     */
+    private final class Search {
+
+        /**
+         * The expandable nodes, the best is the lowest key then the deepest
+         */
+        private final TreeSet<Node> open = new TreeSet<>((a, b) -> {
+            int cmp = Float.compare(a.key, b.key);
+            if (cmp == 0) {
+                cmp = Integer.compare(b.depth, a.depth);
+            }
+            return cmp != 0 ? cmp : Long.compare(a.id, b.id);
+        });
+
+        /**
+         * The stored leaves, the worst is the highest f-value then the shallowest
+         */
+        private final TreeSet<Node> leaves = new TreeSet<>((a, b) -> {
+            int cmp = Float.compare(a.f, b.f);
+            if (cmp == 0) {
+                cmp = Integer.compare(b.depth, a.depth);
+            }
+            return cmp != 0 ? cmp : Long.compare(a.id, b.id);
+        });
+
+        /**
+         * The stored node of each state with the cheapest path, used to detect duplicates
+         */
+        private final Map<PackedState, Node> index = new HashMap<>();
+
+        /**
+         * The number of stored nodes
+         */
+        private int stored;
+
+        /**
+         * The identifier of the next node
+         */
+        private long nextId;
+
+        /**
+         * Runs the search
+         *
+         * @return the plan found, or null if no plan fits in the budget
+         */
+        private List<Action> run() {
+            PackedState initialState = SMAStarPlanner.this.getPackedInitialState();
+            Node root = new Node(initialState, null, null, 0,
+                    SMAStarPlanner.this.heuristic.estimate(initialState), this.nextId++);
+            this.stored = 1;
+            this.index.put(initialState, root);
+            this.open.add(root);
+            this.leaves.add(root);
+
+            while (!this.open.isEmpty()) {
+                Node best = this.open.first();
+                if (best.key == Float.POSITIVE_INFINITY) {
+                    return null;
+                }
+                if (best.isLeaf() && SMAStarPlanner.this.getGoal().isSatisfiedBy(best.state)) {
+                    return this.planOf(best);
+                }
+                SMAStarPlanner.this.countExpansion(this.stored);
+                this.expand(best);
+            }
+            return null;
+        }
+
+        /**
+         * <b>
+         * Generates the children of a node that are not stored
+         * </b>
+         *
+         * @param node the node to expand
+         */
+        private void expand(Node node) {
+            this.open.remove(node);
+            Set<PackedState> known = new HashSet<>();
+            for (Node child : node.children) {
+                known.add(child.state);
+            }
+
+            Map<PackedState, Float> forgottenValues = node.forgottenValues;
+            List<Node> generated = new ArrayList<>();
+            for (CompiledAction action : SMAStarPlanner.this.getSuccessorGenerator().getApplicableActions(node.state)) {
+                PackedState state = action.successor(node.state);
+                if (known.contains(state) || this.isOnPath(node, state)) {
+                    continue;
+                }
+                known.add(state);
+                SMAStarPlanner.this.incrementProbe();
+                int g = node.g + action.getCost();
+                Node duplicate = this.index.get(state);
+                if (duplicate != null && duplicate.g <= g) {
+                    // The state is already stored with a path that is not more expensive
+                    continue;
+                }
+                if (duplicate != null && duplicate.isLeaf()) {
+                    // A cheaper path to a stored leaf is found, the leaf is no longer worth its memory
+                    this.forget(duplicate, node);
+                }
+                float f;
+                if (node.depth + 1 >= SMAStarPlanner.this.maxNodes - 1
+                        && !SMAStarPlanner.this.getGoal().isSatisfiedBy(state)) {
+                    // The path to a goal through this node cannot fit in the budget
+                    f = Float.POSITIVE_INFINITY;
+                } else {
+                    f = Math.max(node.f, g + SMAStarPlanner.this.heuristic.estimate(state));
+                    Float backedUp = forgottenValues == null ? null : forgottenValues.get(state);
+                    if (backedUp != null) {
+                        // The child was forgotten after its f-value was backed up from its own children
+                        f = Math.max(f, backedUp);
+                    }
+                }
+                generated.add(new Node(state, node, action.getAction(), g, f, this.nextId++));
+            }
+            node.forgotten = Float.POSITIVE_INFINITY;
+            node.forgottenValues = null;
+
+            if (node.isLeaf()) {
+                this.leaves.remove(node);
+            }
+            for (Node child : generated) {
+                if (this.stored >= SMAStarPlanner.this.maxNodes && !this.forgetWorstLeaf(node)) {
+                    // No other leaf can be forgotten, the child is forgotten at once
+                    node.forget(child.state, child.f);
+                    continue;
+                }
+                node.children.add(child);
+                this.index.put(child.state, child);
+                this.leaves.add(child);
+                this.open.add(child);
+                this.stored++;
+            }
+            if (node.isLeaf()) {
+                // Dead end, or every child has been forgotten
+                this.leaves.add(node);
+            }
+            this.backup(node);
+        }
+
+        /**
+         * <b>
+         * Forgets the worst stored leaf
+         * </b>
+         *
+         * <p>
+         * The f-value of the leaf is backed up into its parent, which becomes expandable again to
+         * regenerate it. <br>
+         * </p>
+         *
+         * @param expanded the node being expanded, which is updated by the caller
+         * @return false if no leaf can be forgotten
+         */
+        private boolean forgetWorstLeaf(Node expanded) {
+            if (this.leaves.isEmpty() || this.leaves.last().parent == null) {
+                return false;
+            }
+            this.forget(this.leaves.last(), expanded);
+            return true;
+        }
+
+        /**
+         * Forgets a stored leaf, backing up its f-value into its parent
+         *
+         * @param leaf     the leaf (not the root)
+         * @param expanded the node being expanded, which is updated by the caller
+         */
+        private void forget(Node leaf, Node expanded) {
+            this.leaves.remove(leaf);
+            this.open.remove(leaf);
+            this.index.remove(leaf.state, leaf);
+            this.stored--;
+
+            Node parent = leaf.parent;
+            if (parent != expanded) {
+                this.open.remove(parent);
+            }
+            parent.children.remove(leaf);
+            parent.forget(leaf.state, leaf.f);
+            if (parent != expanded) {
+                // The f-value of the parent is unchanged, it was already the best of its children
+                if (parent.isLeaf()) {
+                    this.leaves.add(parent);
+                }
+                parent.key = parent.forgotten;
+                this.open.add(parent);
+            }
+        }
+
+        /**
+         * Backs up the f-value of a node into its ancestors and updates its key
+         *
+         * @param node the node whose children changed
+         */
+        private void backup(Node node) {
+            this.open.remove(node);
+            for (Node current = node; current != null; current = current.parent) {
+                float f = current.forgotten;
+                for (Node child : current.children) {
+                    f = Math.min(f, child.f);
+                }
+                if (current != node && f == current.f) {
+                    break;
+                }
+                boolean leaf = this.leaves.remove(current);
+                boolean opened = current != node && this.open.remove(current);
+                current.f = f;
+                if (leaf) {
+                    this.leaves.add(current);
+                }
+                if (opened) {
+                    current.key = current.isLeaf() ? current.f : current.forgotten;
+                    this.open.add(current);
+                }
+            }
+            node.key = node.isLeaf() ? node.f : node.forgotten;
+            if (node.isLeaf() || node.forgotten < Float.POSITIVE_INFINITY) {
+                this.open.add(node);
+            }
+        }
+
+        /**
+         * Returns a boolean indicating if a state is on the path to a node
+         *
+         * @param node  the node
+         * @param state the state
+         * @return true if the state is the state of the node or of one of its ancestors
+         */
+        private boolean isOnPath(Node node, PackedState state) {
+            for (Node current = node; current != null; current = current.parent) {
+                if (current.state.equals(state)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the plan that leads to a node
+         *
+         * @param node the node
+         * @return the sequence of the actions of the path to the node
+         */
+        private List<Action> planOf(Node node) {
+            LinkedList<Action> plan = new LinkedList<>();
+            for (Node current = node; current.parent != null; current = current.parent) {
+                plan.addFirst(current.action);
+            }
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package planning;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>
+ * Class representing the limits of a running search, built from a {@link PlanningRequest}
+ * </b>
+ *
+ * <p>
+ * The planners report each expansion with the number of states they store. The counters are
+ * compared to the limits at each expansion; the clock and the cancellation token are only read
+ * every {@link #CHECK_INTERVAL} expansions, which keeps the check negligible in the main loops. <br>
+ * When a limit is reached, the search is stopped by a {@link Stop} exception, which unwinds the
+ * loops and the recursions of the planner up to {@link AbstractPlanner#plan(PlanningRequest)}. <br>
+ * The counters can be updated by several threads. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+final class SearchBudget {
+
+    /**
+     * The number of expansions between two checks of the clock and of the cancellation token (a power of two)
+     */
+    static final int CHECK_INTERVAL = 256;
+
+    /**
+     * The start of the search, in nanoseconds
+     */
+    private final long start;
+
+    /**
+     * The deadline of the search, in nanoseconds
+     */
+    private final long deadline;
+
+    /**
+     * The maximum number of expanded states
+     */
+    private final long maxExpansions;
+
+    /**
+     * The maximum number of states stored by the search
+     */
+    private final long maxStoredNodes;
+
+    /**
+     * The cancellation token (null if the search cannot be cancelled)
+     */
+    private final CancellationToken token;
+
+    /**
+     * The number of expanded states
+     */
+    private final AtomicLong expansions = new AtomicLong();
+
+    /**
+     * The highest number of states stored by the search
+     */
+    private volatile long storedNodes;
+
+    /**
+     * Constructor of the class, which starts the clock of the search
+     *
+     * @param request the request
+     */
+    SearchBudget(PlanningRequest request) {
+        this.start = System.nanoTime();
+        long deadline = Long.MAX_VALUE;
+        if (request.getTimeoutNanos() != PlanningRequest.UNLIMITED) {
+            deadline = SearchBudget.add(this.start, request.getTimeoutNanos());
+        }
+        if (request.getDeadlineMillis() != PlanningRequest.UNLIMITED) {
+            long left = request.getDeadlineMillis() - System.currentTimeMillis();
+            deadline = Math.min(deadline, SearchBudget.add(this.start, Math.max(0, left) * 1000000L));
+        }
+        this.deadline = deadline;
+        this.maxExpansions = request.getMaxExpansions();
+        this.maxStoredNodes = request.getMaxStoredNodes();
+        this.token = request.getCancellationToken();
+    }
+
+    /**
+     * Adds a duration to a time without overflow
+     *
+     * @param time     the time, in nanoseconds
+     * @param duration the duration, in nanoseconds
+     * @return the time after the duration, or {@link Long#MAX_VALUE} if it overflows
+     */
+    private static long add(long time, long duration) {
+        return duration > Long.MAX_VALUE - time ? Long.MAX_VALUE : time + duration;
+    }
+
+    /**
+     * <b>
+     * Counts an expansion and stops the search if a limit is reached
+     * </b>
+     *
+     * @param storedNodes the number of states stored by the search
+     * @throws Stop if a limit is reached
+     */
+    void expand(long storedNodes) {
+        long expansions = this.expansions.incrementAndGet();
+        if (storedNodes > this.storedNodes) {
+            this.storedNodes = storedNodes;
+        }
+        if (expansions > this.maxExpansions || storedNodes > this.maxStoredNodes) {
+            throw new Stop(PlanResult.Status.BUDGET_EXCEEDED);
+        }
+        if ((expansions & (SearchBudget.CHECK_INTERVAL - 1)) == 0) {
+            this.check();
+        }
+    }
+
+    /**
+     * Stops the search if the deadline is reached or if the token is cancelled
+     *
+     * @throws Stop if the deadline is reached or if the token is cancelled
+     */
+    void check() {
+        if (this.token != null && this.token.isCancelled()) {
+            throw new Stop(PlanResult.Status.CANCELLED);
+        }
+        if (this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline >= 0) {
+            throw new Stop(PlanResult.Status.TIMEOUT);
+        }
+    }
+
+    /**
+     * Returns the number of expanded states
+     *
+     * @return the number of expanded states
+     */
+    long getExpansions() {
+        return this.expansions.get();
+    }
+
+    /**
+     * Returns the highest number of states stored by the search
+     *
+     * @return the highest number of stored states
+     */
+    long getStoredNodes() {
+        return this.storedNodes;
+    }
+
+    /**
+     * Returns the duration of the search so far
+     *
+     * @return the duration of the search, in nanoseconds
+     */
+    long getElapsedNanos() {
+        return System.nanoTime() - this.start;
+    }
+
+    /**
+     * <b>
+     * Exception stopping a search whose limit is reached
+     * </b>
+     *
+     * <p>
+     * The exception has no stack trace, it is only used to unwind the search. <br>
+     * </p>
+     */
+    static final class Stop extends RuntimeException {
+
+        /**
+         * The serial version of the exception
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The status of the stopped search
+         */
+        private final PlanResult.Status status;
+
+        /**
+         * Constructor of the exception
+         *
+         * @param status the status of the stopped search
+         */
+        Stop(PlanResult.Status status) {
+            super(status.toString(), null, false, false);
+            this.status = status;
+        }
+
+        /**
+         * Returns the status of the stopped search
+         *
+         * @return the status of the stopped search
+         */
+        PlanResult.Status getStatus() {
+            return this.status;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package planning;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <b>
+ * Class representing a node of a best-first search
+ * </b>
+ *
+ * <p>
+ * A search node stores a packed state, the node and the action that reached it, and its
+ * cost from the initial state (g), its heuristic estimate (h) and their sum (f) as primitive values. <br>
+ * Open lists compare nodes on these values directly, without any map lookup. <br>
+ * A node also stores its position in the open list that contains it, which allows an open list to
+ * update a node in place when a cheaper path to its state is found (decrease-key). <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see OpenList
+ */
+public final class SearchNode {
+
+    /**
+     * The state of the node
+     */
+    private final PackedState state;
+
+    /**
+     * The heuristic estimate of the state
+     */
+    private final float h;
+
+    /**
+     * The parent of the node (null for the initial state)
+     */
+    private SearchNode parent;
+
+    /**
+     * The action that leads from the state of the parent to the state of the node
+     */
+    private Action action;
+
+    /**
+     * The cost of the path from the initial state
+     */
+    private int g;
+
+    /**
+     * The position of the node in the open list that contains it (its index in a heap, its key in a bucket list),
+     * -1 if it is not in an open list
+     */
+    int index = -1;
+
+    /**
+     * Constructor of the class
+     *
+     * @param state  the state of the node
+     * @param parent the parent of the node (null for the initial state)
+     * @param action the action that leads from the state of the parent to the state of the node
+     * @param g      the cost of the path from the initial state
+     * @param h      the heuristic estimate of the state
+     */
+    public SearchNode(PackedState state, SearchNode parent, Action action, int g, float h) {
+        this.state = state;
+        this.parent = parent;
+        this.action = action;
+        this.g = g;
+        this.h = h;
+    }
+
+    /**
+     * Returns the state of the node
+     *
+     * @return the state of the node
+     */
+    public PackedState getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns the parent of the node
+     *
+     * @return the parent of the node, null for the initial state
+     */
+    public SearchNode getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Returns the action that leads from the state of the parent to the state of the node
+     *
+     * @return the action of the node, null for the initial state
+     */
+    public Action getAction() {
+        return this.action;
+    }
+
+    /**
+     * Returns the cost of the path from the initial state
+     *
+     * @return the g-value of the node
+     */
+    public int getG() {
+        return this.g;
+    }
+
+    /**
+     * Returns the heuristic estimate of the state
+     *
+     * @return the h-value of the node
+     */
+    public float getH() {
+        return this.h;
+    }
+
+    /**
+     * Returns the estimated cost of a plan going through the node
+     *
+     * @return the f-value of the node
+     */
+    public float getF() {
+        return this.g + this.h;
+    }
+
+    /**
+     * Returns a boolean indicating if the node is in an open list
+     *
+     * @return true if the node is in an open list
+     */
+    public boolean isOpen() {
+        return this.index >= 0;
+    }
+
+    /**
+     * <b>
+     * Replaces the path of the node by a cheaper one
+     * </b>
+     *
+     * <p>
+     * If the node is in an open list, the open list must then be notified with {@link OpenList#add(SearchNode)}.
+     * </p>
+     *
+     * @param parent the new parent of the node
+     * @param action the action that leads from the state of the new parent to the state of the node
+     * @param g      the new cost of the path from the initial state
+     */
+    public void reparent(SearchNode parent, Action action, int g) {
+        this.parent = parent;
+        this.action = action;
+        this.g = g;
+    }
+
+    /**
+     * Returns the plan that leads from the initial state to the state of the node
+     *
+     * @return the sequence of the actions of the path to the node
+     */
+    public List<Action> getPlan() {
+        LinkedList<Action> plan = new LinkedList<>();
+        for (SearchNode node = this; node.parent != null; node = node.parent) {
+            plan.addFirst(node.action);
+        }
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchNode [g=" + this.g + ", h=" + this.h + ", state=" + this.state + "]";
+    }
+}
@@ -0,0 +1,415 @@
+package planning;
+
+import representation.Variable;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing the layout used to pack states into bit fields
+ * </b>
+ *
+ * <p>
+ * A state layout gives each variable of a planning problem a dense index and each value
+ * of its domain a small integer code. <br>
+ * The code <code>0</code> is reserved for an unassigned variable, so a variable whose domain
+ * has <code>d</code> values needs <code>ceil(log2(d + 1))</code> bits. <br>
+ * The fields of all the variables are laid out in a <code>long[]</code>, a field never
+ * straddles two words. <br>
+ * </p>
+ *
+ * <p>
+ * Variables are ordered by name and values by their string representation, so two layouts
+ * built from the same problem are identical. <br>
+ * </p>
+ *
+ * <p>
+ * Each (variable, code) pair also has a random 64-bit Zobrist key, the code <code>0</code> having the
+ * key <code>0</code>. The fingerprint of a state is the xor of the keys of its codes, so an action
+ * updates it in <code>O(|effect|)</code> by xoring out the old keys and xoring in the new ones. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see PackedState
+ */
+public final class StateLayout {
+
+    /**
+     * The variables, indexed by their dense index
+     */
+    private final Variable[] variables;
+
+    /**
+     * The dense index of each variable
+     */
+    private final Map<Variable, Integer> indices;
+
+    /**
+     * The values of each variable, the value of code <code>c</code> is at position <code>c - 1</code>
+     */
+    private final Object[][] values;
+
+    /**
+     * The code of each value of each variable
+     */
+    private final List<Map<Object, Integer>> codes;
+
+    /**
+     * The word in which the field of each variable is stored
+     */
+    private final int[] wordIndex;
+
+    /**
+     * The position of the lowest bit of the field of each variable in its word
+     */
+    private final int[] shift;
+
+    /**
+     * The (unshifted) mask of the field of each variable
+     */
+    private final long[] fieldMask;
+
+    /**
+     * The number of words of a packed state
+     */
+    private final int wordCount;
+
+    /**
+     * The Zobrist key of each code of each variable
+     */
+    private final long[][] zobrist;
+
+    /**
+     * The seed of the Zobrist keys, fixed so that fingerprints are reproducible
+     */
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+    /**
+     * Private constructor of the class (use the static factories)
+     *
+     * @param domains the values that each variable can take
+     */
+    private StateLayout(Map<Variable, Set<Object>> domains) {
+        List<Variable> sorted = new ArrayList<>(domains.keySet());
+        sorted.sort(Comparator.comparing(Variable::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        int size = sorted.size();
+        this.variables = sorted.toArray(new Variable[0]);
+        this.indices = new HashMap<>();
+        this.values = new Object[size][];
+        this.codes = new ArrayList<>(size);
+        this.wordIndex = new int[size];
+        this.shift = new int[size];
+        this.fieldMask = new long[size];
+
+        int word = 0;
+        int bit = 0;
+        for (int i = 0; i < size; i++) {
+            Variable variable = this.variables[i];
+            this.indices.put(variable, i);
+
+            List<Object> domain = new ArrayList<>(domains.get(variable));
+            domain.sort(Comparator.comparing(String::valueOf));
+            this.values[i] = domain.toArray();
+            Map<Object, Integer> valueCodes = new HashMap<>();
+            for (int code = 1; code <= domain.size(); code++) {
+                valueCodes.put(domain.get(code - 1), code);
+            }
+            this.codes.add(valueCodes);
+
+            // Number of bits needed to store the codes 0..domain.size()
+            int width = Math.max(1, 64 - Long.numberOfLeadingZeros(domain.size()));
+            if (bit + width > 64) {
+                word++;
+                bit = 0;
+            }
+            this.wordIndex[i] = word;
+            this.shift[i] = bit;
+            this.fieldMask[i] = width == 64 ? -1L : (1L << width) - 1;
+            bit += width;
+        }
+        this.wordCount = size == 0 ? 0 : word + 1;
+
+        SplittableRandom random = new SplittableRandom(StateLayout.ZOBRIST_SEED);
+        this.zobrist = new long[size][];
+        for (int i = 0; i < size; i++) {
+            this.zobrist[i] = new long[this.values[i].length + 1];
+            for (int code = 1; code < this.zobrist[i].length; code++) {
+                this.zobrist[i][code] = random.nextLong();
+            }
+        }
+    }
+
+    /**
+     * <b>
+     * Builds the layout of the states of a planning problem
+     * </b>
+     *
+     * <p>
+     * The layout contains the variables of the initial state, of the goal and of the preconditions
+     * and effects of the basic actions. The values of a variable are its domain and all the values
+     * that the problem assigns to it. <br>
+     * Actions that are not basic actions must only assign values of the domains of these variables.
+     * </p>
+     *
+     * @param initialState the initial state
+     * @param actions      the set of actions
+     * @param goal         the goal (can be null)
+     * @return the layout of the states of the problem
+     */
+    public static StateLayout of(Map<Variable, Object> initialState, Collection<? extends Action> actions, Goal goal) {
+        Map<Variable, Set<Object>> domains = new HashMap<>();
+        if (initialState != null) {
+            StateLayout.collect(domains, initialState);
+        }
+        if (actions != null) {
+            for (Action action : actions) {
+                if (action instanceof BasicAction) {
+                    StateLayout.collect(domains, ((BasicAction) action).getPrecondition());
+                    StateLayout.collect(domains, ((BasicAction) action).getEffect());
+                }
+            }
+        }
+        if (goal != null) {
+            StateLayout.collect(domains, goal.getGoal());
+        }
+        return new StateLayout(domains);
+    }
+
+    /**
+     * <b>
+     * Builds the layout of a set of variables from their domains
+     * </b>
+     *
+     * @param variables the variables
+     * @return the layout of the variables
+     */
+    public static StateLayout of(Collection<? extends Variable> variables) {
+        Map<Variable, Set<Object>> domains = new HashMap<>();
+        for (Variable variable : variables) {
+            StateLayout.domainOf(domains, variable);
+        }
+        return new StateLayout(domains);
+    }
+
+    /**
+     * Adds the variables and the values of an assignment to a map of domains
+     *
+     * @param domains    the map of domains
+     * @param assignment the assignment (can be null)
+     */
+    private static void collect(Map<Variable, Set<Object>> domains, Map<Variable, Object> assignment) {
+        if (assignment == null) {
+            return;
+        }
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            StateLayout.domainOf(domains, entry.getKey()).add(entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the domain of a variable in a map of domains, adding it with the declared domain if needed
+     *
+     * @param domains  the map of domains
+     * @param variable the variable
+     * @return the domain of the variable
+     */
+    private static Set<Object> domainOf(Map<Variable, Set<Object>> domains, Variable variable) {
+        return domains.computeIfAbsent(variable, v -> v.getDomain() == null
+                ? new HashSet<>() : new HashSet<>(v.getDomain()));
+    }
+
+    /**
+     * Returns the number of variables of the layout
+     *
+     * @return the number of variables of the layout
+     */
+    public int size() {
+        return this.variables.length;
+    }
+
+    /**
+     * Returns the number of words of a packed state
+     *
+     * @return the number of words of a packed state
+     */
+    public int getWordCount() {
+        return this.wordCount;
+    }
+
+    /**
+     * Returns the variable of a given index
+     *
+     * @param index the index of the variable
+     * @return the variable of the given index
+     */
+    public Variable getVariable(int index) {
+        return this.variables[index];
+    }
+
+    /**
+     * Returns the index of a variable
+     *
+     * @param variable the variable
+     * @return the index of the variable, or -1 if the variable is not part of the layout
+     */
+    public int indexOf(Variable variable) {
+        Integer index = this.indices.get(variable);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the number of values that a variable can take
+     *
+     * @param index the index of the variable
+     * @return the number of values that the variable can take
+     */
+    public int getDomainSize(int index) {
+        return this.values[index].length;
+    }
+
+    /**
+     * Returns the code of a value of a variable
+     *
+     * @param index the index of the variable
+     * @param value the value
+     * @return the code of the value (at least 1), or -1 if the variable cannot take the value
+     */
+    public int codeOf(int index, Object value) {
+        Integer code = this.codes.get(index).get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the value of a code of a variable
+     *
+     * @param index the index of the variable
+     * @param code  the code (at least 1)
+     * @return the value of the code
+     */
+    public Object valueOf(int index, int code) {
+        return this.values[index][code - 1];
+    }
+
+    /**
+     * Returns the index of the word in which the field of a variable is stored
+     *
+     * @param index the index of the variable
+     * @return the index of the word of the variable
+     */
+    int wordOf(int index) {
+        return this.wordIndex[index];
+    }
+
+    /**
+     * Returns the shifted mask of the field of a variable in its word
+     *
+     * @param index the index of the variable
+     * @return the shifted mask of the field of the variable
+     */
+    long maskOf(int index) {
+        return this.fieldMask[index] << this.shift[index];
+    }
+
+    /**
+     * Returns the bits of a code of a variable, at the position of its field in its word
+     *
+     * @param index the index of the variable
+     * @param code  the code
+     * @return the shifted bits of the code
+     */
+    long bitsOf(int index, int code) {
+        return ((long) code) << this.shift[index];
+    }
+
+    /**
+     * Returns the Zobrist key of a code of a variable
+     *
+     * @param index the index of the variable
+     * @param code  the code
+     * @return the Zobrist key of the code, 0 for an unassigned variable
+     */
+    long zobristKey(int index, int code) {
+        return this.zobrist[index][code];
+    }
+
+    /**
+     * Computes the fingerprint of packed words
+     *
+     * @param words the packed words
+     * @return the xor of the Zobrist keys of the codes of all the variables
+     */
+    long fingerprint(long[] words) {
+        long fingerprint = 0L;
+        for (int i = 0; i < this.variables.length; i++) {
+            fingerprint ^= this.zobrist[i][this.read(words, i)];
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Reads the code of a variable in packed words
+     *
+     * @param words the packed words
+     * @param index the index of the variable
+     * @return the code of the variable
+     */
+    int read(long[] words, int index) {
+        return (int) ((words[this.wordIndex[index]] >>> this.shift[index]) & this.fieldMask[index]);
+    }
+
+    /**
+     * Writes the code of a variable in packed words
+     *
+     * @param words the packed words
+     * @param index the index of the variable
+     * @param code  the code
+     */
+    void write(long[] words, int index, int code) {
+        int word = this.wordIndex[index];
+        words[word] = (words[word] & ~this.maskOf(index)) | this.bitsOf(index, code);
+    }
+
+    /**
+     * Writes a partial assignment in packed words
+     *
+     * @param words      the packed words
+     * @param assignment the partial assignment
+     * @throws IllegalArgumentException if a variable or a value is not part of the layout
+     */
+    void write(long[] words, Map<Variable, Object> assignment) {
+        for (Map.Entry<Variable, Object> entry : assignment.entrySet()) {
+            int index = this.indexOf(entry.getKey());
+            int code = index < 0 ? -1 : this.codeOf(index, entry.getValue());
+            if (code < 0) {
+                throw new IllegalArgumentException("The assignment " + entry.getKey().getName() + "="
+                        + entry.getValue() + " is not part of the layout");
+            }
+            this.write(words, index, code);
+        }
+    }
+
+    /**
+     * <b>
+     * Packs a state
+     * </b>
+     *
+     * @param state the state to pack
+     * @return the packed state
+     * @throws IllegalArgumentException if a variable or a value of the state is not part of the layout
+     */
+    public PackedState pack(Map<Variable, Object> state) {
+        long[] words = new long[this.wordCount];
+        this.write(words, state);
+        return new PackedState(this, words);
+    }
+
+    @Override
+    public String toString() {
+        return "StateLayout [variables=" + this.variables.length + ", words=" + this.wordCount + "]";
+    }
+}
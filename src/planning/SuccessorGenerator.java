@@ -0,0 +1,255 @@
+package planning;
+
+import java.util.*;
+
+/**
+ * <b>
+ * Class representing an index of the applicable actions of a state
+ * </b>
+ *
+ * <p>
+ * A successor generator is a decision tree built once from a set of compiled actions. <br>
+ * Each internal node tests the code of one variable of the state: it has a child for each code
+ * of the variable, holding the actions whose preconditions require this code, and a
+ * "don't care" child, holding the actions whose preconditions do not use the variable. <br>
+ * An action is stored in the node where all the variables of its preconditions have been tested,
+ * so enumerating the applicable actions of a state only visits the branches that match the state,
+ * without testing the other actions. <br>
+ * </p>
+ *
+ * <p>
+ * Actions that are not compiled basic actions cannot be indexed, they are tested one by one
+ * for each state. Actions whose preconditions can never be satisfied are not indexed. <br>
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ * @see CompiledAction
+ */
+public final class SuccessorGenerator {
+
+    /**
+     * The layout of the states
+     */
+    private final StateLayout layout;
+
+    /**
+     * The root of the decision tree (null if no action is indexed)
+     */
+    private final Node root;
+
+    /**
+     * The actions that are not indexed and must be tested for each state
+     */
+    private final CompiledAction[] generic;
+
+    /**
+     * <b>
+     * Constructor of the class
+     * </b>
+     *
+     * @param layout  the layout of the states
+     * @param actions the compiled actions to index
+     */
+    public SuccessorGenerator(StateLayout layout, CompiledAction[] actions) {
+        this.layout = layout;
+        List<CompiledAction> indexed = new ArrayList<>();
+        List<CompiledAction> others = new ArrayList<>();
+        int maxId = -1;
+        for (CompiledAction action : actions) {
+            maxId = Math.max(maxId, action.getId());
+            if (!action.isCompiled()) {
+                others.add(action);
+            } else if (action.getPrecondition().isSatisfiable()) {
+                indexed.add(action);
+            }
+        }
+        this.generic = others.toArray(new CompiledAction[0]);
+        this.root = indexed.isEmpty() ? null : this.build(indexed, new int[maxId + 1]);
+    }
+
+    /**
+     * <b>
+     * Builds the subtree indexing a list of actions
+     * </b>
+     *
+     * <p>
+     * The variables of the preconditions of a compiled action are sorted by index, the position of
+     * the next variable to test for each action is stored in <code>cursors</code>. <br>
+     * The node tests the smallest next variable of the actions: the actions that test it are split
+     * by their required code, the others go to the "don't care" child. <br>
+     * </p>
+     *
+     * @param actions the actions to index
+     * @param cursors the position of the next variable to test in the preconditions of each action
+     * @return the root of the subtree
+     */
+    private Node build(List<CompiledAction> actions, int[] cursors) {
+        List<CompiledAction> immediate = new ArrayList<>();
+        int variable = Integer.MAX_VALUE;
+        for (CompiledAction action : actions) {
+            PackedAssignment precondition = action.getPrecondition();
+            int cursor = cursors[action.getId()];
+            if (cursor == precondition.size()) {
+                immediate.add(action);
+            } else {
+                variable = Math.min(variable, precondition.getVariable(cursor));
+            }
+        }
+
+        Node node = new Node(immediate.toArray(new CompiledAction[0]));
+        if (immediate.size() == actions.size()) {
+            return node;
+        }
+
+        // Split the remaining actions by the code they require for the tested variable
+        List<List<CompiledAction>> byCode = new ArrayList<>();
+        for (int code = 0; code <= this.layout.getDomainSize(variable); code++) {
+            byCode.add(new ArrayList<>());
+        }
+        List<CompiledAction> dontCare = new ArrayList<>();
+        for (CompiledAction action : actions) {
+            PackedAssignment precondition = action.getPrecondition();
+            int cursor = cursors[action.getId()];
+            if (cursor == precondition.size()) {
+                continue;
+            }
+            if (precondition.getVariable(cursor) == variable) {
+                byCode.get(precondition.getCode(cursor)).add(action);
+                cursors[action.getId()]++;
+            } else {
+                dontCare.add(action);
+            }
+        }
+
+        node.variable = variable;
+        node.children = new Node[byCode.size()];
+        for (int code = 1; code < byCode.size(); code++) {
+            if (!byCode.get(code).isEmpty()) {
+                node.children[code] = this.build(byCode.get(code), cursors);
+            }
+        }
+        if (!dontCare.isEmpty()) {
+            node.dontCare = this.build(dontCare, cursors);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the layout of the states
+     *
+     * @return the layout of the states
+     */
+    public StateLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * <b>
+     * Returns the actions that are applicable in a state
+     * </b>
+     *
+     * @param state the packed state (must use the layout of the generator)
+     * @return the list of the applicable actions
+     */
+    public List<CompiledAction> getApplicableActions(PackedState state) {
+        List<CompiledAction> applicable = new ArrayList<>();
+        this.collect(state, applicable);
+        return applicable;
+    }
+
+    /**
+     * Adds the actions that are applicable in a state to a list
+     *
+     * @param state      the packed state (must use the layout of the generator)
+     * @param applicable the list to which the applicable actions are added
+     */
+    public void collect(PackedState state, List<CompiledAction> applicable) {
+        if (this.root != null) {
+            this.collect(this.root, state.words(), applicable);
+        }
+        for (CompiledAction action : this.generic) {
+            if (action.isApplicable(state)) {
+                applicable.add(action);
+            }
+        }
+    }
+
+    /**
+     * Adds the actions that are applicable in packed words to a list
+     *
+     * @param words      the packed words of a state of the layout of the generator
+     * @param applicable the list to which the applicable actions are added
+     */
+    void collect(long[] words, List<CompiledAction> applicable) {
+        if (this.root != null) {
+            this.collect(this.root, words, applicable);
+        }
+        for (CompiledAction action : this.generic) {
+            if (action.isApplicable(words)) {
+                applicable.add(action);
+            }
+        }
+    }
+
+    /**
+     * Adds the actions of a subtree that are applicable in packed words to a list
+     *
+     * @param node       the root of the subtree
+     * @param words      the packed words of the state
+     * @param applicable the list to which the applicable actions are added
+     */
+    private void collect(Node node, long[] words, List<CompiledAction> applicable) {
+        while (node != null) {
+            Collections.addAll(applicable, node.immediate);
+            if (node.children == null) {
+                return;
+            }
+            Node child = node.children[this.layout.read(words, node.variable)];
+            if (child != null) {
+                this.collect(child, words, applicable);
+            }
+            node = node.dontCare;
+        }
+    }
+
+    /**
+     * <b>
+     * Node of the decision tree
+     * </b>
+     */
+    private static final class Node {
+
+        /**
+         * The actions whose preconditions are all tested on the path to the node
+         */
+        private final CompiledAction[] immediate;
+
+        /**
+         * The index of the variable tested by the node
+         */
+        private int variable = -1;
+
+        /**
+         * The child of each code of the tested variable (null for a leaf)
+         */
+        private Node[] children;
+
+        /**
+         * The child of the actions that do not test the variable
+         */
+        private Node dontCare;
+
+        /**
+         * Constructor of the node
+         *
+         * @param immediate the actions whose preconditions are all tested on the path to the node
+         */
+        private Node(CompiledAction[] immediate) {
+            this.immediate = immediate;
+        }
+    }
+}
@@ -32,7 +32,7 @@ import java.util.Map;
  * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
  * @version 1.0
  */
-public class WrongVariablesHeuristic implements Heuristic {
+public class WrongVariablesHeuristic implements IncrementalHeuristic {
 
     /**
      * The goal
@@ -58,4 +58,41 @@ public class WrongVariablesHeuristic implements Heuristic {
         }
         return wrongVariables;
     }
+
+    @Override
+    public float estimate(PackedState state) {
+        StateLayout layout = state.getLayout();
+        float wrongVariables = 0;
+        for (Map.Entry<Variable, Object> entry : goal.getGoal().entrySet()) {
+            int index = layout.indexOf(entry.getKey());
+            if (index >= 0 && state.get(index) != 0
+                    && state.get(index) != layout.codeOf(index, entry.getValue())) {
+                wrongVariables++;
+            }
+        }
+        return wrongVariables;
+    }
+
+    @Override
+    public float estimateIncremental(PackedState parent, float parentValue, Action action) {
+        if (!(action instanceof BasicAction)) {
+            return this.estimate(action.successor(parent));
+        }
+        StateLayout layout = parent.getLayout();
+        float wrongVariables = parentValue;
+        for (Map.Entry<Variable, Object> entry : ((BasicAction) action).getEffect().entrySet()) {
+            Object goalValue = goal.getGoal().get(entry.getKey());
+            if (goalValue == null) {
+                continue;
+            }
+            int index = layout.indexOf(entry.getKey());
+            int code = index < 0 ? 0 : parent.get(index);
+            boolean wasWrong = code != 0 && code != layout.codeOf(index, goalValue);
+            boolean isWrong = !goalValue.equals(entry.getValue());
+            if (wasWrong != isWrong) {
+                wrongVariables += isWrong ? 1 : -1;
+            }
+        }
+        return wrongVariables;
+    }
 }
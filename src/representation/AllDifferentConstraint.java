@@ -0,0 +1,91 @@
+package representation;
+
+import java.util.*;
+
+/**
+ * <b>Class representing a global difference constraint between variables</b>
+ *
+ * <p>
+ * An all different constraint specifies that all its variables must have pairwise
+ * different values. It replaces the {@link DifferenceConstraint}s between each pair of
+ * its variables by a single constraint, which a solver can filter as a whole.
+ * </p>
+ *
+ * <p>
+ * Like the differences it replaces, the constraint is violated by a partial assignment as soon
+ * as two of its variables have the same value, and it weighs as many differences as the other
+ * variables of its scope.
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public class AllDifferentConstraint implements Constraint {
+
+    /**
+     * The variables of the constraint
+     */
+    private final Set<Variable> scope;
+
+    /**
+     * Constructor of the class
+     *
+     * @param variables the variables of the constraint
+     */
+    public AllDifferentConstraint(Collection<Variable> variables) {
+        this.scope = Collections.unmodifiableSet(new LinkedHashSet<>(variables));
+    }
+
+    @Override
+    public Set<Variable> getScope() {
+        return this.scope;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(Map<Variable, Object> assignment) {
+        if (!assignment.keySet().containsAll(this.scope)) {
+            throw new IllegalArgumentException("All variables of a constraint must be instantiated");
+        }
+        return !this.isViolatedBy(assignment);
+    }
+
+    /**
+     * <b>Returns a boolean indicating if two assigned variables of the constraint have the same value</b>
+     *
+     * <p>
+     * The variables of the constraint that are not in the assignment are ignored.
+     * </p>
+     *
+     * @param assignment the assignment, which can be partial
+     * @return true if two variables of the constraint have the same value
+     */
+    @Override
+    public boolean isViolatedBy(Map<Variable, Object> assignment) {
+        // We check that no value is taken by two assigned variables
+        Set<Object> values = new HashSet<>();
+        for (Variable variable : this.scope) {
+            if (assignment.containsKey(variable) && !values.add(assignment.get(variable))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <b>Returns the weight of the constraint</b>
+     *
+     * @return the number of differences between a variable and the other variables of the constraint
+     */
+    @Override
+    public int getWeight() {
+        return this.scope.size() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "AllDifferentConstraint [variables=" + this.scope + "]";
+    }
+}
@@ -29,6 +29,11 @@ public abstract class BinaryConstraint implements Constraint {
      */
     private final Variable secondVariable;
 
+    /**
+     * The scope of the constraint, built once since the variables never change
+     */
+    private final Set<Variable> scope;
+
     /**
      * <b>
      * Protected constructor of the class (only subclasses can instantiate it)
@@ -40,6 +45,11 @@ public abstract class BinaryConstraint implements Constraint {
     protected BinaryConstraint(Variable firstVariable, Variable secondVariable) {
         this.firstVariable = firstVariable;
         this.secondVariable = secondVariable;
+        if (firstVariable.equals(secondVariable)) {
+            this.scope = Set.of(firstVariable);
+        } else {
+            this.scope = Set.of(firstVariable, secondVariable);
+        }
     }
 
     /**
@@ -62,10 +72,7 @@ public abstract class BinaryConstraint implements Constraint {
 
     @Override
     public Set<Variable> getScope() {
-        if (this.firstVariable.equals(this.secondVariable)) {
-            return Set.of(this.firstVariable);
-        }
-        return Set.of(this.firstVariable, this.secondVariable);
+        return this.scope;
     }
 
     @Override
@@ -77,6 +84,24 @@ public abstract class BinaryConstraint implements Constraint {
         return this.isSatisfied(assignment.get(this.firstVariable), assignment.get(this.secondVariable));
     }
 
+    /**
+     * <b>
+     * Returns a boolean indicating if two values satisfy the constraint
+     * </b>
+     *
+     * <p>
+     * This is the same test as {@link #isSatisfiedBy(Map)}, without building an assignment, for the
+     * solvers that check many pairs of values.<br>
+     * </p>
+     *
+     * @param firstValue  the value of the first variable
+     * @param secondValue the value of the second variable
+     * @return true if the constraint is satisfied by the two values
+     */
+    public boolean isSatisfiedBy(Object firstValue, Object secondValue) {
+        return this.isSatisfied(firstValue, secondValue);
+    }
+
 
     /**
      * <b>
@@ -19,6 +19,15 @@ import java.util.Set;
  * The constraint must also be able to know the variables it is related to.
  * </p>
  *
+ * <p>
+ * {@link #isSatisfiedBy(Map)} needs a value for each variable of the scope, while
+ * {@link #isViolatedBy(Map)} can be called on a partial assignment: by default a constraint is only
+ * violated once all its variables have a value, and a constraint that can reject a partial assignment
+ * earlier overrides it. <br>
+ * {@link #getWeight()} tells the solvers how many constraints between a variable of the scope and the
+ * other ones the constraint stands for (1 by default). <br>
+ * </p>
+ *
  * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
  * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
  * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
@@ -71,5 +80,34 @@ public interface Constraint {
      */
     boolean isSatisfiedBy(Map<Variable, Object> assignment);
 
+    /**
+     * <b>Returns true if an assignment, which can be partial, already violates the constraint</b>
+     *
+     * <p>
+     * The variables that have no value in the assignment can still take any value: the constraint is
+     * violated only if no values of these variables can satisfy it. By default, the constraint is checked
+     * when all its variables have a value. <br>
+     * </p>
+     *
+     * @param assignment the assignment to test, which can be partial
+     * @return true if the constraint cannot be satisfied by any extension of the assignment
+     */
+    default boolean isViolatedBy(Map<Variable, Object> assignment) {
+        return assignment.keySet().containsAll(this.getScope()) && !this.isSatisfiedBy(assignment);
+    }
+
+    /**
+     * <b>Returns the weight of the constraint for each variable of its scope</b>
+     *
+     * <p>
+     * The weight is the number of constraints between a variable of the scope and the other ones that
+     * the constraint stands for, which the variable heuristics count as the degree of the variable. <br>
+     * </p>
+     *
+     * @return the weight of the constraint (1 by default)
+     */
+    default int getWeight() {
+        return 1;
+    }
 
 }
@@ -0,0 +1,100 @@
+package representation;
+
+import java.util.*;
+
+/**
+ * <b>Class representing an extensional constraint, given by its allowed tuples</b>
+ *
+ * <p>
+ * A table constraint lists the combinations of values that its variables can take
+ * simultaneously. A tuple gives a value to each variable, in the order of the variables
+ * of the constraint, and the constraint is satisfied if the values of the variables form
+ * one of the tuples.
+ * </p>
+ *
+ * @author <a href="mailto:22013393@etu.unicaen.fr">KITSOUKOU Manne Emile</a>
+ * @author <a href="mailto:22208735@etu.unicaen.fr">ZEKZEKHNINI Cheyma</a>
+ * @author <a href="mailto:22107869@etu.unicaen.fr">KISSAMI SAFAE</a>
+ * @author <a href="mailto:22012235@etu.unicaen.fr">OROU-GUIDOU Amirath Farah</a>
+ * @version 1.0
+ */
+public class TableConstraint implements Constraint {
+
+    /**
+     * The variables of the constraint, in the order of the values of the tuples
+     */
+    private final List<Variable> variables;
+
+    /**
+     * The variables of the constraint
+     */
+    private final Set<Variable> scope;
+
+    /**
+     * The allowed tuples
+     */
+    private final Set<List<Object>> tuples;
+
+    /**
+     * Constructor of the class
+     *
+     * @param variables the variables of the constraint, in the order of the values of the tuples
+     * @param tuples    the allowed tuples
+     * @throws IllegalArgumentException if a variable appears twice or if a tuple has not one value per variable
+     */
+    public TableConstraint(List<Variable> variables, Collection<List<Object>> tuples) {
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+        this.scope = Collections.unmodifiableSet(new LinkedHashSet<>(variables));
+        if (this.scope.size() != this.variables.size()) {
+            throw new IllegalArgumentException("A variable cannot appear twice in a table constraint");
+        }
+        Set<List<Object>> allowed = new LinkedHashSet<>();
+        for (List<Object> tuple : tuples) {
+            if (tuple.size() != this.variables.size()) {
+                throw new IllegalArgumentException("A tuple must have one value per variable");
+            }
+            allowed.add(Collections.unmodifiableList(new ArrayList<>(tuple)));
+        }
+        this.tuples = Collections.unmodifiableSet(allowed);
+    }
+
+    /**
+     * <b>Returns the variables of the constraint, in the order of the values of the tuples</b>
+     *
+     * @return the variables of the constraint
+     */
+    public List<Variable> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * <b>Returns the allowed tuples</b>
+     *
+     * @return the allowed tuples
+     */
+    public Set<List<Object>> getTuples() {
+        return this.tuples;
+    }
+
+    @Override
+    public Set<Variable> getScope() {
+        return this.scope;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(Map<Variable, Object> assignment) {
+        if (!assignment.keySet().containsAll(this.scope)) {
+            throw new IllegalArgumentException("All variables of a constraint must be instantiated");
+        }
+        List<Object> tuple = new ArrayList<>(this.variables.size());
+        for (Variable variable : this.variables) {
+            tuple.add(assignment.get(variable));
+        }
+        return this.tuples.contains(tuple);
+    }
+
+    @Override
+    public String toString() {
+        return "TableConstraint [variables=" + this.variables + ", tuples=" + this.tuples.size() + "]";
+    }
+}
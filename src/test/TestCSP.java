@@ -1,6 +1,13 @@
 package test;
 
+import blocksworld.BWRegularConstraintSpace;
+import csp.ArcConsistency;
+import csp.BacktrackSolver;
+import csp.MACSolver;
 import csptests.*;
+import representation.*;
+
+import java.util.*;
 
 /**
  * <b>
@@ -51,7 +58,38 @@ public class TestCSP {
         test = test && RandomValueHeuristicTests.testOrdering();
 
         System.out.println("Test of the HeuristicMACSolver class");
-        //test = test && HeuristicMACSolverTests.testSolve();
+        test = test && HeuristicMACSolverTests.testSolve();
+
+        System.out.println("Test of the propagators");
+        Variable x = new Variable("x", Set.<Object>of(1, 2, 3));
+        Variable y = new Variable("y", Set.<Object>of(1, 2, 3));
+        Variable z = new Variable("z", Set.<Object>of(1, 2, 3));
+        Map<Variable, Set<Object>> domains = new HashMap<>();
+        domains.put(x, new HashSet<>(Set.of(1, 2)));
+        domains.put(y, new HashSet<>(Set.of(1, 2)));
+        domains.put(z, new HashSet<>(Set.of(1, 2, 3)));
+        // x and y take 1 and 2, so z can only take 3
+        test = test && new ArcConsistency(Set.of(new AllDifferentConstraint(List.of(x, y, z))), true).ac3(domains)
+                && domains.get(z).equals(Set.of(3));
+        domains.put(z, new HashSet<>(Set.of(2)));
+        test = test && !new ArcConsistency(Set.of(new AllDifferentConstraint(List.of(x, y, z)))).ac1(domains);
+        // The solvers that only check assignments reject two equal values before z is assigned
+        Constraint allDifferent = new AllDifferentConstraint(List.of(x, y, z));
+        test = test && !allDifferent.isViolatedBy(Map.of(x, 1, y, 2)) && allDifferent.isViolatedBy(Map.of(x, 1, y, 1))
+                && allDifferent.isSatisfiedBy(Map.of(x, 1, y, 2, z, 3)) && allDifferent.getWeight() == 2
+                && !new BacktrackSolver(Set.of(x, y, z), Set.of(allDifferent)).isConsistent(Map.of(x, 1, y, 1));
+        domains.put(x, new HashSet<>(Set.of(1, 2, 3)));
+        domains.put(y, new HashSet<>(Set.of(1, 2, 3)));
+        domains.put(z, new HashSet<>(Set.of(3)));
+        Constraint table = new TableConstraint(List.of(x, y, z), List.of(List.<Object>of(1, 2, 3), List.<Object>of(2, 3, 3), List.<Object>of(3, 1, 2)));
+        Constraint implication = new Implication(y, Set.<Object>of(2, 3), x, Set.<Object>of(2));
+        // The tuples with z = 3 leave y in {2, 3}, so the implication fires and x = 2 leaves the tuple (2, 3, 3)
+        test = test && new ArcConsistency(Set.of(table, implication), true).ac3(domains)
+                && domains.get(x).equals(Set.of(2)) && domains.get(y).equals(Set.of(3));
+        BWRegularConstraintSpace constraintSpace = new BWRegularConstraintSpace(8, 3);
+        Map<Variable, Object> solution = new MACSolver(constraintSpace.getVariableSpace().getVariables(),
+                constraintSpace.getConstraints(), true).solve();
+        test = test && solution != null && Constraint.satisfiedAllConstraints(solution, constraintSpace.getConstraints());
 
         System.out.println(test ? " All tests OK " : " At least one test KO ");
 
@@ -1,11 +1,14 @@
 package test;
 
+import blocksworld.BWActionSpace;
+import blocksworld.BWTowerHeuristic;
+import blocksworld.BWVariableSpace;
 import planning.*;
 import planningtests.*;
 import representation.Variable;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <b>
@@ -46,6 +49,12 @@ public class TestPlanning {
         System.out.println("Test of the DFSPlanner class");
         test = test && DFSPlannerTests.testPlan();
 
+        System.out.println("Test of the DFSPlanner class with iterative deepening");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new DFSPlanner(state, actions, goal, 100, true)
+        ).testPlan();
+
         System.out.println("Test of the DijkstraPlanner class");
         test = test && DijkstraPlannerTests.testPlan();
 
@@ -53,6 +62,64 @@ public class TestPlanning {
         test = test && AStarPlannerTests.testPlan();
 
 
+        System.out.println("Test of the AStarPlanner class with a bucket open list and dead ends");
+        Variable level = new Variable("level", new HashSet<>(Arrays.asList(0, 1, 2, 3)));
+        Set<Action> levelMoves = new HashSet<>();
+        levelMoves.add(new BasicAction(Collections.singletonMap(level, 0), Collections.singletonMap(level, 1), 1));
+        levelMoves.add(new BasicAction(Collections.singletonMap(level, 1), Collections.singletonMap(level, 2), 1));
+        levelMoves.add(new BasicAction(Collections.singletonMap(level, 0), Collections.singletonMap(level, 3), 1));
+        Goal two = new BasicGoal(Collections.singletonMap(level, 2));
+        // The state 3 is a dead end, and so is the state 1 for the second heuristic
+        Heuristic deadEnd = (Map<Variable, Object> state) -> state.get(level).equals(3) ? Float.POSITIVE_INFINITY : 0;
+        Heuristic unsolvable = (Map<Variable, Object> state) -> state.get(level).equals(0) ? 0 : Float.POSITIVE_INFINITY;
+        List<Action> deadEndPlan = new AStarPlanner(Collections.singletonMap(level, 0), levelMoves, two, deadEnd, true).plan();
+        test = test && deadEndPlan != null && deadEndPlan.size() == 2;
+        test = test && new AStarPlanner(Collections.singletonMap(level, 0), levelMoves, two, unsolvable, true).plan() == null;
+        BWActionSpace actionSpace = new BWActionSpace(4, 3);
+        BWVariableSpace variableSpace = actionSpace.getVariableSpace();
+        Map<Variable, Object> blocks = TestPlanning.blocksworldState(variableSpace, new int[][]{{0, 1}, {2}, {3}});
+        Goal tower = new BasicGoal(TestPlanning.blocksworldState(variableSpace, new int[][]{{3, 2, 1, 0}, {}, {}}));
+        Set<Action> moves = actionSpace.getActions();
+        int optimalCost = TestPlanning.costOf(new DijkstraPlanner(blocks, moves, tower).plan());
+        List<Action> bucketPlan = new AStarPlanner(blocks, moves, tower, new HMaxHeuristic(moves, tower), true).plan();
+        test = test && bucketPlan != null && TestPlanning.costOf(bucketPlan) == optimalCost;
+
+        System.out.println("Test of the DijkstraPlanner class with a bucket open list and a large cost");
+        Set<Action> expensiveMoves = new HashSet<>(levelMoves);
+        expensiveMoves.add(new BasicAction(Collections.singletonMap(level, 0), Collections.singletonMap(level, 3), 100_000_000));
+        // One bucket per distance would not fit in memory, the distance is rejected
+        boolean rejected = false;
+        try {
+            new DijkstraPlanner(Collections.singletonMap(level, 0), expensiveMoves, two, true).plan();
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        test = test && rejected;
+
+        System.out.println("Test of the AStarPlanner class with the HMaxHeuristic");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new AStarPlanner(state, actions, goal, new HMaxHeuristic(actions, goal))
+        ).testPlan();
+
+        System.out.println("Test of the AStarPlanner class with the PatternDatabaseHeuristic");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) -> {
+                    List<Set<Variable>> patterns = new ArrayList<>();
+                    for (Variable variable : goal.getGoal().keySet()) {
+                        patterns.add(Collections.singleton(variable));
+                    }
+                    return new AStarPlanner(state, actions, goal,
+                            PatternDatabaseHeuristic.build(patterns, actions, goal, true));
+                }
+        ).testPlan();
+
+        System.out.println("Test of the AStarPlanner class with the CachedHeuristic");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new AStarPlanner(state, actions, goal, new CachedHeuristic(new HMaxHeuristic(actions, goal), 1024))
+        ).testPlan();
+
         System.out.println("Test of the BeamPlanner class");
         test = test && new PlannerTests(
                 (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
@@ -64,9 +131,186 @@ public class TestPlanning {
                         }, 1000)
         ).testPlan();
 
+        System.out.println("Test of the BeamPlanner class with widening and parallel expansion");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new BeamPlanner(state, actions, goal, new MissingVariablesHeuristic(goal), 1, 1024, 2)
+        ).testPlan();
+
+        System.out.println("Test of the AnytimeWeightedAStarPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new AnytimeWeightedAStarPlanner(state, actions, goal, new MissingVariablesHeuristic(goal), 5, 1)
+        ).testPlan();
+
+        System.out.println("Test of the GreedyBestFirstPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new GreedyBestFirstPlanner(state, actions, goal, new FFHeuristic(actions, goal), true, true)
+        ).testPlan();
+
+        System.out.println("Test of the EnforcedHillClimbingPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new EnforcedHillClimbingPlanner(state, actions, goal, new FFHeuristic(actions, goal), true)
+        ).testPlan();
+
+        System.out.println("Test of the ParallelAStarPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new ParallelAStarPlanner(state, actions, goal, new Heuristic() {
+                            @Override
+                            public float estimate(Map<Variable, Object> state) {
+                                return 0;
+                            }
+                        }, 4)
+        ).testPlan();
+
+        System.out.println("Test of the ParallelAStarPlanner class with the BWTowerHeuristic");
+        BWActionSpace fiveBlocksSpace = new BWActionSpace(5, 3);
+        BWVariableSpace fiveBlocksVariables = fiveBlocksSpace.getVariableSpace();
+        Map<Variable, Object> fiveBlocks = TestPlanning.blocksworldState(fiveBlocksVariables, new int[][]{{0, 1, 2}, {3}, {4}});
+        Goal twoTowers = new BasicGoal(TestPlanning.blocksworldState(fiveBlocksVariables, new int[][]{{4, 3}, {2, 1, 0}, {}}));
+        Set<Action> fiveBlocksMoves = fiveBlocksSpace.getActions();
+        Heuristic towers = new BWTowerHeuristic(fiveBlocksVariables, twoTowers);
+        int fiveBlocksCost = TestPlanning.costOf(new DijkstraPlanner(fiveBlocks, fiveBlocksMoves, twoTowers).plan());
+        // A* needs 60 expansions, but a worker can run ahead of the others and expand nodes that A* would not
+        PlanResult parallel = new ParallelAStarPlanner(fiveBlocks, fiveBlocksMoves, twoTowers, towers, 4)
+                .plan(new PlanningRequest().withMaxExpansions(20000));
+        test = test && parallel.isSolved() && parallel.getCost() == fiveBlocksCost;
+
+        System.out.println("Test of the IDAStarPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new IDAStarPlanner(state, actions, goal, new Heuristic() {
+                            @Override
+                            public float estimate(Map<Variable, Object> state) {
+                                return 0;
+                            }
+                        }, 10000)
+        ).testPlan();
+
+        System.out.println("Test of the IDAStarPlanner class with the BWTowerHeuristic");
+        // A transposition table of 16 entries, the search does not end in 100000 expansions without the heuristic
+        PlanResult iterative = new IDAStarPlanner(fiveBlocks, fiveBlocksMoves, twoTowers, towers, 16)
+                .plan(new PlanningRequest().withMaxExpansions(500));
+        test = test && iterative.isSolved() && iterative.getCost() == fiveBlocksCost;
+
+        System.out.println("Test of the SMAStarPlanner class");
+        test = test && new PlannerTests(
+                (Map<Variable, Object> state, Set<Action> actions, Goal goal) ->
+                        new SMAStarPlanner(state, actions, goal, new Heuristic() {
+                            @Override
+                            public float estimate(Map<Variable, Object> state) {
+                                return 0;
+                            }
+                        }, 100000)
+        ).testPlan();
+
+        System.out.println("Test of the SMAStarPlanner class with a small budget");
+        // 200 nodes for the 2588 states that Dijkstra expands, so the states are forgotten and regenerated
+        PlanResult forgetting = new SMAStarPlanner(fiveBlocks, fiveBlocksMoves, twoTowers, new Heuristic() {
+            @Override
+            public float estimate(Map<Variable, Object> state) {
+                return 0;
+            }
+        }, 200).plan(new PlanningRequest().withMaxExpansions(100000));
+        test = test && forgetting.isSolved() && forgetting.getCost() == fiveBlocksCost;
+        PlanResult bounded = new SMAStarPlanner(fiveBlocks, fiveBlocksMoves, twoTowers, towers, 20)
+                .plan(new PlanningRequest().withMaxExpansions(500));
+        test = test && bounded.isSolved() && bounded.getCost() == fiveBlocksCost;
+
+        System.out.println("Test of the AnytimeWeightedAStarPlanner class with a limit and a stop");
+        AnytimeWeightedAStarPlanner anytime = new AnytimeWeightedAStarPlanner(fiveBlocks, fiveBlocksMoves, twoTowers, towers, 5, 1);
+        // The first plan is found within 100 expansions, the optimal one needs more
+        PlanResult limited = anytime.plan(new PlanningRequest().withMaxExpansions(100));
+        test = test && limited.getStatus() == PlanResult.Status.BUDGET_EXCEEDED && limited.getCost() > fiveBlocksCost;
+        // A stop that comes before the search is not lost, cancels it, and does not stop the next search
+        anytime.stop();
+        PlanResult cancelled = anytime.plan(new PlanningRequest());
+        test = test && cancelled.getStatus() == PlanResult.Status.CANCELLED && !anytime.isStopped()
+                && TestPlanning.costOf(anytime.plan()) == fiveBlocksCost;
+        // A stop after the first plan cancels the search with this plan
+        PlanListener stopper = (plan, cost, bound) -> anytime.stop();
+        anytime.addPlanListener(stopper);
+        cancelled = anytime.plan(new PlanningRequest());
+        anytime.removePlanListener(stopper);
+        test = test && cancelled.getStatus() == PlanResult.Status.CANCELLED && cancelled.getCost() > fiveBlocksCost;
+
+        System.out.println("Test of the BidirectionalPlanner class");
+        test = test && new PlannerTests(BidirectionalPlanner::new).testPlan();
+
+        System.out.println("Test of the PlanningRequest class");
+        Set<Object> domain = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            domain.add(i);
+        }
+        Variable x = new Variable("x", domain);
+        Variable y = new Variable("y", domain);
+        Set<Action> counterActions = new HashSet<>();
+        for (int i = 0; i < 49; i++) {
+            counterActions.add(new BasicAction(Collections.singletonMap(x, i), Collections.singletonMap(x, i + 1), 1));
+            counterActions.add(new BasicAction(Collections.singletonMap(y, i), Collections.singletonMap(y, i + 1), 1));
+        }
+        Map<Variable, Object> start = new HashMap<>();
+        start.put(x, 0);
+        start.put(y, 0);
+        Map<Variable, Object> end = new HashMap<>();
+        end.put(x, 49);
+        end.put(y, 49);
+        Planner counter = new DijkstraPlanner(start, counterActions, new BasicGoal(end));
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        PlanResult solved = counter.plan(new PlanningRequest());
+        test = test && solved.getStatus() == PlanResult.Status.SOLVED && solved.getCost() == 98;
+        test = test && counter.plan(new PlanningRequest().withMaxExpansions(100)).getStatus()
+                == PlanResult.Status.BUDGET_EXCEEDED;
+        test = test && counter.plan(new PlanningRequest().withMaxStoredNodes(100)).getStatus()
+                == PlanResult.Status.BUDGET_EXCEEDED;
+        test = test && counter.plan(new PlanningRequest().withTimeout(0, TimeUnit.SECONDS)).getStatus()
+                == PlanResult.Status.TIMEOUT;
+        test = test && counter.plan(new PlanningRequest().withCancellationToken(token)).getStatus()
+                == PlanResult.Status.CANCELLED;
+        end.put(x, 50);
+        test = test && new DijkstraPlanner(start, counterActions, new BasicGoal(end)).plan(new PlanningRequest())
+                .getStatus() == PlanResult.Status.UNSOLVABLE;
 
 
         System.out.println(test ? " All tests OK " : " At least one test KO ");
 
     }
+
+    /**
+     * Returns a state of the blocksworld from its piles
+     *
+     * @param variableSpace the variables of the blocksworld
+     * @param piles         the blocks of each pile, from the bottom to the top
+     * @return the state
+     */
+    private static Map<Variable, Object> blocksworldState(BWVariableSpace variableSpace, int[][] piles) {
+        Map<Variable, Object> state = new HashMap<>();
+        for (int pile = 0; pile < piles.length; pile++) {
+            state.put(variableSpace.getFree(pile), piles[pile].length == 0);
+            for (int i = 0; i < piles[pile].length; i++) {
+                int block = piles[pile][i];
+                state.put(variableSpace.getOn(block), i == 0 ? -(pile + 1) : piles[pile][i - 1]);
+                state.put(variableSpace.getFixed(block), i < piles[pile].length - 1);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Returns the cost of a plan
+     *
+     * @param plan the plan
+     * @return the sum of the costs of the actions of the plan
+     */
+    private static int costOf(List<Action> plan) {
+        int cost = 0;
+        for (Action action : plan) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
 }